@@ -288,6 +288,43 @@ connection.gradle.distribution=INVALID_GRADLE_DISTRO"""
         thrown RuntimeException
     }
 
+    def "unchanged preferences are not written again"() {
+        setup:
+        File prefsFile = new File(projectDir, ".settings/${CorePlugin.PLUGIN_ID}.prefs")
+        DefaultBuildConfigurationProperties properties = new DefaultBuildConfigurationProperties(projectDir, GradleDistribution.forVersion('3.2.1'), null, true, false, true, false)
+        persistence.saveBuildConfiguration(projectDir, properties)
+        persistence.savePathToRoot(projectDir, 'path-to-root')
+        prefsFile.setLastModified(0)
+
+        when:
+        boolean buildConfigurationChanged = persistence.saveBuildConfiguration(projectDir, properties)
+        boolean pathToRootChanged = persistence.savePathToRoot(projectDir, 'path-to-root')
+
+        then:
+        !buildConfigurationChanged
+        !pathToRootChanged
+        prefsFile.lastModified() == 0
+
+        when:
+        pathToRootChanged = persistence.savePathToRoot(projectDir, 'other-path-to-root')
+
+        then:
+        pathToRootChanged
+        prefsFile.lastModified() != 0
+    }
+
+    def "unchanged preferences of workspace project are not flushed again"() {
+        setup:
+        DefaultBuildConfigurationProperties properties = validProperties(project)
+
+        expect:
+        persistence.savePathToRoot(project, 'path-to-root')
+        !persistence.savePathToRoot(project, 'path-to-root')
+        !persistence.saveBuildConfiguration(project, properties)
+        persistence.deletePathToRoot(project)
+        !persistence.deletePathToRoot(project)
+    }
+
     private DefaultBuildConfigurationProperties validProperties(IProject project) {
         new DefaultBuildConfigurationProperties(project.getLocation().toFile(), GradleDistribution.fromBuild(), null, false, false, false, false)
     }
@@ -44,6 +44,7 @@ class ProjectConfigurationTest extends ProjectSynchronizationSpecification {
         ProjectConfiguration projectConfig = configurationManager.createProjectConfiguration(buildConfig, projectDir);
 
         when:
+        configurationManager.saveBuildConfiguration(buildConfig)
         configurationManager.saveProjectConfiguration(projectConfig)
         projectConfig = configurationManager.loadProjectConfiguration(project)
 
@@ -214,6 +215,7 @@ class ProjectConfigurationTest extends ProjectSynchronizationSpecification {
         ProjectConfiguration projectConfig = configurationManager.createProjectConfiguration(buildConfig, projectDir);
 
         when:
+        configurationManager.saveBuildConfiguration(buildConfig)
         configurationManager.saveProjectConfiguration(projectConfig)
         configurationManager.saveWorkspaceConfiguration(new WorkspaceConfiguration(GradleDistribution.fromBuild(), null, !buildScansEnabled, !offlineMode, !autoSync))
         projectConfig = configurationManager.loadProjectConfiguration(project)
@@ -237,6 +239,50 @@ class ProjectConfigurationTest extends ProjectSynchronizationSpecification {
         GradleDistribution.forVersion('3.2') | true              | true        | true
     }
 
+    def "loaded project configuration is cached until the preferences change"() {
+        setup:
+        WorkspaceConfiguration originalWsConfig = configurationManager.loadWorkspaceConfiguration()
+        BuildConfiguration buildConfig = createInheritingBuildConfiguration(rootProjectDir)
+        configurationManager.saveProjectConfiguration(configurationManager.createProjectConfiguration(buildConfig, projectDir))
+
+        when:
+        ProjectConfiguration projectConfig = configurationManager.loadProjectConfiguration(project)
+
+        then:
+        configurationManager.loadProjectConfiguration(project).is(projectConfig)
+
+        when:
+        configurationManager.saveWorkspaceConfiguration(new WorkspaceConfiguration(GradleDistribution.forVersion('3.5'), null, false, false, false))
+
+        then:
+        configurationManager.loadProjectConfiguration(project).buildConfiguration.gradleDistribution == GradleDistribution.forVersion('3.5')
+
+        when:
+        projectConfig = configurationManager.loadProjectConfiguration(project)
+        setInvalidPreferenceOn(project)
+        configurationManager.loadProjectConfiguration(project)
+
+        then:
+        thrown RuntimeException
+
+        cleanup:
+        configurationManager.saveWorkspaceConfiguration(originalWsConfig)
+    }
+
+    def "saving the project configuration does not save the build configuration"() {
+        given:
+        BuildConfiguration buildConfig = createOverridingBuildConfiguration(rootProjectDir, GradleDistribution.forVersion('2.0'))
+        ProjectConfiguration projectConfig = configurationManager.createProjectConfiguration(buildConfig, projectDir);
+
+        when:
+        configurationManager.saveProjectConfiguration(projectConfig)
+        projectConfig = configurationManager.loadProjectConfiguration(project)
+
+        then:
+        projectConfig.buildConfiguration.rootProjectDirectory == rootProjectDir
+        projectConfig.buildConfiguration.overrideWorkspaceSettings == false
+    }
+
     def "can delete project configuration"() {
         setup:
         BuildConfiguration buildConfig = createInheritingBuildConfiguration(rootProjectDir)
@@ -0,0 +1,105 @@
+package org.eclipse.buildship.core.preferences.internal
+
+import javax.xml.parsers.DocumentBuilderFactory
+import javax.xml.transform.OutputKeys
+import javax.xml.transform.TransformerFactory
+import javax.xml.transform.dom.DOMSource
+import javax.xml.transform.stream.StreamResult
+
+import org.xml.sax.InputSource
+
+import org.eclipse.core.runtime.Path
+import org.eclipse.jdt.core.IAccessRule
+import org.eclipse.jdt.core.IClasspathAttribute
+import org.eclipse.jdt.core.IClasspathEntry
+import org.eclipse.jdt.core.IJavaProject
+import org.eclipse.jdt.core.JavaCore
+
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+
+class ClasspathConverterTest extends WorkspaceSpecification {
+
+    IJavaProject project
+
+    def setup() {
+        project = newJavaProject('sample-project')
+    }
+
+    def "Classpath can be converted to XML and back"() {
+        setup:
+        List<IClasspathEntry> classpath = sampleClasspath()
+
+        when:
+        String xml = ClasspathConverter.toXml(project, classpath)
+
+        then:
+        ClasspathConverter.toEntries(project, xml) == classpath
+    }
+
+    def "Classpath is read in the same way as with a DOM parser"() {
+        setup:
+        String xml = ClasspathConverter.toXml(project, sampleClasspath())
+
+        expect:
+        ClasspathConverter.toEntries(project, xml) == readWithDom(xml)
+    }
+
+    def "Comments, CDATA sections and namespace prefixes don't affect the entries"() {
+        setup:
+        String xml = '''<?xml version="1.0" encoding="UTF-8"?>
+<classpath xmlns:cp="urn:classpath">
+    <!-- <classpathentry kind="lib" path="/commented.jar"/> -->
+    <classpathentry kind="lib" path="/path/to/lib.jar"><![CDATA[<classpathentry kind="lib" path="/cdata.jar"/>]]>
+        <attributes>
+            <attribute name="javadoc_location" value="&lt;classpathentry kind=&quot;lib&quot;/&gt;"/>
+        </attributes>
+    </classpathentry>
+    <cp:classpathentry kind="con" path="org.eclipse.jdt.launching.JRE_CONTAINER"/>
+</classpath>
+'''
+
+        expect:
+        ClasspathConverter.toEntries(project, xml) == [
+            JavaCore.newLibraryEntry(new Path('/path/to/lib.jar'), null, null, null, [JavaCore.newClasspathAttribute('javadoc_location', '<classpathentry kind="lib"/>')] as IClasspathAttribute[], false),
+            JavaCore.newContainerEntry(new Path('org.eclipse.jdt.launching.JRE_CONTAINER'))
+        ]
+    }
+
+    def "Empty classpath can be converted"() {
+        expect:
+        ClasspathConverter.toEntries(project, ClasspathConverter.toXml(project, [])) == []
+    }
+
+    def "Invalid classpath is not loaded"() {
+        expect:
+        ClasspathConverter.toEntries(project, '<?xml version="1.0" encoding="UTF-8"?>\n<project/>') == null
+    }
+
+    private List<IClasspathEntry> sampleClasspath() {
+        IClasspathAttribute[] attributes = [JavaCore.newClasspathAttribute('gradle_scope', 'main'), JavaCore.newClasspathAttribute('javadoc_location', 'file:/doc?a=1&b=<2>&c=<classpathentry kind="lib"/>')]
+        IAccessRule[] accessRules = [JavaCore.newAccessRule(new Path('com/example/**'), IAccessRule.K_DISCOURAGED | IAccessRule.IGNORE_IF_BETTER)]
+        [
+            JavaCore.newSourceEntry(new Path('/sample-project/src/main/java'), [new Path('**/Included.java')] as Path[], [new Path('**/Excluded.java')] as Path[], new Path('/sample-project/bin/main'), attributes),
+            JavaCore.newLibraryEntry(new Path('/path/to/lib.jar'), new Path('/path/to/lib-sources.jar'), null, accessRules, attributes, true),
+            JavaCore.newLibraryEntry(new Path('/path/with spaces/<lib>&.jar'), null, null),
+            JavaCore.newLibraryEntry(new Path('/sample-project/libs/local.jar'), new Path('/sample-project/libs/local-sources.jar'), new Path('src'), [JavaCore.newAccessRule(new Path('internal/**'), IAccessRule.K_NON_ACCESSIBLE)] as IAccessRule[], [] as IClasspathAttribute[], false),
+            JavaCore.newSourceEntry(new Path('/other-project/src')),
+            JavaCore.newProjectEntry(new Path('/other-project'), [] as IAccessRule[], false, attributes, true),
+            JavaCore.newContainerEntry(new Path('org.eclipse.jdt.launching.JRE_CONTAINER')),
+            JavaCore.newVariableEntry(new Path('GRADLE_HOME/lib/lib.jar'), null, null)
+        ]
+    }
+
+    // the conversion implemented by previous versions
+    private List<IClasspathEntry> readWithDom(String xml) {
+        def classpathNode = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new InputSource(new StringReader(xml))).documentElement
+        def transformer = TransformerFactory.newInstance().newTransformer()
+        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, 'yes')
+        def domEntries = classpathNode.getElementsByTagName('classpathentry')
+        (0..<domEntries.length).collect {
+            StringWriter writer = new StringWriter()
+            transformer.transform(new DOMSource(domEntries.item(it)), new StreamResult(writer))
+            project.decodeClasspathEntry(writer.toString())
+        }
+    }
+}
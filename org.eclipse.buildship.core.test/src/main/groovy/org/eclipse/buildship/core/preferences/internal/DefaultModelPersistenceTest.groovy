@@ -5,6 +5,7 @@ import spock.lang.Issue
 import org.eclipse.core.resources.IProject
 import org.eclipse.core.runtime.NullProgressMonitor
 import org.eclipse.core.runtime.Path
+import org.eclipse.core.runtime.jobs.Job
 import org.eclipse.jdt.core.JavaCore
 
 import org.eclipse.buildship.core.CorePlugin
@@ -53,8 +54,9 @@ class DefaultModelPersistenceTest extends WorkspaceSpecification {
         def command = project.description.newCommand()
         command.setBuilderName('custom-command')
         def managedBuilders = [command]
+        def modelFingerprint = 'fingerprint'
 
-        PersistentModel model = new DefaultPersistentModel(project, buildDir, buildScriptPath, subProjectPaths, classpath, derivedResources, linkedResources, managedNatures, managedBuilders)
+        PersistentModel model = new DefaultPersistentModel(project, buildDir, buildScriptPath, subProjectPaths, classpath, derivedResources, linkedResources, managedNatures, managedBuilders, modelFingerprint)
 
         when:
         CorePlugin.modelPersistence().saveModel(model)
@@ -68,6 +70,7 @@ class DefaultModelPersistenceTest extends WorkspaceSpecification {
         model.classpath == classpath
         model.derivedResources == derivedResources
         model.linkedResources == linkedResources
+        model.modelFingerprint == modelFingerprint
     }
 
     def "Can delete a model"() {
@@ -82,8 +85,9 @@ class DefaultModelPersistenceTest extends WorkspaceSpecification {
         def command = project.description.newCommand()
         command.setBuilderName('custom-command')
         def managedBuilders = [command]
+        def modelFingerprint = 'fingerprint'
 
-        PersistentModel model = new DefaultPersistentModel(project, buildDir, buildScriptPath, subProjectPaths, classpath, derivedResources, linkedResources, managedNatures, managedBuilders)
+        PersistentModel model = new DefaultPersistentModel(project, buildDir, buildScriptPath, subProjectPaths, classpath, derivedResources, linkedResources, managedNatures, managedBuilders, modelFingerprint)
         CorePlugin.modelPersistence().saveModel(model)
 
         when:
@@ -106,8 +110,9 @@ class DefaultModelPersistenceTest extends WorkspaceSpecification {
         def command = project.description.newCommand()
         command.setBuilderName('custom-command')
         def managedBuilders = [command]
+        def modelFingerprint = 'fingerprint'
 
-        PersistentModel model = new DefaultPersistentModel(project, buildDir, buildScriptPath, subProjectPaths, classpath, derivedResources, linkedResources, managedNatures, managedBuilders)
+        PersistentModel model = new DefaultPersistentModel(project, buildDir, buildScriptPath, subProjectPaths, classpath, derivedResources, linkedResources, managedNatures, managedBuilders, modelFingerprint)
         CorePlugin.modelPersistence().saveModel(model)
 
         when:
@@ -123,6 +128,87 @@ class DefaultModelPersistenceTest extends WorkspaceSpecification {
         model.linkedResources == linkedResources
     }
 
+    def "Saved models are written to the store in the background"() {
+        setup:
+        File storeFile = new File(dir('store'), 'models.bin')
+        DefaultModelPersistence persistence = DefaultModelPersistence.create(storeFile)
+        PersistentModel model = new DefaultPersistentModel(project, new Path('buildDir'), new Path('build.gradle'), [], [], [], [], [], [], 'fingerprint')
+
+        when:
+        persistence.saveModel(model)
+        Job.jobManager.join(persistence, null)
+        DefaultModelPersistence reopened = DefaultModelPersistence.create(storeFile)
+
+        then:
+        reopened.loadModel(project).modelFingerprint == 'fingerprint'
+
+        cleanup:
+        reopened?.close()
+        persistence.close()
+    }
+
+    def "Store is compacted while models are saved"() {
+        setup:
+        File storeFile = new File(dir('store'), 'models.bin')
+        DefaultModelPersistence persistence = DefaultModelPersistence.create(storeFile)
+        def classpath = (1..500).collect { JavaCore.newLibraryEntry(new Path("/libs/library-${it}.jar"), null, null) }
+
+        when:
+        persistence.saveModel(new DefaultPersistentModel(project, new Path('buildDir'), new Path('build.gradle'), [], classpath, [], [], [], [], 'fingerprint-0'))
+        Job.jobManager.join(persistence, null)
+        long modelSize = storeFile.length()
+        (1..5).each {
+            persistence.saveModel(new DefaultPersistentModel(project, new Path('buildDir'), new Path('build.gradle'), [], classpath, [], [], [], [], "fingerprint-$it"))
+            Job.jobManager.join(persistence, null)
+        }
+
+        then:
+        storeFile.length() < 3 * modelSize + 64 * 1024
+        persistence.loadModel(project).modelFingerprint == 'fingerprint-5'
+
+        cleanup:
+        persistence.close()
+    }
+
+    def "Stored models are decoded upon the first access"() {
+        setup:
+        def classpath = [JavaCore.newProjectEntry(new Path('/project-path'))]
+        def command = project.description.newCommand()
+        command.setBuilderName('custom-command')
+        PersistentModel model = new DefaultPersistentModel(project, new Path('buildDir'), new Path('build.gradle'), [new Path('subproject')], classpath, [], [], ['org.eclipse.pde.UpdateSiteNature'], [command], 'fingerprint')
+        Properties properties = PersistentModelConverter.toProperties(model)
+
+        when:
+        model = PersistentModelConverter.toModel(project, properties)
+
+        then:
+        model instanceof LazyPersistentModel
+        properties.containsKey('classpath')
+        model.getClasspath() == classpath
+        model.getClasspath().is(model.getClasspath())
+        !properties.containsKey('classpath')
+        model.getbuildScriptPath() == new Path('build.gradle')
+        model.getSubprojectPaths() == [new Path('subproject')]
+        model.getManagedNatures() == ['org.eclipse.pde.UpdateSiteNature']
+        model.getManagedBuilders()*.builderName == ['custom-command']
+        model.getModelFingerprint() == 'fingerprint'
+    }
+
+    def "Unreadable classpath is not replaced with an empty one"() {
+        setup:
+        PersistentModel model = new DefaultPersistentModel(project, new Path('buildDir'), new Path('build.gradle'), [], [], [], [], [], [], 'fingerprint')
+        Properties properties = PersistentModelConverter.toProperties(model)
+        properties.setProperty('classpath', 'not a classpath')
+
+        when:
+        model = PersistentModelConverter.toModel(project, properties)
+
+        then:
+        model.present
+        model.classpath == null
+        model.modelFingerprint == 'fingerprint'
+    }
+
     @Issue('https://github.com/eclipse/buildship/issues/404')
     def "Cached absent model is not persisted"() {
         setup:
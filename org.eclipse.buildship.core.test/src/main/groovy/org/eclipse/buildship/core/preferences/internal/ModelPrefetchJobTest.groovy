@@ -0,0 +1,45 @@
+package org.eclipse.buildship.core.preferences.internal
+
+import com.google.common.cache.CacheBuilder
+import com.google.common.cache.CacheLoader
+
+import org.eclipse.core.resources.IProject
+import org.eclipse.core.runtime.NullProgressMonitor
+
+import org.eclipse.buildship.core.configuration.GradleProjectNature
+import org.eclipse.buildship.core.preferences.PersistentModel
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+
+class ModelPrefetchJobTest extends WorkspaceSpecification {
+
+    List<IProject> loadedProjects = Collections.synchronizedList([])
+
+    ModelPrefetchJob job = new ModelPrefetchJob(CacheBuilder.newBuilder().build(new CacheLoader<IProject, PersistentModel>() {
+
+        @Override
+        PersistentModel load(IProject project) {
+            loadedProjects.add(project)
+            new AbsentPersistentModel(project)
+        }
+    }), 1)
+
+    def "Prioritized projects are loaded first"() {
+        setup:
+        IProject a = newGradleProject('a')
+        IProject b = newGradleProject('b')
+        IProject c = newGradleProject('c')
+        newProject('non-gradle')
+
+        when:
+        job.prioritize([c, workspace.root.getProject('unknown'), b])
+        job.schedule()
+        job.join()
+
+        then:
+        loadedProjects == [c, b, a]
+    }
+
+    private IProject newGradleProject(String name) {
+        workspaceOperations.createProject(name, dir(name), [GradleProjectNature.ID], new NullProgressMonitor())
+    }
+}
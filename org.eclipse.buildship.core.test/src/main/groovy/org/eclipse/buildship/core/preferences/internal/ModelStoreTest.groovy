@@ -0,0 +1,214 @@
+package org.eclipse.buildship.core.preferences.internal
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+
+import spock.lang.Specification
+
+class ModelStoreTest extends Specification {
+
+    @Rule
+    TemporaryFolder tempFolder
+
+    File storeFile
+
+    def setup() {
+        storeFile = new File(tempFolder.root, 'models.bin')
+    }
+
+    def "Stored models can be read after reopening the store"() {
+        setup:
+        ModelStore store = ModelStore.open(storeFile)
+
+        when:
+        store.write('project-a', properties(buildDir: 'build', classpath: 'x' * 100000))
+        store.write('project-b', properties(buildDir: 'target'))
+        store.close()
+        store = ModelStore.open(storeFile)
+
+        then:
+        store.names == ['project-a', 'project-b'] as Set
+        store.read('project-a') == properties(buildDir: 'build', classpath: 'x' * 100000)
+        store.read('project-b') == properties(buildDir: 'target')
+        store.read('project-c') == null
+
+        cleanup:
+        store.close()
+    }
+
+    def "Latest record of a project wins"() {
+        setup:
+        ModelStore store = ModelStore.open(storeFile)
+
+        when:
+        store.write('project', properties(buildDir: 'build'))
+        store.write('project', properties(buildDir: 'target'))
+        store.write('deleted', properties(buildDir: 'build'))
+        store.delete('deleted')
+        store.rename('project', 'renamed')
+        store.close()
+        store = ModelStore.open(storeFile)
+
+        then:
+        store.names == ['renamed'] as Set
+        store.read('renamed') == properties(buildDir: 'target')
+
+        cleanup:
+        store.close()
+    }
+
+    def "Incomplete record at the end of the store is discarded"() {
+        setup:
+        ModelStore store = ModelStore.open(storeFile)
+        store.write('project-a', properties(buildDir: 'build'))
+        store.write('project-b', properties(buildDir: 'build'))
+        store.close()
+        def raf = new RandomAccessFile(storeFile, 'rw')
+        raf.setLength(storeFile.length() - 3)
+        raf.close()
+
+        when:
+        store = ModelStore.open(storeFile)
+
+        then:
+        store.names == ['project-a'] as Set
+
+        when:
+        store.write('project-c', properties(buildDir: 'build'))
+        store.close()
+        store = ModelStore.open(storeFile)
+
+        then:
+        store.names == ['project-a', 'project-c'] as Set
+        store.read('project-c') == properties(buildDir: 'build')
+
+        cleanup:
+        store.close()
+    }
+
+    def "Partially written record at the end of the store is discarded"() {
+        setup:
+        ModelStore store = ModelStore.open(storeFile)
+        store.write('project-a', properties(buildDir: 'build'))
+        store.write('project-b', properties(buildDir: 'build'))
+        store.close()
+        corruptByte(storeFile.length() - 1)
+
+        when:
+        store = ModelStore.open(storeFile)
+
+        then:
+        store.names == ['project-a'] as Set
+        store.read('project-a') == properties(buildDir: 'build')
+
+        cleanup:
+        store.close()
+    }
+
+    def "Corrupt record is treated as absent"() {
+        setup:
+        ModelStore store = ModelStore.open(storeFile)
+        store.write('project-a', properties(buildDir: 'build'))
+        long endOfFirstRecord = storeFile.length()
+        store.write('project-b', properties(buildDir: 'build'))
+        store.close()
+        corruptByte(endOfFirstRecord - 1)
+
+        when:
+        store = ModelStore.open(storeFile)
+
+        then:
+        store.read('project-a') == null
+        store.names == ['project-b'] as Set
+        store.read('project-b') == properties(buildDir: 'build')
+
+        cleanup:
+        store.close()
+    }
+
+    def "Malformed record is skipped and the following records are kept"() {
+        setup:
+        ModelStore store = ModelStore.open(storeFile)
+        store.write('project-a', properties(buildDir: 'build'))
+        store.write('project-b', properties(buildDir: 'build'))
+        store.close()
+        long storeSize = storeFile.length()
+        // the operation byte of the first record, following the store and the record header
+        corruptByte(16)
+
+        when:
+        store = ModelStore.open(storeFile)
+
+        then:
+        store.names == ['project-b'] as Set
+        store.read('project-b') == properties(buildDir: 'build')
+        storeFile.length() == storeSize
+
+        cleanup:
+        store.close()
+    }
+
+    def "Records written after opening the store can be read"() {
+        setup:
+        ModelStore store = ModelStore.open(storeFile)
+        store.write('project-a', properties(buildDir: 'build'))
+        store.close()
+        store = ModelStore.open(storeFile)
+
+        when:
+        store.write('project-b', properties(buildDir: 'target'))
+        store.write('project-a', properties(buildDir: 'out'))
+
+        then:
+        store.read('project-a') == properties(buildDir: 'out')
+        store.read('project-b') == properties(buildDir: 'target')
+
+        cleanup:
+        store.close()
+    }
+
+    def "Store is compacted when opened if it mostly contains superseded records"() {
+        setup:
+        ModelStore store = ModelStore.open(storeFile)
+        100.times { store.write('project', properties(classpath: "$it" * 1000)) }
+        store.close()
+        long sizeBeforeCompaction = storeFile.length()
+
+        when:
+        store = ModelStore.open(storeFile)
+
+        then:
+        storeFile.length() < sizeBeforeCompaction
+        store.garbageSize == 0
+        store.read('project') == properties(classpath: '99' * 1000)
+
+        cleanup:
+        store.close()
+    }
+
+    def "Store with unknown format is rejected"() {
+        setup:
+        storeFile.text = 'not a model store'
+
+        when:
+        ModelStore.open(storeFile)
+
+        then:
+        thrown IOException
+    }
+
+    private void corruptByte(long position) {
+        def raf = new RandomAccessFile(storeFile, 'rw')
+        raf.seek(position)
+        int value = raf.read()
+        raf.seek(position)
+        raf.write(value ^ 0xFF)
+        raf.close()
+    }
+
+    private static Properties properties(Map<String, String> values) {
+        Properties properties = new Properties()
+        properties.putAll(values)
+        properties
+    }
+}
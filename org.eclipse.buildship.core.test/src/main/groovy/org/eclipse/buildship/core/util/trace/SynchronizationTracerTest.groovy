@@ -0,0 +1,124 @@
+package org.eclipse.buildship.core.util.trace
+
+import groovy.json.JsonSlurper
+
+import org.gradle.tooling.CancellationToken
+import org.gradle.tooling.GradleConnector
+
+import org.eclipse.core.runtime.preferences.InstanceScope
+
+import org.eclipse.buildship.core.CorePlugin
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+
+class SynchronizationTracerTest extends WorkspaceSpecification {
+
+    SynchronizationTracer tracer = new SynchronizationTracer()
+    CancellationToken token = GradleConnector.newCancellationTokenSource().token()
+
+    def cleanup() {
+        setTracingEnabled(false)
+    }
+
+    def "Spans are not recorded if tracing is disabled"() {
+        setup:
+        setTracingEnabled(false)
+
+        when:
+        tracer.beginTrace(token)
+        TraceSpan span = tracer.startSpan('project', 'Refresh project', 'sample')
+        span.end()
+
+        then:
+        span.is(TraceSpan.NO_OP)
+        !tracer.endTrace().present
+    }
+
+    def "Recorded spans are written in the Chrome trace-event format"() {
+        setup:
+        setTracingEnabled(true)
+
+        when:
+        tracer.beginTrace(token)
+        TraceSpan span = tracer.startSpan('updater', 'GradleFolderUpdater', 'sample "project"')
+        span = span.next('ProjectNatureUpdater')
+        span.end()
+        File traceFile = tracer.endTrace().get()
+        def trace = new JsonSlurper().parseText(traceFile.text)
+        def events = trace.traceEvents.findAll { it.ph == 'X' }
+
+        then:
+        events*.name == ['GradleFolderUpdater', 'ProjectNatureUpdater']
+        events.every { it.cat == 'updater' && it.args.detail == 'sample "project"' && it.dur >= 0 }
+        trace.traceEvents.find { it.name == 'thread_name' }.args.name == Thread.currentThread().name
+
+        cleanup:
+        traceFile?.delete()
+    }
+
+    def "Spans ended after the trace was written are ignored"() {
+        setup:
+        setTracingEnabled(true)
+        tracer.beginTrace(token)
+        TraceSpan span = tracer.startSpan('project', 'Synchronize project')
+        File traceFile = tracer.endTrace().get()
+
+        when:
+        span.end()
+
+        then:
+        !new JsonSlurper().parseText(traceFile.text).traceEvents.find { it.ph == 'X' }
+
+        cleanup:
+        traceFile?.delete()
+    }
+
+    def "Only the Tooling API operations of the traced synchronization are recorded"() {
+        setup:
+        setTracingEnabled(true)
+        CancellationToken otherToken = GradleConnector.newCancellationTokenSource().token()
+
+        when:
+        tracer.beginTrace(token)
+        TraceSpan tracedSpan = tracer.startOperationSpan(token, 'tooling-api', 'ModelBuilder.get')
+        TraceSpan otherSpan = tracer.startOperationSpan(otherToken, 'tooling-api', 'BuildLauncher.run')
+        tracedSpan.end()
+        otherSpan.end()
+        File traceFile = tracer.endTrace().get()
+
+        then:
+        otherSpan.is(TraceSpan.NO_OP)
+        new JsonSlurper().parseText(traceFile.text).traceEvents.findAll { it.ph == 'X' }*.name == ['ModelBuilder.get']
+
+        cleanup:
+        traceFile?.delete()
+    }
+
+    def "Only the most recent trace files are kept"() {
+        setup:
+        setTracingEnabled(true)
+        File traceFolder = CorePlugin.instance.stateLocation.append('synchronization-traces').toFile()
+        traceFolder.mkdirs()
+        List<File> oldTraceFiles = (1..SynchronizationTracer.MAX_TRACE_FILES).collect { i ->
+            File file = new File(traceFolder, String.format('synchronization-20000101-000000-%03d.json', i))
+            file.text = '{}'
+            file
+        }
+
+        when:
+        tracer.beginTrace(token)
+        File traceFile = tracer.endTrace().get()
+
+        then:
+        traceFolder.listFiles().length == SynchronizationTracer.MAX_TRACE_FILES
+        traceFile.exists()
+        !oldTraceFiles[0].exists()
+        oldTraceFiles[1].exists()
+
+        cleanup:
+        traceFolder.listFiles()*.delete()
+    }
+
+    private void setTracingEnabled(boolean enabled) {
+        InstanceScope.INSTANCE.getNode(CorePlugin.PLUGIN_ID).putBoolean(SynchronizationTracer.TRACING_ENABLED, enabled)
+    }
+}
@@ -0,0 +1,77 @@
+package org.eclipse.buildship.core.workspace.internal
+
+import org.gradle.tooling.ProjectConnection
+import org.gradle.tooling.model.build.BuildEnvironment
+
+import com.gradleware.tooling.toolingclient.GradleDistribution
+
+import org.eclipse.buildship.core.configuration.GradleArguments
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+
+class BuildEnvironmentCacheTest extends WorkspaceSpecification {
+
+    BuildEnvironmentCache cache = new BuildEnvironmentCache()
+
+    def "Build environment is loaded only once per build"() {
+        setup:
+        ProjectConnection connection = Mock(ProjectConnection)
+        GradleArguments arguments = gradleArguments(dir('root'))
+
+        when:
+        cache.get(arguments, connection)
+        cache.get(arguments, connection)
+
+        then:
+        1 * connection.getModel(BuildEnvironment) >> Mock(BuildEnvironment)
+    }
+
+    def "Build environment is reloaded if the distribution changes"() {
+        setup:
+        ProjectConnection connection = Mock(ProjectConnection)
+        File rootDir = dir('root')
+
+        when:
+        cache.get(gradleArguments(rootDir, GradleDistribution.fromBuild()), connection)
+        cache.get(gradleArguments(rootDir, GradleDistribution.forVersion('3.5')), connection)
+
+        then:
+        2 * connection.getModel(BuildEnvironment) >> Mock(BuildEnvironment)
+    }
+
+    def "Build environment is reloaded if the wrapper properties change"() {
+        setup:
+        ProjectConnection connection = Mock(ProjectConnection)
+        File rootDir = dir('root')
+        GradleArguments arguments = gradleArguments(rootDir)
+
+        when:
+        cache.get(arguments, connection)
+        dir('root/gradle/wrapper')
+        File wrapperProperties = file('root/gradle/wrapper/gradle-wrapper.properties')
+        wrapperProperties.text = 'distributionUrl=https\\://services.gradle.org/distributions/gradle-4.0-bin.zip'
+        wrapperProperties.lastModified = 10000
+        cache.get(arguments, connection)
+
+        then:
+        2 * connection.getModel(BuildEnvironment) >> Mock(BuildEnvironment)
+    }
+
+    def "Build environment is reloaded after invalidation"() {
+        setup:
+        ProjectConnection connection = Mock(ProjectConnection)
+        File rootDir = dir('root')
+        GradleArguments arguments = gradleArguments(rootDir)
+
+        when:
+        cache.get(arguments, connection)
+        cache.invalidate(rootDir)
+        cache.get(arguments, connection)
+
+        then:
+        2 * connection.getModel(BuildEnvironment) >> Mock(BuildEnvironment)
+    }
+
+    private static GradleArguments gradleArguments(File rootDir, GradleDistribution distribution = GradleDistribution.fromBuild()) {
+        GradleArguments.from(rootDir, distribution, null, null, false, false, [], [])
+    }
+}
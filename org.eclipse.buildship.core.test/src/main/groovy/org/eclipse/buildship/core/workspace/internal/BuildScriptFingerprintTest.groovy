@@ -0,0 +1,152 @@
+package org.eclipse.buildship.core.workspace.internal
+
+import org.gradle.tooling.model.DomainObjectSet
+import org.gradle.tooling.model.GradleProject
+import org.gradle.tooling.model.eclipse.EclipseProject
+import org.gradle.tooling.model.gradle.GradleScript
+
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+
+class BuildScriptFingerprintTest extends WorkspaceSpecification {
+
+    File userHome
+
+    def setup() {
+        userHome = dir('user-home')
+    }
+
+    def "Fingerprint is stable if no build script changes"() {
+        setup:
+        File rootDir = dir('root') {
+            file 'settings.gradle', "include 'sub'"
+            file 'build.gradle', "apply plugin: 'java'"
+        }
+        List<File> inputs = inputs(rootDir, eclipseProject(rootDir))
+
+        expect:
+        BuildScriptFingerprint.calculate(inputs) == BuildScriptFingerprint.calculate(inputs)
+    }
+
+    def "Fingerprint changes if a build script reported by the model changes"() {
+        setup:
+        File rootDir = dir('root') {
+            file 'build.gradle', "apply plugin: 'java'"
+            dir('sub') {
+                file 'sub.gradle', ''
+            }
+        }
+        File subDir = new File(rootDir, 'sub')
+        EclipseProject model = eclipseProject(rootDir, eclipseProject(subDir, [], new File(subDir, 'sub.gradle')))
+        List<File> inputs = inputs(rootDir, model)
+        String fingerprint = BuildScriptFingerprint.calculate(inputs)
+
+        when:
+        new File(rootDir, 'sub/sub.gradle').text = "apply plugin: 'eclipse'"
+
+        then:
+        BuildScriptFingerprint.calculate(inputs) != fingerprint
+    }
+
+    def "Fingerprint changes if buildSrc, the settings or the Gradle properties change"() {
+        setup:
+        File rootDir = dir('root') {
+            file 'build.gradle', ''
+            dir('buildSrc/src/main/groovy') {
+                file 'Plugin.groovy', 'class Plugin {}'
+            }
+        }
+        List<File> inputs = inputs(rootDir, eclipseProject(rootDir))
+        String fingerprint = BuildScriptFingerprint.calculate(inputs)
+
+        when:
+        new File(rootDir, 'buildSrc/src/main/groovy/Plugin.groovy').text = 'class Plugin { def foo }'
+
+        then:
+        BuildScriptFingerprint.calculate(inputs) != fingerprint
+
+        when:
+        fingerprint = BuildScriptFingerprint.calculate(inputs)
+        new File(rootDir, 'settings.gradle').text = "include 'sub'"
+
+        then:
+        BuildScriptFingerprint.calculate(inputs) != fingerprint
+
+        when:
+        fingerprint = BuildScriptFingerprint.calculate(inputs)
+        new File(userHome, 'gradle.properties').text = 'org.gradle.jvmargs=-Xmx1g'
+
+        then:
+        BuildScriptFingerprint.calculate(inputs) != fingerprint
+    }
+
+    def "Init scripts are part of the fingerprint"() {
+        setup:
+        File rootDir = dir('root') {
+            file 'build.gradle', ''
+            file 'custom-init.gradle', ''
+        }
+        List<File> inputs = BuildScriptFingerprint.collectInputs(rootDir, [eclipseProject(rootDir)], userHome, ['--init-script', 'custom-init.gradle'])
+
+        expect:
+        inputs.contains(new File(rootDir, 'custom-init.gradle'))
+        inputs.contains(new File(userHome, 'init.gradle'))
+        inputs.contains(new File(userHome, 'init.d'))
+    }
+
+    def "Source files and build outputs are not inputs"() {
+        setup:
+        File rootDir = dir('root') {
+            file 'build.gradle', ''
+            dir('src/main/java') {
+                file 'Foo.java', 'class Foo {}'
+            }
+        }
+        List<File> inputs = inputs(rootDir, eclipseProject(rootDir))
+        String fingerprint = BuildScriptFingerprint.calculate(inputs)
+
+        when:
+        new File(rootDir, 'src/main/java/Foo.java').text = 'class Foo { int bar; }'
+        dir('root/build')
+        file('root/build/generated.gradle') << 'generated'
+        dir('root/buildSrc/build')
+        file('root/buildSrc/build/generated.gradle') << 'generated'
+
+        then:
+        BuildScriptFingerprint.calculate(inputs) == fingerprint
+    }
+
+    def "Modifications are detected by timestamp"() {
+        setup:
+        File rootDir = dir('root') {
+            file 'build.gradle', ''
+        }
+        List<File> inputs = inputs(rootDir, eclipseProject(rootDir))
+        new File(rootDir, 'build.gradle').lastModified = 1000
+
+        expect:
+        !BuildScriptFingerprint.isModifiedAfter(inputs, 1000)
+        BuildScriptFingerprint.isModifiedAfter(inputs, 999)
+    }
+
+    private List<File> inputs(File rootDir, EclipseProject model) {
+        BuildScriptFingerprint.collectInputs(rootDir, [model], userHome, [])
+    }
+
+    private EclipseProject eclipseProject(File projectDir, List<EclipseProject> children = [], File buildScript = new File(projectDir, 'build.gradle')) {
+        GradleScript script = Mock(GradleScript)
+        script.sourceFile >> buildScript
+        GradleProject gradleProject = Mock(GradleProject)
+        gradleProject.buildScript >> script
+        DomainObjectSet<EclipseProject> childSet = Mock(DomainObjectSet)
+        childSet.iterator() >> { children.iterator() }
+        EclipseProject project = Mock(EclipseProject)
+        project.projectDirectory >> projectDir
+        project.gradleProject >> gradleProject
+        project.children >> childSet
+        project
+    }
+
+    private EclipseProject eclipseProject(File projectDir, EclipseProject child) {
+        eclipseProject(projectDir, [child])
+    }
+}
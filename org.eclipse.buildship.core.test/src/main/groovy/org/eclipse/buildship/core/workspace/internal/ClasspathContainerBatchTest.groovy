@@ -0,0 +1,92 @@
+package org.eclipse.buildship.core.workspace.internal
+
+import org.eclipse.core.runtime.Path
+import org.eclipse.jdt.core.ElementChangedEvent
+import org.eclipse.jdt.core.IClasspathEntry
+import org.eclipse.jdt.core.IElementChangedListener
+import org.eclipse.jdt.core.IJavaElementDelta
+import org.eclipse.jdt.core.IJavaProject
+import org.eclipse.jdt.core.JavaCore
+
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+import org.eclipse.buildship.core.workspace.GradleClasspathContainer
+
+class ClasspathContainerBatchTest extends WorkspaceSpecification {
+
+    IJavaProject first
+    IJavaProject second
+    List<IJavaElementDelta> deltas = []
+    IElementChangedListener listener = { ElementChangedEvent event -> deltas.add(event.delta) } as IElementChangedListener
+
+    def setup() {
+        first = newJavaProjectWithGradleContainer('first')
+        second = newJavaProjectWithGradleContainer('second')
+        JavaCore.addElementChangedListener(listener, ElementChangedEvent.POST_CHANGE)
+    }
+
+    def cleanup() {
+        JavaCore.removeElementChangedListener(listener)
+    }
+
+    def "Containers of all projects are assigned with a single Java model delta"() {
+        setup:
+        ClasspathContainerBatch batch = new ClasspathContainerBatch()
+        batch.add(first, [libraryEntry('first.jar')])
+        batch.add(second, [libraryEntry('second.jar')])
+
+        when:
+        batch.apply(null)
+
+        then:
+        deltas.size() == 1
+        deltas[0].affectedChildren*.element as Set == [first, second] as Set
+        containerEntries(first) == ['first.jar']
+        containerEntries(second) == ['second.jar']
+    }
+
+    def "Nothing is assigned until the batch is applied"() {
+        setup:
+        ClasspathContainerBatch batch = new ClasspathContainerBatch()
+        batch.add(first, [libraryEntry('first.jar')])
+
+        expect:
+        batch.contains(first)
+        !batch.contains(second)
+        deltas.empty
+
+        when:
+        batch.apply(null)
+        batch.apply(null)
+
+        then:
+        deltas.size() == 1
+        !batch.contains(first)
+    }
+
+    def "The last container added for a project wins"() {
+        setup:
+        ClasspathContainerBatch batch = new ClasspathContainerBatch()
+        batch.add(first, [libraryEntry('old.jar')])
+        batch.add(first, [libraryEntry('new.jar')])
+
+        when:
+        batch.apply(null)
+
+        then:
+        containerEntries(first) == ['new.jar']
+    }
+
+    private IJavaProject newJavaProjectWithGradleContainer(String name) {
+        IJavaProject project = newJavaProject(name)
+        project.setRawClasspath([JavaCore.newContainerEntry(GradleClasspathContainer.CONTAINER_PATH)] as IClasspathEntry[], null)
+        project
+    }
+
+    private IClasspathEntry libraryEntry(String name) {
+        JavaCore.newLibraryEntry(new Path(file(name).absolutePath), null, null)
+    }
+
+    private List<String> containerEntries(IJavaProject project) {
+        JavaCore.getClasspathContainer(GradleClasspathContainer.CONTAINER_PATH, project).classpathEntries*.path*.lastSegment()
+    }
+}
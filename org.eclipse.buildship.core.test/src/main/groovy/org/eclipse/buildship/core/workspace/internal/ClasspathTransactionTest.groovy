@@ -0,0 +1,49 @@
+package org.eclipse.buildship.core.workspace.internal
+
+import org.eclipse.core.runtime.NullProgressMonitor
+import org.eclipse.core.runtime.Path
+import org.eclipse.jdt.core.IClasspathEntry
+import org.eclipse.jdt.core.IJavaProject
+import org.eclipse.jdt.core.JavaCore
+
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+
+class ClasspathTransactionTest extends WorkspaceSpecification {
+
+    def "Classpath and output location are written with a single call"() {
+        setup:
+        IJavaProject project = newJavaProject('project')
+        ClasspathTransaction transaction = ClasspathTransaction.begin(project)
+
+        when:
+        transaction.entries.add(JavaCore.newLibraryEntry(new Path('/path/to/lib.jar'), null, null))
+        transaction.outputLocation = new Path('/project/target')
+
+        then:
+        transaction.modified
+        !project.rawClasspath.find { it.entryKind == IClasspathEntry.CPE_LIBRARY }
+
+        when:
+        transaction.commit(new NullProgressMonitor())
+
+        then:
+        project.rawClasspath.find { it.entryKind == IClasspathEntry.CPE_LIBRARY }
+        project.outputLocation == new Path('/project/target')
+    }
+
+    def "Unchanged classpath is not written"() {
+        setup:
+        IJavaProject project = newJavaProject('project')
+        long modificationStamp = project.project.getFile('.classpath').modificationStamp
+        ClasspathTransaction transaction = ClasspathTransaction.begin(project)
+
+        when:
+        transaction.entries = transaction.entries.collect { it }
+        transaction.outputLocation = project.outputLocation
+        transaction.commit(new NullProgressMonitor())
+
+        then:
+        !transaction.modified
+        project.project.getFile('.classpath').modificationStamp == modificationStamp
+    }
+}
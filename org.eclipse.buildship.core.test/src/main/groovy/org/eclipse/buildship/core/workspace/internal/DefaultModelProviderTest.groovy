@@ -0,0 +1,94 @@
+package org.eclipse.buildship.core.workspace.internal
+
+import com.gradleware.tooling.toolingmodel.OmniEclipseProject
+import com.gradleware.tooling.toolingmodel.OmniGradleBuild
+import com.gradleware.tooling.toolingmodel.repository.FetchStrategy
+
+import org.eclipse.core.runtime.NullProgressMonitor
+
+import org.eclipse.buildship.core.CorePlugin
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+import org.eclipse.buildship.core.workspace.EclipseProjectsListener
+
+class DefaultModelProviderTest extends WorkspaceSpecification {
+
+    File rootDir
+    DefaultModelProvider modelProvider
+
+    def setup() {
+        rootDir = dir('root') {
+            file 'settings.gradle', "includeBuild 'included1'\nincludeBuild 'included2'"
+            dir('included1') {
+                file 'settings.gradle', "include 'sub'"
+                dir 'sub'
+            }
+            dir('included2') {
+                file 'settings.gradle', ''
+            }
+        }
+        modelProvider = new DefaultModelProvider(createInheritingBuildConfiguration(rootDir))
+    }
+
+    def "Models of all included builds are loaded together"() {
+        when:
+        Set<OmniEclipseProject> first = modelProvider.fetchEclipseGradleProjects(FetchStrategy.FORCE_RELOAD, null, new NullProgressMonitor())
+
+        then:
+        first*.projectDirectory as Set == [rootDir, new File(rootDir, 'included1'), new File(rootDir, 'included1/sub'), new File(rootDir, 'included2')] as Set
+
+        when:
+        Set<OmniEclipseProject> cached = modelProvider.fetchEclipseGradleProjects(FetchStrategy.FROM_CACHE_ONLY, null, new NullProgressMonitor())
+
+        then:
+        cached*.projectDirectory as Set == first*.projectDirectory as Set
+    }
+
+    def "Projects of the included builds are reported while the models are loaded"() {
+        setup:
+        RecordingListener listener = new RecordingListener()
+
+        when:
+        Set<OmniEclipseProject> projects = modelProvider.fetchEclipseGradleProjects(FetchStrategy.FORCE_RELOAD, null, new NullProgressMonitor(), listener)
+
+        then:
+        listener.buildRootDirs == [rootDir, new File(rootDir, 'included1'), new File(rootDir, 'included2')]
+        listener.projectDirs as Set == projects*.projectDirectory as Set
+    }
+
+    def "Listener is notified about cached models"() {
+        setup:
+        modelProvider.fetchEclipseGradleProjects(FetchStrategy.FORCE_RELOAD, null, new NullProgressMonitor())
+        RecordingListener listener = new RecordingListener()
+
+        when:
+        Set<OmniEclipseProject> projects = modelProvider.fetchEclipseGradleProjects(FetchStrategy.FROM_CACHE_ONLY, null, new NullProgressMonitor(), listener)
+
+        then:
+        listener.buildRootDirs == [rootDir, new File(rootDir, 'included1'), new File(rootDir, 'included2')]
+        listener.projectDirs as Set == projects*.projectDirectory as Set
+    }
+
+    def "Structure of included builds is shared with the standalone builds at the same location"() {
+        setup:
+        File includedRootDir = new File(rootDir, 'included1')
+        DefaultGradleBuild includedBuild = (DefaultGradleBuild) CorePlugin.gradleWorkspaceManager().getGradleBuild(createInheritingBuildConfiguration(includedRootDir))
+
+        when:
+        modelProvider.fetchEclipseGradleProjects(FetchStrategy.FORCE_RELOAD, null, new NullProgressMonitor())
+        OmniGradleBuild gradleBuild = includedBuild.modelProvider.fetchGradleBuild(FetchStrategy.FROM_CACHE_ONLY, null, new NullProgressMonitor())
+
+        then:
+        gradleBuild.rootProject.name == 'included1'
+        gradleBuild.rootProject.children*.name == ['sub']
+    }
+
+    static class RecordingListener implements EclipseProjectsListener {
+        List<File> buildRootDirs = []
+        List<File> projectDirs = []
+
+        void eclipseProjectsLoaded(File buildRootDir, List<File> projectDirs) {
+            this.buildRootDirs += buildRootDir
+            this.projectDirs += projectDirs
+        }
+    }
+}
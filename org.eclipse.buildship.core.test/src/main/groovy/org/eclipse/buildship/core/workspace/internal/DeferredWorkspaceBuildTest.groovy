@@ -0,0 +1,94 @@
+package org.eclipse.buildship.core.workspace.internal
+
+import org.eclipse.core.runtime.jobs.IJobChangeEvent
+import org.eclipse.core.runtime.jobs.Job
+import org.eclipse.core.runtime.jobs.JobChangeAdapter
+
+import org.eclipse.buildship.core.CorePlugin
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+
+class DeferredWorkspaceBuildTest extends WorkspaceSpecification {
+
+    BuildJobListener buildJobListener = new BuildJobListener()
+
+    def setup() {
+        Job.jobManager.addJobChangeListener(buildJobListener)
+    }
+
+    def cleanup() {
+        Job.jobManager.removeJobChangeListener(buildJobListener)
+        setAutoBuilding(true)
+    }
+
+    def "Auto-build setting is not changed by the synchronization"() {
+        setup:
+        setAutoBuilding(true)
+
+        when:
+        DeferredWorkspaceBuild.beginSynchronization()
+
+        then:
+        workspace.description.autoBuilding
+
+        when:
+        DeferredWorkspaceBuild.endSynchronization()
+
+        then:
+        workspace.description.autoBuilding
+        buildJobListener.scheduledCount == 0
+    }
+
+    def "Full builds requested during the synchronization are run by a single job"() {
+        setup:
+        setAutoBuilding(true)
+        def first = newJavaProject('first').project
+        def second = newJavaProject('second').project
+
+        when:
+        DeferredWorkspaceBuild.beginSynchronization()
+        DeferredWorkspaceBuild.requestFullBuild(first)
+        DeferredWorkspaceBuild.requestFullBuild(second)
+
+        then:
+        buildJobListener.scheduledCount == 0
+
+        when:
+        DeferredWorkspaceBuild.endSynchronization()
+        Job.jobManager.join(CorePlugin.GRADLE_JOB_FAMILY, null)
+
+        then:
+        buildJobListener.scheduledCount == 1
+    }
+
+    def "Nothing is built if the auto-build is disabled"() {
+        setup:
+        setAutoBuilding(false)
+
+        when:
+        DeferredWorkspaceBuild.beginSynchronization()
+        DeferredWorkspaceBuild.requestFullBuild(newJavaProject('sample-project').project)
+        DeferredWorkspaceBuild.endSynchronization()
+
+        then:
+        buildJobListener.scheduledCount == 0
+        !workspace.description.autoBuilding
+    }
+
+    private void setAutoBuilding(boolean autoBuilding) {
+        def description = workspace.description
+        description.autoBuilding = autoBuilding
+        workspace.description = description
+    }
+
+    static class BuildJobListener extends JobChangeAdapter {
+
+        int scheduledCount = 0
+
+        @Override
+        public void scheduled(IJobChangeEvent event) {
+            if (event.job.class.name.startsWith(DeferredWorkspaceBuild.class.name)) {
+                scheduledCount++
+            }
+        }
+    }
+}
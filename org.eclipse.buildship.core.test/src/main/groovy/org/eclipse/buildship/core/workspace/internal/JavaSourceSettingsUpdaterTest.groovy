@@ -166,7 +166,7 @@ class JavaSourceSettingsUpdaterTest extends WorkspaceSpecification {
 
         @Override
         public void scheduled(IJobChangeEvent event) {
-            if (event.job.class.name.startsWith(JavaSourceSettingsUpdater.class.name)) {
+            if (event.job.class.name.startsWith(DeferredWorkspaceBuild.class.name)) {
                 buildScheduled = true
             }
         }
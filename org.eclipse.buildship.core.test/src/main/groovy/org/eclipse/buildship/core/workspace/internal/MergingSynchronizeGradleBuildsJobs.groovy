@@ -1,7 +1,11 @@
 package org.eclipse.buildship.core.workspace.internal
 
+import java.util.concurrent.CountDownLatch
+
 import com.gradleware.tooling.toolingclient.GradleDistribution
 
+import org.eclipse.core.runtime.jobs.Job
+
 import org.eclipse.buildship.core.CorePlugin
 import org.eclipse.buildship.core.test.fixtures.ProjectSynchronizationSpecification
 import org.eclipse.buildship.core.util.progress.AsyncHandler
@@ -50,7 +54,7 @@ class MergingSynchronizeGradleBuildsJobs extends ProjectSynchronizationSpecifica
         jobs.findAll { it.result != null }.size() == 1
     }
 
-    def "A job with a different new project handler is not covered"() {
+    def "A job with a different new project handler is merged into the pending one"() {
         setup:
         File projectLocation = dir("sample-project") {
             file 'settings.gradle'
@@ -63,11 +67,11 @@ class MergingSynchronizeGradleBuildsJobs extends ProjectSynchronizationSpecifica
         ]
 
         when:
-        jobs.each { it.schedule() }
+        jobs.each { it.schedule(500) }
         waitForGradleJobsToFinish()
 
         then:
-        jobs.findAll { it.result != null }.size() == 2
+        jobs.findAll { it.result != null }.size() == 1
     }
 
     def "A no-op initializer is covered by any other"() {
@@ -90,7 +94,7 @@ class MergingSynchronizeGradleBuildsJobs extends ProjectSynchronizationSpecifica
         jobs.findAll { it.result != null }.size() == 1
     }
 
-    def "A job with a different initializer is not covered"() {
+    def "A job with a different initializer is merged into the pending one"() {
         setup:
         File projectLocation = dir("sample-project") {
             file 'settings.gradle'
@@ -103,14 +107,14 @@ class MergingSynchronizeGradleBuildsJobs extends ProjectSynchronizationSpecifica
         ]
 
         when:
-        jobs.each { it.schedule() }
+        jobs.each { it.schedule(500) }
         waitForGradleJobsToFinish()
 
         then:
-        jobs.findAll { it.result != null }.size() == 2
+        jobs.findAll { it.result != null }.size() == 1
     }
 
-    def "A job for a different set of projects is not covered"() {
+    def "A job for a different set of projects is merged into the pending one"() {
         setup:
         File project1 = dir("project1")
         File project2 = dir("project2")
@@ -124,7 +128,62 @@ class MergingSynchronizeGradleBuildsJobs extends ProjectSynchronizationSpecifica
         ]
 
         when:
-        jobs.each { it.schedule() }
+        jobs.each { it.schedule(500) }
+        waitForGradleJobsToFinish()
+
+        then:
+        jobs.findAll { it.result != null }.size() == 1
+    }
+
+    def "Merged job synchronizes the union of the builds"() {
+        setup:
+        File project1 = dir("project1")
+        File project2 = dir("project2")
+        def gradleBuild1 = new DefaultGradleBuild(createOverridingBuildConfiguration(project1))
+        def gradleBuild2 = new DefaultGradleBuild(createOverridingBuildConfiguration(project2))
+        def jobs = [
+            SynchronizeGradleBuildsJob.forSingleGradleBuild(gradleBuild1, NewProjectHandler.IMPORT_AND_MERGE, AsyncHandler.NO_OP),
+            SynchronizeGradleBuildsJob.forSingleGradleBuild(gradleBuild2, NewProjectHandler.IMPORT_AND_MERGE, AsyncHandler.NO_OP)
+        ]
+
+        when:
+        jobs.each { it.schedule(500) }
+
+        then:
+        jobs[0].builds == [gradleBuild1, gradleBuild2] as Set
+
+        when:
+        waitForGradleJobsToFinish()
+
+        then:
+        findProject('project1')
+        findProject('project2')
+    }
+
+    def "At most one job waits while another one is running"() {
+        setup:
+        File projectLocation = dir("sample-project") {
+            file 'settings.gradle'
+        }
+        def gradleBuild = new DefaultGradleBuild(createOverridingBuildConfiguration(projectLocation))
+        def running = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def blockingInitializer = { monitor, token -> running.countDown(); release.await() } as AsyncHandler
+        def initializers = [blockingInitializer] + (2..5).collect { i -> { monitor, token -> "initializer $i" } as AsyncHandler }
+        def jobs = initializers.collect { SynchronizeGradleBuildsJob.forSingleGradleBuild(gradleBuild, NewProjectHandler.IMPORT_AND_MERGE, it) }
+
+        when:
+        jobs[0].schedule()
+        running.await()
+        jobs.tail().each { it.schedule() }
+
+        then:
+        jobs[0].state == Job.RUNNING
+        jobs.tail().findAll { it.state == Job.WAITING }.size() == 1
+        jobs.tail().findAll { it.state == Job.NONE }.size() == 3
+
+        when:
+        release.countDown()
         waitForGradleJobsToFinish()
 
         then:
@@ -0,0 +1,98 @@
+package org.eclipse.buildship.core.workspace.internal
+
+import spock.lang.Specification
+
+import org.gradle.tooling.model.DomainObjectSet
+import org.gradle.tooling.model.eclipse.EclipseProject
+
+class ModelCacheRegistryTest extends Specification {
+
+    ModelCacheRegistry registry = new ModelCacheRegistry()
+
+    def cleanup() {
+        registry.close()
+    }
+
+    def "Statistics are collected from all caches"() {
+        setup:
+        ModelCacheRegistry.ModelCache first = registry.newCache()
+        ModelCacheRegistry.ModelCache second = registry.newCache()
+        first.put(String, 'model')
+        second.put(String, 'model')
+
+        when:
+        first.getIfPresent(String)
+        second.getIfPresent(String)
+        second.getIfPresent(Integer)
+
+        then:
+        registry.size() == 2
+        registry.stats.hitCount() == 2
+        registry.stats.missCount() == 1
+    }
+
+    def "All caches share a single budget"() {
+        setup:
+        ModelCacheRegistry registry = new ModelCacheRegistry(10)
+        ModelCacheRegistry.ModelCache first = registry.newCache()
+        ModelCacheRegistry.ModelCache second = registry.newCache()
+
+        when:
+        first.put(List, ['a'] * 6)
+        second.put(List, ['b'] * 6)
+
+        then:
+        first.getIfPresent(List) == null
+        second.getIfPresent(List) == ['b'] * 6
+
+        cleanup:
+        registry.close()
+    }
+
+    def "Invalidating a cache keeps the models of the other caches"() {
+        setup:
+        ModelCacheRegistry.ModelCache first = registry.newCache()
+        ModelCacheRegistry.ModelCache second = registry.newCache()
+        first.put(String, 'first')
+        first.put(Integer, 1)
+        second.put(String, 'second')
+
+        when:
+        first.invalidateAll()
+
+        then:
+        first.getIfPresent(String) == null
+        first.getIfPresent(Integer) == null
+        second.getIfPresent(String) == 'second'
+    }
+
+    def "Eclipse models are weighed by their size"() {
+        setup:
+        EclipseProject child = eclipseProject(2, [])
+        EclipseProject root = eclipseProject(3, [child])
+
+        expect:
+        ModelWeigher.INSTANCE.weigh(EclipseProject, [root]) == 1 + (1 + 3 + (1 + 2))
+        ModelWeigher.INSTANCE.weigh(String, 'model') == 1
+    }
+
+    private EclipseProject eclipseProject(int classpathSize, List<EclipseProject> children) {
+        EclipseProject project = Mock(EclipseProject)
+        project.classpath >> domainObjectSet(classpathSize)
+        project.projectDependencies >> domainObjectSet(0)
+        project.sourceDirectories >> domainObjectSet(0)
+        project.children >> domainObjectSet(children)
+        project
+    }
+
+    private DomainObjectSet domainObjectSet(int size) {
+        domainObjectSet(Collections.nCopies(size, 'entry'))
+    }
+
+    private DomainObjectSet domainObjectSet(List elements) {
+        DomainObjectSet set = Mock(DomainObjectSet)
+        set.size() >> elements.size()
+        set.iterator() >> { elements.iterator() }
+        set
+    }
+}
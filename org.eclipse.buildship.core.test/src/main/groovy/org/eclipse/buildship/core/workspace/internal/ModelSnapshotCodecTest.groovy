@@ -0,0 +1,84 @@
+package org.eclipse.buildship.core.workspace.internal
+
+import spock.lang.Specification
+
+import org.gradle.tooling.model.DomainObjectSet
+import org.gradle.tooling.model.UnsupportedMethodException
+import org.gradle.tooling.model.eclipse.EclipseProject
+import org.gradle.tooling.model.eclipse.EclipseSourceDirectory
+
+class ModelSnapshotCodecTest extends Specification {
+
+    def "Nested Eclipse projects survive the round-trip"() {
+        setup:
+        EclipseProject child = Mock(EclipseProject)
+        EclipseProject root = Mock(EclipseProject)
+        EclipseSourceDirectory sourceDirectory = Mock(EclipseSourceDirectory)
+        sourceDirectory.path >> 'src/main/java'
+        root.name >> 'root'
+        root.projectDirectory >> new File('root')
+        root.parent >> null
+        root.children >> domainObjectSet([child])
+        root.sourceDirectories >> domainObjectSet([sourceDirectory])
+        child.name >> 'child'
+        child.projectDirectory >> new File('root/child')
+        child.parent >> root
+        child.children >> domainObjectSet([])
+        child.sourceDirectories >> domainObjectSet([])
+
+        when:
+        List<EclipseProject> restored = roundTrip([root])
+        EclipseProject restoredRoot = restored[0]
+        EclipseProject restoredChild = restoredRoot.children.getAt(0)
+
+        then:
+        restored.size() == 1
+        restoredRoot.name == 'root'
+        restoredRoot.projectDirectory == new File('root')
+        restoredRoot.sourceDirectories*.path == ['src/main/java']
+        restoredRoot.children.size() == 1
+        restoredRoot.children.all == [restoredChild]
+        restoredChild.name == 'child'
+        restoredChild.projectDirectory == new File('root/child')
+        restoredChild.children.empty
+        restoredChild.parent.is(restoredRoot)
+    }
+
+    def "Absent and unsupported values survive the round-trip"() {
+        setup:
+        EclipseProject project = Mock(EclipseProject)
+        project.name >> 'project'
+        project.description >> null
+        project.children >> domainObjectSet([])
+        project.javaSourceSettings >> { throw new UnsupportedMethodException('not supported') }
+
+        when:
+        EclipseProject restored = roundTrip([project])[0]
+
+        then:
+        restored.name == 'project'
+        restored.description == null
+        restored.parent == null
+
+        when:
+        restored.javaSourceSettings
+
+        then:
+        thrown UnsupportedMethodException
+    }
+
+    private List<EclipseProject> roundTrip(List<EclipseProject> models) {
+        Serializable captured = ModelSnapshotCodec.capture(models, EclipseProject)
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream()
+        new ObjectOutputStream(bytes).withStream { it.writeObject(captured) }
+        Serializable deserialized = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).withStream { (Serializable) it.readObject() }
+        (List<EclipseProject>) ModelSnapshotCodec.restore(deserialized, EclipseProject.classLoader)
+    }
+
+    private DomainObjectSet domainObjectSet(List elements) {
+        DomainObjectSet set = Mock(DomainObjectSet)
+        set.size() >> elements.size()
+        set.iterator() >> { elements.iterator() }
+        set
+    }
+}
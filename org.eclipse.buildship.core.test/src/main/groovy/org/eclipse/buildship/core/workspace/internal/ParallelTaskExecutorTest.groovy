@@ -0,0 +1,121 @@
+package org.eclipse.buildship.core.workspace.internal
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import org.eclipse.core.runtime.CoreException
+import org.eclipse.core.runtime.IProgressMonitor
+import org.eclipse.core.runtime.IStatus
+import org.eclipse.core.runtime.NullProgressMonitor
+import org.eclipse.core.runtime.OperationCanceledException
+import org.eclipse.core.runtime.Status
+
+import org.eclipse.buildship.core.CorePlugin
+
+class ParallelTaskExecutorTest extends Specification {
+
+    @Timeout(30)
+    def "Tasks are executed concurrently"() {
+        setup:
+        CountDownLatch allStarted = new CountDownLatch(3)
+        Set<String> threadNames = Collections.synchronizedSet([] as Set)
+        ParallelTaskExecutor.Task<String> task = { String element, IProgressMonitor monitor ->
+            threadNames << Thread.currentThread().name
+            allStarted.countDown()
+            // fails if the tasks are executed one after another
+            assert allStarted.await(10, TimeUnit.SECONDS)
+        } as ParallelTaskExecutor.Task
+
+        when:
+        new ParallelTaskExecutor<String>(3, 'worker %d').execute(['a', 'b', 'c'], task, new NullProgressMonitor())
+
+        then:
+        threadNames.size() == 3
+        !threadNames.contains(Thread.currentThread().name)
+    }
+
+    def "Tasks are executed on the calling thread if the parallelism is one"() {
+        setup:
+        List<String> threadNames = []
+        List<String> elements = []
+        ParallelTaskExecutor.Task<String> task = { String element, IProgressMonitor monitor ->
+            threadNames << Thread.currentThread().name
+            elements << element
+        } as ParallelTaskExecutor.Task
+
+        when:
+        new ParallelTaskExecutor<String>(1, 'worker %d').execute(['a', 'b', 'c'], task, new NullProgressMonitor())
+
+        then:
+        elements == ['a', 'b', 'c']
+        threadNames as Set == [Thread.currentThread().name] as Set
+    }
+
+    def "Failures of the tasks are rethrown on the calling thread"() {
+        setup:
+        ParallelTaskExecutor.Task<String> task = { String element, IProgressMonitor monitor ->
+            if (element == 'b') {
+                throw failure
+            }
+        } as ParallelTaskExecutor.Task
+
+        when:
+        new ParallelTaskExecutor<String>(2, 'worker %d').execute(['a', 'b', 'c'], task, new NullProgressMonitor())
+
+        then:
+        Exception e = thrown(expectedType)
+        e.is(failure)
+
+        where:
+        failure                                                                       | expectedType
+        new CoreException(new Status(IStatus.ERROR, CorePlugin.PLUGIN_ID, 'failure')) | CoreException
+        new IllegalStateException('failure')                                          | IllegalStateException
+        new OperationCanceledException()                                              | OperationCanceledException
+    }
+
+    def "Progress of the workers is forwarded to the monitor of the calling thread"() {
+        setup:
+        RecordingMonitor monitor = new RecordingMonitor()
+        ParallelTaskExecutor.Task<String> task = { String element, IProgressMonitor taskMonitor ->
+            taskMonitor.beginTask(element, 4)
+            taskMonitor.worked(2)
+            taskMonitor.subTask("Processing $element")
+        } as ParallelTaskExecutor.Task
+
+        when:
+        new ParallelTaskExecutor<String>(2, 'worker %d').execute(['a', 'b', 'c', 'd'], task, monitor)
+
+        then:
+        Math.abs(monitor.worked - monitor.totalWork) < 0.001
+        monitor.subTasks.every { it.startsWith('Processing ') }
+        monitor.threadNames == [Thread.currentThread().name] as Set
+    }
+
+    static class RecordingMonitor extends NullProgressMonitor {
+        int totalWork
+        double worked
+        List<String> subTasks = []
+        Set<String> threadNames = [] as Set
+
+        void beginTask(String name, int totalWork) {
+            this.totalWork = totalWork
+        }
+
+        void internalWorked(double work) {
+            threadNames << Thread.currentThread().name
+            worked += work
+        }
+
+        void worked(int work) {
+            internalWorked(work)
+        }
+
+        void subTask(String name) {
+            threadNames << Thread.currentThread().name
+            subTasks << name
+        }
+    }
+}
@@ -27,8 +27,9 @@ class PersistentModelBuilderTest extends WorkspaceSpecification {
         def command = project.description.newCommand()
         command.setBuilderName('custom-command')
         def managedBuilders = [command]
+        def modelFingerprint = 'fingerprint'
 
-        def previous = new DefaultPersistentModel(project, buildDir, buildScriptPath, subProjectPaths, classpath, derivedResources, linkedResources, managedNatures, managedBuilders)
+        def previous = new DefaultPersistentModel(project, buildDir, buildScriptPath, subProjectPaths, classpath, derivedResources, linkedResources, managedNatures, managedBuilders, modelFingerprint)
         def model = new PersistentModelBuilder(previous).build()
 
         expect:
@@ -41,6 +42,7 @@ class PersistentModelBuilderTest extends WorkspaceSpecification {
         model.linkedResources == linkedResources
         model.managedNatures == managedNatures
         model.managedBuilders == managedBuilders
+        model.modelFingerprint == modelFingerprint
     }
 
 
@@ -56,8 +58,9 @@ class PersistentModelBuilderTest extends WorkspaceSpecification {
         def command = project.description.newCommand()
         command.setBuilderName('custom-command')
         def managedBuilders = [command]
+        def modelFingerprint = 'fingerprint'
 
-        def previous = new DefaultPersistentModel(project, buildDir, buildScriptPath, subProjectPaths, classpath, derivedResources, linkedResources, managedNatures, managedBuilders)
+        def previous = new DefaultPersistentModel(project, buildDir, buildScriptPath, subProjectPaths, classpath, derivedResources, linkedResources, managedNatures, managedBuilders, modelFingerprint)
         def builder = new PersistentModelBuilder(previous)
         builder."${method}"(null)
 
@@ -68,6 +71,6 @@ class PersistentModelBuilderTest extends WorkspaceSpecification {
         thrown NullPointerException
 
         where:
-        method << [ 'buildDir', 'subprojectPaths', 'classpath', 'derivedResources', 'linkedResources', 'managedNatures', 'managedBuilders' ]
+        method << [ 'buildDir', 'subprojectPaths', 'classpath', 'derivedResources', 'linkedResources', 'managedNatures', 'managedBuilders', 'modelFingerprint' ]
     }
 }
@@ -0,0 +1,110 @@
+package org.eclipse.buildship.core.workspace.internal
+
+import com.gradleware.tooling.toolingclient.GradleDistribution
+
+import org.eclipse.buildship.core.configuration.GradleArguments
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+
+class ProjectConnectionPoolTest extends WorkspaceSpecification {
+
+    ProjectConnectionPool pool = new ProjectConnectionPool(Long.MAX_VALUE, 2)
+
+    def cleanup() {
+        pool.shutdown()
+    }
+
+    def "Connections are reused for the same build"() {
+        when:
+        def first = pool.acquire(gradleArguments(dir('root')))
+        first.release()
+        def second = pool.acquire(gradleArguments(dir('root')))
+
+        then:
+        first.connection.is(second.connection)
+        pool.size() == 1
+    }
+
+    def "Different builds use different connections"() {
+        when:
+        def first = pool.acquire(gradleArguments(dir('first')))
+        def second = pool.acquire(gradleArguments(dir('second')))
+
+        then:
+        !first.connection.is(second.connection)
+        pool.size() == 2
+    }
+
+    def "Least recently used idle connection is evicted when the pool is full"() {
+        setup:
+        def first = pool.acquire(gradleArguments(dir('first')))
+        def second = pool.acquire(gradleArguments(dir('second')))
+        first.release()
+
+        when:
+        def third = pool.acquire(gradleArguments(dir('third')))
+
+        then:
+        pool.size() == 2
+        pool.acquire(gradleArguments(dir('second'))).connection.is(second.connection)
+    }
+
+    def "Leased connections are not evicted"() {
+        setup:
+        pool.acquire(gradleArguments(dir('first')))
+        pool.acquire(gradleArguments(dir('second')))
+
+        when:
+        pool.acquire(gradleArguments(dir('third')))
+
+        then:
+        pool.size() == 3
+    }
+
+    def "Idle connections are evicted after the timeout"() {
+        setup:
+        pool = new ProjectConnectionPool(0, 2)
+        pool.acquire(gradleArguments(dir('first'))).release()
+
+        when:
+        pool.acquire(gradleArguments(dir('second')))
+
+        then:
+        pool.size() == 1
+    }
+
+    def "Releasing a lease multiple times has no effect"() {
+        setup:
+        pool = new ProjectConnectionPool(0, 2)
+        def first = pool.acquire(gradleArguments(dir('root')))
+        def second = pool.acquire(gradleArguments(dir('root')))
+
+        when:
+        first.release()
+        first.release()
+        pool.acquire(gradleArguments(dir('other')))
+
+        then:
+        pool.size() == 2
+    }
+
+    def "Cannot acquire connections after shutdown"() {
+        setup:
+        pool.acquire(gradleArguments(dir('root')))
+
+        when:
+        pool.shutdown()
+
+        then:
+        pool.size() == 0
+
+        when:
+        pool.acquire(gradleArguments(dir('root')))
+
+        then:
+        thrown IllegalStateException
+    }
+
+    private static GradleArguments gradleArguments(File rootDir) {
+        GradleArguments.from(rootDir, GradleDistribution.fromBuild(), null, null, false, false, [], [])
+    }
+}
@@ -0,0 +1,87 @@
+package org.eclipse.buildship.core.workspace.internal
+
+import org.eclipse.core.resources.IProject
+import org.eclipse.core.resources.IResource
+import org.eclipse.core.runtime.preferences.InstanceScope
+
+import org.eclipse.buildship.core.CorePlugin
+import org.eclipse.buildship.core.test.fixtures.ProjectSynchronizationSpecification
+import org.eclipse.buildship.core.workspace.NewProjectHandler
+
+class ProjectResourceRefresherTest extends ProjectSynchronizationSpecification {
+
+    File projectDir
+    IProject project
+
+    def setup() {
+        projectDir = dir('sample-project') {
+            file 'build.gradle', "apply plugin: 'java'"
+            dir 'src/main/java'
+        }
+        importAndWait(projectDir)
+        project = findProject('sample-project')
+
+        new File(projectDir, 'build.gradle') << "\nsourceSets.main.java.srcDir 'src/other/java'"
+        dir('sample-project/src/other/java/pkg') {
+            file 'Foo.java', 'package pkg; class Foo {}'
+        }
+        dir('sample-project/build/classes/pkg') {
+            file 'Foo.class', ''
+        }
+    }
+
+    def cleanup() {
+        InstanceScope.INSTANCE.getNode(CorePlugin.PLUGIN_ID).remove(SynchronizeGradleBuildsJob.FULL_REFRESH)
+    }
+
+    def "Synchronization only refreshes the resources read by the updaters"() {
+        when:
+        synchronizeAndWait(project)
+
+        then:
+        project.getFile('src/other/java/pkg/Foo.java').exists()
+        project.getFolder('src/other/java').isSynchronized(IResource.DEPTH_INFINITE)
+        project.getFolder('build/classes').exists()
+        project.getFolder('build').isSynchronized(IResource.DEPTH_ONE)
+    }
+
+    def "Linked files are refreshed"() {
+        setup:
+        File externalFile = file('external.txt')
+        externalFile.text = 'initial'
+        new File(projectDir, 'build.gradle') << """
+            apply plugin: 'eclipse'
+            eclipse.project.linkedResource name: 'linked.txt', type: '1', location: '${externalFile.absolutePath.replace('\\', '/')}'
+        """
+        synchronizeAndWait(project)
+
+        when:
+        externalFile.text = 'modified content'
+        synchronizeAndWait(project)
+
+        then:
+        project.getFile('linked.txt').exists()
+        project.getFile('linked.txt').isSynchronized(IResource.DEPTH_ZERO)
+    }
+
+    def "Full refresh can be enabled in the preferences"() {
+        setup:
+        InstanceScope.INSTANCE.getNode(CorePlugin.PLUGIN_ID).putBoolean(SynchronizeGradleBuildsJob.FULL_REFRESH, true)
+
+        when:
+        synchronizeAndWait(project)
+
+        then:
+        project.getFile('build/classes/pkg/Foo.class').exists()
+    }
+
+    def "Full synchronization refreshes the entire project"() {
+        when:
+        CorePlugin.gradleWorkspaceManager().getGradleBuilds([project] as Set).synchronizeFully(NewProjectHandler.IMPORT_AND_MERGE)
+        waitForGradleJobsToFinish()
+        waitForResourceChangeEvents()
+
+        then:
+        project.getFile('build/classes/pkg/Foo.class').exists()
+    }
+}
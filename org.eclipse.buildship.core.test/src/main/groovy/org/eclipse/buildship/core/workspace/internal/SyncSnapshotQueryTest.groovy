@@ -0,0 +1,119 @@
+package org.eclipse.buildship.core.workspace.internal
+
+import spock.lang.Specification
+
+import org.gradle.tooling.BuildController
+import org.gradle.tooling.model.DomainObjectSet
+import org.gradle.tooling.model.build.BuildEnvironment
+import org.gradle.tooling.model.eclipse.EclipseProject
+import org.gradle.tooling.model.gradle.BasicGradleProject
+import org.gradle.tooling.model.gradle.GradleBuild
+
+import org.eclipse.buildship.core.workspace.EclipseProjectsListener
+
+class SyncSnapshotQueryTest extends Specification {
+
+    def "Snapshot contains the build structure and the Eclipse models of all participants"() {
+        setup:
+        GradleBuild includedBuild = gradleBuild(new File('included'), [])
+        GradleBuild rootBuild = gradleBuild(new File('root'), [includedBuild])
+        EclipseProject rootModel = Mock(EclipseProject)
+        EclipseProject includedModel = Mock(EclipseProject)
+        BuildController controller = Mock(BuildController)
+        controller.getBuildModel() >> rootBuild
+        controller.getModel(rootBuild.rootProject, EclipseProject) >> rootModel
+        controller.getModel(includedBuild.rootProject, EclipseProject) >> includedModel
+
+        when:
+        Map<String, Object> snapshot = new SyncSnapshotQuery().execute(controller)
+
+        then:
+        snapshot.keySet() == [GradleBuild.name, EclipseProject.name] as Set
+        snapshot[GradleBuild.name] == rootBuild
+        snapshot[EclipseProject.name] == [rootModel, includedModel]
+    }
+
+    def "Build environment is not requested from within the build action"() {
+        setup:
+        BuildController controller = Mock(BuildController)
+        controller.getBuildModel() >> gradleBuild(new File('root'), [])
+
+        when:
+        new SyncSnapshotQuery().execute(controller)
+
+        then:
+        0 * controller.getModel(BuildEnvironment)
+    }
+
+    def "Project locations of each participant are written to the channel"() {
+        setup:
+        GradleBuild includedBuild = gradleBuild(new File('included'), [])
+        GradleBuild rootBuild = gradleBuild(new File('root'), [includedBuild])
+        BuildController controller = Mock(BuildController)
+        controller.getBuildModel() >> rootBuild
+        controller.getModel(rootBuild.rootProject, EclipseProject) >> eclipseProject(new File('root'), [eclipseProject(new File('root/sub'), [])])
+        controller.getModel(includedBuild.rootProject, EclipseProject) >> eclipseProject(new File('included'), [])
+        EclipseProjectsListener listener = Mock(EclipseProjectsListener)
+        EclipseProjectsChannel channel = EclipseProjectsChannel.create(listener)
+
+        when:
+        new SyncSnapshotQuery(channel.file.path).execute(controller)
+        channel.poll()
+
+        then:
+        1 * listener.eclipseProjectsLoaded(new File('root'), [new File('root'), new File('root/sub')])
+
+        then:
+        1 * listener.eclipseProjectsLoaded(new File('included'), [new File('included')])
+
+        cleanup:
+        channel.close()
+    }
+
+    def "Partially written records are delivered by the next poll"() {
+        setup:
+        EclipseProjectsListener listener = Mock(EclipseProjectsListener)
+        EclipseProjectsChannel channel = EclipseProjectsChannel.create(listener)
+        ByteArrayOutputStream record = new ByteArrayOutputStream()
+        SyncSnapshotQuery.writeRecord(record, eclipseProject(new File('root'), []))
+        byte[] bytes = record.toByteArray()
+
+        when:
+        channel.file.bytes = bytes[0..<(bytes.length - 1)] as byte[]
+        channel.poll()
+
+        then:
+        0 * listener._
+
+        when:
+        channel.file.bytes = bytes
+        channel.poll()
+        channel.poll()
+
+        then:
+        1 * listener.eclipseProjectsLoaded(new File('root'), [new File('root')])
+
+        cleanup:
+        channel.close()
+    }
+
+    private EclipseProject eclipseProject(File projectDir, List<EclipseProject> children) {
+        DomainObjectSet<EclipseProject> childSet = Mock(DomainObjectSet)
+        childSet.iterator() >> { children.iterator() }
+        EclipseProject project = Mock(EclipseProject)
+        project.projectDirectory >> projectDir
+        project.children >> childSet
+        project
+    }
+
+    private GradleBuild gradleBuild(File rootDir, List<GradleBuild> includedBuilds) {
+        BasicGradleProject rootProject = Mock(BasicGradleProject)
+        rootProject.projectDirectory >> rootDir
+        DomainObjectSet<GradleBuild> included = Mock(DomainObjectSet)
+        included.iterator() >> { includedBuilds.iterator() }
+        GradleBuild build = Mock(GradleBuild)
+        build.rootProject >> rootProject
+        build.includedBuilds >> included
+        build
+    }
+}
@@ -2,6 +2,9 @@ package org.eclipse.buildship.core.workspace.internal
 
 import org.eclipse.core.resources.IProject
 import org.eclipse.core.runtime.NullProgressMonitor
+import org.eclipse.core.runtime.jobs.IJobChangeEvent
+import org.eclipse.core.runtime.jobs.Job
+import org.eclipse.core.runtime.jobs.JobChangeAdapter
 import org.eclipse.jdt.core.JavaCore
 
 import org.eclipse.buildship.core.configuration.BuildConfiguration
@@ -127,6 +130,75 @@ class SynchronizingBuildScriptUpdateListenerTest extends ProjectSynchronizationS
         JavaCore.create(project).getResolvedClasspath(false).find { it.path.toPortableString().endsWith('spring-beans-1.2.8.jar') }
     }
 
+    def "Execute project synchronization when a script applied from the build script changes"() {
+        setup:
+        File projectDir = dir('auto-sync-test-project') {
+            dir('src/main/java')
+            file 'build.gradle', "apply from: 'gradle/java.gradle'"
+            dir('gradle') {
+                file 'java.gradle', """
+                    apply plugin: 'java'
+                    repositories { mavenCentral() }
+                """
+            }
+        }
+        importAndWait(projectDir)
+        IProject project = findProject('auto-sync-test-project')
+        enableProjectAutoSync(project)
+
+        when:
+        String script = '''
+            apply plugin: "java"
+            repositories { jcenter() }
+            dependencies { compile "org.springframework:spring-beans:1.2.8" }
+        '''
+        project.getFile('gradle/java.gradle').setContents(new ByteArrayInputStream(script.bytes), 0, new NullProgressMonitor())
+        waitForResourceChangeEvents()
+        waitForGradleJobsToFinish()
+
+        then:
+        JavaCore.create(project).getResolvedClasspath(false).find { it.path.toPortableString().endsWith('spring-beans-1.2.8.jar') }
+    }
+
+    def "Consecutive build script changes are synchronized together"() {
+        setup:
+        File projectDir = dir('auto-sync-test-project') {
+            file 'settings.gradle', "include 'sub'"
+            file 'build.gradle', ''
+            dir('sub') {
+                file 'build.gradle', ''
+            }
+        }
+        importAndWait(projectDir)
+        IProject project = findProject('auto-sync-test-project')
+        IProject subproject = findProject('sub')
+        enableProjectAutoSync(project)
+
+        int scheduledSynchronizations = 0
+        def listener = new JobChangeAdapter() {
+            void scheduled(IJobChangeEvent event) {
+                if (event.job instanceof SynchronizeGradleBuildsJob) {
+                    scheduledSynchronizations++
+                }
+            }
+        }
+        Job.jobManager.addJobChangeListener(listener)
+
+        when:
+        project.getFile('build.gradle').setContents(new ByteArrayInputStream("apply plugin: 'java'".bytes), 0, new NullProgressMonitor())
+        project.getFile('settings.gradle').setContents(new ByteArrayInputStream("include 'sub'\n".bytes), 0, new NullProgressMonitor())
+        subproject.getFile('build.gradle').setContents(new ByteArrayInputStream("apply plugin: 'java'".bytes), 0, new NullProgressMonitor())
+        waitForResourceChangeEvents()
+        waitForGradleJobsToFinish()
+
+        then:
+        scheduledSynchronizations == 1
+        JavaCore.create(subproject).exists()
+
+        cleanup:
+        Job.jobManager.removeJobChangeListener(listener)
+    }
+
     def "Synchronization can be disabled for the entire workspace"() {
         setup:
         File projectDir = dir('auto-sync-test-project') {
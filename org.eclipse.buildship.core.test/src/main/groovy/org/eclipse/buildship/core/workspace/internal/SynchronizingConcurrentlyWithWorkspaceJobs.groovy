@@ -0,0 +1,119 @@
+package org.eclipse.buildship.core.workspace.internal
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicBoolean
+
+import com.gradleware.tooling.toolingmodel.OmniEclipseProject
+
+import org.eclipse.core.resources.IProject
+import org.eclipse.core.runtime.IProgressMonitor
+import org.eclipse.core.runtime.IStatus
+import org.eclipse.core.runtime.Status
+import org.eclipse.core.runtime.jobs.Job
+
+import org.eclipse.buildship.core.test.fixtures.ProjectSynchronizationSpecification
+import org.eclipse.buildship.core.workspace.NewProjectHandler
+
+class SynchronizingConcurrentlyWithWorkspaceJobs extends ProjectSynchronizationSpecification {
+
+    def "Workspace root rule job does not run while the workspace structure is synchronized"() {
+        setup:
+        File projectLocation = dir("sample-project") {
+            file 'settings.gradle'
+        }
+        AtomicBoolean synchronizingStructure = new AtomicBoolean(false)
+        AtomicBoolean overlapped = new AtomicBoolean(false)
+        CountDownLatch structurePhaseEntered = new CountDownLatch(1)
+        CountDownLatch rootRuleJobScheduled = new CountDownLatch(1)
+        Job rootRuleJob = new Job("Job holding the workspace root rule") {
+
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                overlapped.set(synchronizingStructure.get())
+                Status.OK_STATUS
+            }
+        }
+        rootRuleJob.rule = workspace.root
+
+        // the new project handler is consulted in the structure phase
+        NewProjectHandler newProjectHandler = new NewProjectHandler() {
+
+            @Override
+            boolean shouldImport(OmniEclipseProject projectModel) {
+                synchronizingStructure.set(true)
+                structurePhaseEntered.countDown()
+                rootRuleJobScheduled.await()
+                // give a conflicting job the chance to run if the rule was not held
+                Thread.sleep(500)
+                synchronizingStructure.set(false)
+                true
+            }
+
+            @Override
+            void afterImport(IProject project, OmniEclipseProject projectModel) {
+            }
+        }
+
+        when:
+        startSynchronization(projectLocation, DEFAULT_DISTRIBUTION, newProjectHandler)
+        structurePhaseEntered.await()
+        rootRuleJob.schedule()
+        rootRuleJobScheduled.countDown()
+        waitForGradleJobsToFinish()
+        rootRuleJob.join()
+
+        then:
+        rootRuleJob.result.isOK()
+        !overlapped.get()
+        findProject('sample-project')
+    }
+
+    def "Workspace structure is synchronized after a running workspace root rule job finished"() {
+        setup:
+        File projectLocation = dir("sample-project") {
+            file 'settings.gradle'
+        }
+        AtomicBoolean rootRuleJobRunning = new AtomicBoolean(false)
+        AtomicBoolean overlapped = new AtomicBoolean(false)
+        CountDownLatch rootRuleJobStarted = new CountDownLatch(1)
+        CountDownLatch releaseRootRule = new CountDownLatch(1)
+        Job rootRuleJob = new Job("Job holding the workspace root rule") {
+
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                rootRuleJobRunning.set(true)
+                rootRuleJobStarted.countDown()
+                releaseRootRule.await()
+                rootRuleJobRunning.set(false)
+                Status.OK_STATUS
+            }
+        }
+        rootRuleJob.rule = workspace.root
+
+        NewProjectHandler newProjectHandler = new NewProjectHandler() {
+
+            @Override
+            boolean shouldImport(OmniEclipseProject projectModel) {
+                overlapped.compareAndSet(false, rootRuleJobRunning.get())
+                true
+            }
+
+            @Override
+            void afterImport(IProject project, OmniEclipseProject projectModel) {
+            }
+        }
+
+        when:
+        rootRuleJob.schedule()
+        rootRuleJobStarted.await()
+        startSynchronization(projectLocation, DEFAULT_DISTRIBUTION, newProjectHandler)
+        // the models are loaded without the workspace rule, the structure phase has to wait
+        Thread.sleep(500)
+        releaseRootRule.countDown()
+        waitForGradleJobsToFinish()
+
+        then:
+        !overlapped.get()
+        findProject('sample-project')
+    }
+}
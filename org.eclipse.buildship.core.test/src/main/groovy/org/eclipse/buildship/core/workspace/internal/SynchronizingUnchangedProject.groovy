@@ -0,0 +1,67 @@
+package org.eclipse.buildship.core.workspace.internal
+
+import org.eclipse.core.resources.IProject
+import org.eclipse.jdt.core.JavaCore
+
+import org.eclipse.buildship.core.CorePlugin
+import org.eclipse.buildship.core.test.fixtures.ProjectSynchronizationSpecification
+import org.eclipse.buildship.core.workspace.NewProjectHandler
+
+class SynchronizingUnchangedProject extends ProjectSynchronizationSpecification {
+
+    File projectDir
+    IProject project
+
+    def setup() {
+        projectDir = dir('sample-project') {
+            file 'build.gradle', ''
+            dir 'build'
+        }
+        importAndWait(projectDir)
+        project = findProject('sample-project')
+        project.getFolder('build').setDerived(false, null)
+    }
+
+    def "Project is not updated if the Gradle model did not change"() {
+        when:
+        synchronizeAndWait(projectDir)
+
+        then:
+        !project.getFolder('build').isDerived()
+    }
+
+    def "Project is updated if the Gradle model changed"() {
+        setup:
+        new File(projectDir, 'build.gradle') << "apply plugin: 'java'"
+
+        when:
+        synchronizeAndWait(projectDir)
+
+        then:
+        project.getFolder('build').isDerived()
+        project.hasNature(JavaCore.NATURE_ID)
+    }
+
+    def "Project is updated if the project descriptor was modified"() {
+        setup:
+        def description = project.description
+        description.natureIds = description.natureIds + 'org.eclipse.pde.UpdateSiteNature'
+        project.setDescription(description, null)
+
+        when:
+        synchronizeAndWait(projectDir)
+
+        then:
+        project.getFolder('build').isDerived()
+    }
+
+    def "Full synchronization updates projects with unchanged Gradle model"() {
+        when:
+        CorePlugin.gradleWorkspaceManager().getGradleBuilds([project] as Set).synchronizeFully(NewProjectHandler.IMPORT_AND_MERGE)
+        waitForGradleJobsToFinish()
+        waitForResourceChangeEvents()
+
+        then:
+        project.getFolder('build').isDerived()
+    }
+}
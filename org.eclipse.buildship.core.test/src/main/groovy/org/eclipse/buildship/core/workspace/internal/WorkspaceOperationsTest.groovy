@@ -16,6 +16,8 @@ import com.gradleware.tooling.toolingmodel.OmniGradleProject
 import com.gradleware.tooling.toolingmodel.util.Maybe
 
 import org.eclipse.core.resources.IProject
+import org.eclipse.core.resources.IWorkspaceRunnable
+import org.eclipse.core.runtime.IProgressMonitor
 import org.eclipse.core.runtime.NullProgressMonitor
 import org.eclipse.jdt.core.JavaCore
 
@@ -425,6 +427,56 @@ class WorkspaceOperationsTest extends WorkspaceSpecification {
         thrown(GradlePluginsRuntimeException)
     }
 
+    ///////////////////////////////////////////////////////////////
+    // tests for findProjectByName() and findProjectByLocation() //
+    ///////////////////////////////////////////////////////////////
+
+    def "Can find projects by name and by location"() {
+        setup:
+        IProject sampleProject = createSampleProject()
+
+        expect:
+        workspaceOperations.findProjectByName('sample-project').get() == sampleProject
+        workspaceOperations.findProjectByLocation(dir('sample-project')).get() == sampleProject
+        !workspaceOperations.findProjectByName('other-project').isPresent()
+        !workspaceOperations.findProjectByLocation(dir('other-project')).isPresent()
+    }
+
+    def "Project lookup reflects deleted and renamed projects"() {
+        setup:
+        IProject projectA = newProject('project-a')
+        IProject projectB = newProject('project-b')
+        File locationB = projectB.location.toFile()
+
+        when:
+        projectA.delete(false, true, new NullProgressMonitor())
+        IProject renamed = workspaceOperations.renameProject(projectB, 'project-c', new NullProgressMonitor())
+
+        then:
+        !workspaceOperations.findProjectByName('project-a').isPresent()
+        !workspaceOperations.findProjectByLocation(dir('project-a')).isPresent()
+        !workspaceOperations.findProjectByName('project-b').isPresent()
+        workspaceOperations.findProjectByLocation(locationB).get() == renamed
+    }
+
+    def "Project lookup sees changes of the enclosing workspace operation"() {
+        setup:
+        File location = dir('sample-project')
+        IProject project = null
+
+        when:
+        workspace.run({ IProgressMonitor monitor ->
+            project = workspaceOperations.createProject('sample-project', location, [], monitor)
+            assert workspaceOperations.findProjectByLocation(location).get() == project
+            project = workspaceOperations.renameProject(project, 'renamed-project', monitor)
+            assert workspaceOperations.findProjectByLocation(location).get() == project
+        } as IWorkspaceRunnable, new NullProgressMonitor())
+
+        then:
+        workspaceOperations.findProjectByLocation(location).get() == project
+        workspaceOperations.findProjectByName('renamed-project').get() == project
+    }
+
     private IProject createSampleProject() {
         newProject("sample-project")
     }
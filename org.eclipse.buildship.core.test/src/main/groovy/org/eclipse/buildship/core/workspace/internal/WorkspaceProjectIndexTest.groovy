@@ -0,0 +1,65 @@
+package org.eclipse.buildship.core.workspace.internal
+
+import com.google.common.base.Optional
+
+import org.eclipse.core.resources.IProject
+import org.eclipse.core.resources.IProjectDescription
+import org.eclipse.core.resources.IResource
+import org.eclipse.core.resources.IWorkspaceRunnable
+import org.eclipse.core.runtime.IProgressMonitor
+import org.eclipse.core.runtime.NullProgressMonitor
+import org.eclipse.core.runtime.Path
+
+import org.eclipse.buildship.core.CorePlugin
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+
+class WorkspaceProjectIndexTest extends WorkspaceSpecification {
+
+    def "Index is updated when the location of a project changes"() {
+        setup:
+        IProject project = newProject('sample')
+        File oldLocation = project.location.toFile()
+        File newLocation = dir('relocated')
+        WorkspaceProjectIndex index = CorePlugin.workspaceProjectIndex()
+
+        expect:
+        index.findByLocation(oldLocation) == Optional.of(project)
+
+        when:
+        IProjectDescription description = project.description
+        description.location = new Path(newLocation.absolutePath)
+        project.move(description, IResource.FORCE, new NullProgressMonitor())
+
+        then:
+        index.findByLocation(newLocation) == Optional.of(project)
+        !index.findByLocation(oldLocation).present
+    }
+
+    def "Projects created in a running workspace operation are found"() {
+        setup:
+        WorkspaceProjectIndex index = new WorkspaceProjectIndex()
+        File location = dir('created-in-operation')
+        Optional<IProject> result = null
+
+        expect:
+        !index.findByLocation(location).present
+
+        when:
+        workspace.run(new IWorkspaceRunnable() {
+
+            @Override
+            void run(IProgressMonitor monitor) {
+                IProject project = workspace.root.getProject('created-in-operation')
+                IProjectDescription description = workspace.newProjectDescription(project.name)
+                description.location = new Path(location.absolutePath)
+                project.create(description, monitor)
+                project.open(monitor)
+                // the resource delta is not yet delivered to the index
+                result = index.findByLocation(location)
+            }
+        }, new NullProgressMonitor())
+
+        then:
+        result == Optional.of(findProject('created-in-operation'))
+    }
+}
@@ -47,12 +47,18 @@ import org.eclipse.buildship.core.preferences.internal.DefaultModelPersistence;
 import org.eclipse.buildship.core.util.extension.InvocationCustomizerCollector;
 import org.eclipse.buildship.core.util.gradle.PublishedGradleVersionsWrapper;
 import org.eclipse.buildship.core.util.logging.EclipseLogger;
+import org.eclipse.buildship.core.util.trace.SynchronizationTracer;
 import org.eclipse.buildship.core.workspace.GradleWorkspaceManager;
 import org.eclipse.buildship.core.workspace.WorkspaceOperations;
+import org.eclipse.buildship.core.workspace.internal.BuildEnvironmentCache;
 import org.eclipse.buildship.core.workspace.internal.DefaultGradleWorkspaceManager;
 import org.eclipse.buildship.core.workspace.internal.DefaultWorkspaceOperations;
+import org.eclipse.buildship.core.workspace.internal.ModelCacheRegistry;
+import org.eclipse.buildship.core.workspace.internal.ModelSnapshotStore;
 import org.eclipse.buildship.core.workspace.internal.ProjectChangeListener;
+import org.eclipse.buildship.core.workspace.internal.ProjectConnectionPool;
 import org.eclipse.buildship.core.workspace.internal.SynchronizingBuildScriptUpdateListener;
+import org.eclipse.buildship.core.workspace.internal.WorkspaceProjectIndex;
 
 /**
  * The plug-in runtime class for the Gradle integration plugin containing the non-UI elements.
@@ -106,8 +112,14 @@ public final class CorePlugin extends Plugin {
     private ProjectChangeListener projectChangeListener;
     private SynchronizingBuildScriptUpdateListener buildScriptUpdateListener;
     private InvocationCustomizer invocationCustomizer;
-    private ConfigurationManager configurationManager;
+    private DefaultConfigurationManager configurationManager;
     private DefaultExternalLaunchConfigurationManager externalLaunchConfigurationManager;
+    private ProjectConnectionPool projectConnectionPool;
+    private BuildEnvironmentCache buildEnvironmentCache;
+    private ModelCacheRegistry modelCacheRegistry;
+    private ModelSnapshotStore modelSnapshotStore;
+    private WorkspaceProjectIndex workspaceProjectIndex;
+    private SynchronizationTracer synchronizationTracer;
 
     @Override
     public void start(BundleContext bundleContext) throws Exception {
@@ -119,6 +131,7 @@ public final class CorePlugin extends Plugin {
 
     @Override
     public void stop(BundleContext context) throws Exception {
+        this.projectConnectionPool.shutdown();
         toolingClient().stop(CleanUpStrategy.GRACEFULLY);
         unregisterServices();
         plugin = null;
@@ -160,11 +173,17 @@ public final class CorePlugin extends Plugin {
         this.listenerRegistryService = registerService(context, ListenerRegistry.class, createListenerRegistry(), preferences);
         this.userNotificationService = registerService(context, UserNotification.class, createUserNotification(), preferences);
 
+        this.projectConnectionPool = ProjectConnectionPool.create();
+        this.buildEnvironmentCache = new BuildEnvironmentCache();
+        this.modelCacheRegistry = new ModelCacheRegistry();
+        this.modelSnapshotStore = new ModelSnapshotStore();
+        this.synchronizationTracer = new SynchronizationTracer();
         this.modelPersistence = DefaultModelPersistence.createAndRegister();
-        this.projectChangeListener = ProjectChangeListener.createAndRegister();
+        this.workspaceProjectIndex = new WorkspaceProjectIndex();
+        this.projectChangeListener = ProjectChangeListener.createAndRegister(this.workspaceProjectIndex);
         this.buildScriptUpdateListener = SynchronizingBuildScriptUpdateListener.createAndRegister();
         this.invocationCustomizer = new InvocationCustomizerCollector();
-        this.configurationManager = new DefaultConfigurationManager();
+        this.configurationManager = DefaultConfigurationManager.createAndRegister();
         this.externalLaunchConfigurationManager = DefaultExternalLaunchConfigurationManager.createAndRegister();
     }
 
@@ -224,6 +243,8 @@ public final class CorePlugin extends Plugin {
         this.buildScriptUpdateListener.close();
         this.projectChangeListener.close();
         this.modelPersistence.close();
+        this.configurationManager.close();
+        this.modelCacheRegistry.close();
         this.userNotificationService.unregister();
         this.listenerRegistryService.unregister();
         this.gradleLaunchConfigurationService.unregister();
@@ -306,4 +327,28 @@ public final class CorePlugin extends Plugin {
     public static ExternalLaunchConfigurationManager externalLaunchConfigurationManager() {
         return getInstance().externalLaunchConfigurationManager;
     }
+
+    public static ProjectConnectionPool projectConnectionPool() {
+        return getInstance().projectConnectionPool;
+    }
+
+    public static BuildEnvironmentCache buildEnvironmentCache() {
+        return getInstance().buildEnvironmentCache;
+    }
+
+    public static ModelCacheRegistry modelCacheRegistry() {
+        return getInstance().modelCacheRegistry;
+    }
+
+    public static ModelSnapshotStore modelSnapshotStore() {
+        return getInstance().modelSnapshotStore;
+    }
+
+    public static WorkspaceProjectIndex workspaceProjectIndex() {
+        return getInstance().workspaceProjectIndex;
+    }
+
+    public static SynchronizationTracer synchronizationTracer() {
+        return getInstance().synchronizationTracer;
+    }
 }
@@ -60,6 +60,30 @@ public final class GradleArguments {
         this.jvmArguments = ImmutableList.copyOf(jvmArguments);
     }
 
+    public File getRootDir() {
+        return this.rootDir;
+    }
+
+    public GradleDistribution getGradleDistribution() {
+        return this.gradleDistribution;
+    }
+
+    public File getGradleUserHome() {
+        return this.gradleUserHome;
+    }
+
+    public File getJavaHome() {
+        return this.javaHome;
+    }
+
+    public List<String> getArguments() {
+        return this.arguments;
+    }
+
+    public List<String> getJvmArguments() {
+        return this.jvmArguments;
+    }
+
     public void describe(Writer writer, BuildEnvironment buildEnvironment) {
         try {
             GradleEnvironment gradleEnv = buildEnvironment.getGradle();
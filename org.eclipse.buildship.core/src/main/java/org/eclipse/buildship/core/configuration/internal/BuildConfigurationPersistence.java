@@ -23,6 +23,8 @@ import org.eclipse.buildship.core.util.gradle.GradleDistributionSerializer;
 
 /**
  * Provides capability to read and save configuration properties on a target project.
+ * <p/>
+ * The save methods only write the preferences file if a value changed and return whether they did.
  *
  * @author Donat Csikos
  */
@@ -50,18 +52,18 @@ final class BuildConfigurationPersistence {
         return readPreferences(preferences, projectDir);
     }
 
-    public void saveBuildConfiguration(IProject project, DefaultBuildConfigurationProperties properties) {
+    public boolean saveBuildConfiguration(IProject project, DefaultBuildConfigurationProperties properties) {
         Preconditions.checkNotNull(project);
         Preconditions.checkNotNull(properties);
         PreferenceStore preferences = PreferenceStore.forProjectScope(project, PREF_NODE);
-        savePreferences(properties, preferences);
+        return savePreferences(properties, preferences);
     }
 
-    public void saveBuildConfiguration(File projectDir, DefaultBuildConfigurationProperties properties) {
+    public boolean saveBuildConfiguration(File projectDir, DefaultBuildConfigurationProperties properties) {
         Preconditions.checkNotNull(projectDir);
         Preconditions.checkNotNull(properties);
         PreferenceStore preferences = PreferenceStore.forPreferenceFile(getProjectPrefsFile(projectDir, PREF_NODE));
-        savePreferences(properties, preferences);
+        return savePreferences(properties, preferences);
     }
 
     public String readPathToRoot(IProject project) {
@@ -84,31 +86,30 @@ final class BuildConfigurationPersistence {
         return result;
     }
 
-    public void savePathToRoot(IProject project, String pathToRoot) {
+    public boolean savePathToRoot(IProject project, String pathToRoot) {
         Preconditions.checkNotNull(project);
         Preconditions.checkNotNull(pathToRoot);
         PreferenceStore preferences = PreferenceStore.forProjectScope(project, PREF_NODE);
-        saveRootDirPreference(pathToRoot, preferences);
-
+        return saveRootDirPreference(pathToRoot, preferences);
     }
 
-    public void savePathToRoot(File projectDir, String pathToRoot) {
+    public boolean savePathToRoot(File projectDir, String pathToRoot) {
         Preconditions.checkNotNull(projectDir);
         Preconditions.checkNotNull(pathToRoot);
         PreferenceStore preferences = PreferenceStore.forPreferenceFile(getProjectPrefsFile(projectDir, PREF_NODE));
-        saveRootDirPreference(pathToRoot, preferences);
+        return saveRootDirPreference(pathToRoot, preferences);
     }
 
-    public void deletePathToRoot(IProject project) {
+    public boolean deletePathToRoot(IProject project) {
         Preconditions.checkNotNull(project);
         PreferenceStore preferences = PreferenceStore.forProjectScope(project, PREF_NODE);
-        deleteRootDirPreference(preferences);
+        return deleteRootDirPreference(preferences);
     }
 
-    public void deletePathToRoot(File projectDir) {
+    public boolean deletePathToRoot(File projectDir) {
         Preconditions.checkNotNull(projectDir);
         PreferenceStore preferences = PreferenceStore.forPreferenceFile(getProjectPrefsFile(projectDir, PREF_NODE));
-        deleteRootDirPreference(preferences);
+        return deleteRootDirPreference(preferences);
     }
 
     private static DefaultBuildConfigurationProperties readPreferences(PreferenceStore preferences, File rootDir) {
@@ -131,7 +132,7 @@ final class BuildConfigurationPersistence {
         return new DefaultBuildConfigurationProperties(rootDir, distribution, gradleUserHome, overrideWorkspaceSettings, buildScansEnabled, offlineMode, autoSync);
     }
 
-    private static void savePreferences(DefaultBuildConfigurationProperties properties, PreferenceStore preferences) {
+    private static boolean savePreferences(DefaultBuildConfigurationProperties properties, PreferenceStore preferences) {
         if (properties.isOverrideWorkspaceSettings()) {
             String gradleDistribution = GradleDistributionSerializer.INSTANCE.serializeToString(properties.getGradleDistribution());
             preferences.write(PREF_KEY_CONNECTION_GRADLE_DISTRIBUTION, gradleDistribution);
@@ -148,7 +149,7 @@ final class BuildConfigurationPersistence {
             preferences.delete(PREF_KEY_OFFLINE_MODE);
             preferences.delete(PREF_KEY_AUTO_SYNC);
         }
-        preferences.flush();
+        return preferences.flush();
     }
 
     private static String toPortableString(File file) {
@@ -159,13 +160,13 @@ final class BuildConfigurationPersistence {
         return new File(projectDir, ".settings/" + node + ".prefs");
     }
 
-    private void saveRootDirPreference(String pathToRoot, PreferenceStore preferences) {
+    private boolean saveRootDirPreference(String pathToRoot, PreferenceStore preferences) {
         preferences.write(PREF_KEY_CONNECTION_PROJECT_DIR, pathToRoot);
-        preferences.flush();
+        return preferences.flush();
     }
 
-    private void deleteRootDirPreference(PreferenceStore preferences) {
+    private boolean deleteRootDirPreference(PreferenceStore preferences) {
         preferences.delete(PREF_KEY_CONNECTION_PROJECT_DIR);
-        preferences.flush();
+        return preferences.flush();
     }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.configuration.internal;
+
+import java.io.File;
+import java.util.Map;
+
+import com.google.common.collect.Maps;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.PreferenceChangeEvent;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+
+import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.configuration.BuildConfiguration;
+import org.eclipse.buildship.core.configuration.ProjectConfiguration;
+
+/**
+ * Caches the build and project configurations read from the workspace projects.
+ * <p/>
+ * The cache is cleared if the Buildship preferences file of any project changes, if a project is
+ * added, removed, opened or closed, and if the workspace configuration changes. Since only changes
+ * of workspace resources are detected, callers only cache configurations which were read from open
+ * workspace projects.
+ * <p/>
+ * To avoid storing a configuration which was read before a concurrent invalidation, values can
+ * only be added with the {@link #getGeneration() generation} obtained before reading them.
+ *
+ * @author Donat Csikos
+ */
+final class ConfigurationCache implements IResourceChangeListener, IPreferenceChangeListener {
+
+    private static final IPath PREFERENCES_FILE_PATH = new Path(".settings/" + CorePlugin.PLUGIN_ID + ".prefs");
+
+    private final Object lock = new Object();
+    private final Map<File, BuildConfiguration> buildConfigurations = Maps.newHashMap();
+    private final Map<IPath, ProjectConfiguration> projectConfigurations = Maps.newHashMap();
+    private long generation = 0;
+
+    private ConfigurationCache() {
+    }
+
+    public long getGeneration() {
+        synchronized (this.lock) {
+            return this.generation;
+        }
+    }
+
+    public BuildConfiguration getBuildConfiguration(File rootDir) {
+        synchronized (this.lock) {
+            return this.buildConfigurations.get(rootDir);
+        }
+    }
+
+    public void putBuildConfiguration(File rootDir, BuildConfiguration configuration, long generation) {
+        synchronized (this.lock) {
+            if (this.generation == generation) {
+                this.buildConfigurations.put(rootDir, configuration);
+            }
+        }
+    }
+
+    public ProjectConfiguration getProjectConfiguration(IPath projectLocation) {
+        synchronized (this.lock) {
+            return this.projectConfigurations.get(projectLocation);
+        }
+    }
+
+    public void putProjectConfiguration(IPath projectLocation, ProjectConfiguration configuration, long generation) {
+        synchronized (this.lock) {
+            if (this.generation == generation) {
+                this.projectConfigurations.put(projectLocation, configuration);
+            }
+        }
+    }
+
+    public void invalidate() {
+        synchronized (this.lock) {
+            this.generation++;
+            this.buildConfigurations.clear();
+            this.projectConfigurations.clear();
+        }
+    }
+
+    @Override
+    public void resourceChanged(IResourceChangeEvent event) {
+        IResourceDelta delta = event.getDelta();
+        if (delta != null && affectsConfiguration(delta)) {
+            invalidate();
+        }
+    }
+
+    private static boolean affectsConfiguration(IResourceDelta rootDelta) {
+        for (IResourceDelta delta : rootDelta.getAffectedChildren()) {
+            if (delta.getResource() instanceof IProject) {
+                if (delta.getKind() != IResourceDelta.CHANGED || (delta.getFlags() & IResourceDelta.OPEN) != 0) {
+                    return true;
+                } else if (delta.findMember(PREFERENCES_FILE_PATH) != null) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void preferenceChange(PreferenceChangeEvent event) {
+        if (WorkspaceConfigurationPersistence.isWorkspaceConfigurationKey(event.getKey())) {
+            invalidate();
+        }
+    }
+
+    public static ConfigurationCache createAndRegister() {
+        ConfigurationCache cache = new ConfigurationCache();
+        ResourcesPlugin.getWorkspace().addResourceChangeListener(cache, IResourceChangeEvent.POST_CHANGE);
+        InstanceScope.INSTANCE.getNode(CorePlugin.PLUGIN_ID).addPreferenceChangeListener(cache);
+        return cache;
+    }
+
+    public void close() {
+        InstanceScope.INSTANCE.getNode(CorePlugin.PLUGIN_ID).removePreferenceChangeListener(this);
+        ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+    }
+}
@@ -34,11 +34,18 @@ import org.eclipse.buildship.core.util.file.RelativePathUtils;
 
 /**
  * Default implementation for {@link ConfigurationManager}.
+ * <p/>
+ * The configurations loaded from open workspace projects are kept in a {@link ConfigurationCache}.
  */
 public class DefaultConfigurationManager implements ConfigurationManager {
 
     WorkspaceConfigurationPersistence workspaceConfigurationPersistence = new WorkspaceConfigurationPersistence();
     BuildConfigurationPersistence buildConfigurationPersistence = new BuildConfigurationPersistence();
+    private final ConfigurationCache cache;
+
+    private DefaultConfigurationManager(ConfigurationCache cache) {
+        this.cache = cache;
+    }
 
     @Override
     public WorkspaceConfiguration loadWorkspaceConfiguration() {
@@ -67,23 +74,36 @@ public class DefaultConfigurationManager implements ConfigurationManager {
     public BuildConfiguration loadBuildConfiguration(File rootDir) {
         Preconditions.checkNotNull(rootDir);
         Preconditions.checkArgument(rootDir.exists());
-        Optional<IProject> projectCandidate = CorePlugin.workspaceOperations().findProjectByLocation(rootDir);
+        Optional<IProject> projectCandidate = findAccessibleProject(rootDir);
+        if (!projectCandidate.isPresent()) {
+            DefaultBuildConfigurationProperties buildConfigProperties = this.buildConfigurationPersistence.readBuildConfiguratonProperties(rootDir);
+            return new DefaultBuildConfiguration(buildConfigProperties, loadWorkspaceConfiguration());
+        }
+
+        long generation = this.cache.getGeneration();
+        BuildConfiguration cached = this.cache.getBuildConfiguration(rootDir);
+        if (cached != null) {
+            return cached;
+        }
+
+        IProject project = projectCandidate.get();
         DefaultBuildConfigurationProperties buildConfigProperties;
-        if (projectCandidate.isPresent() && projectCandidate.get().isAccessible()) {
-            IProject project = projectCandidate.get();
-            try {
-                buildConfigProperties = this.buildConfigurationPersistence.readBuildConfiguratonProperties(project);
-            } catch (Exception e) {
-                // when the project is being imported, the configuration file might not be visible from the
-                // Eclipse resource API; in that case we fall back to raw IO operations
-                // a similar approach is used in JDT core to load the .classpath file
-                // see org.eclipse.jdt.internal.core.JavaProject.readFileEntriesWithException(Map)
-                buildConfigProperties = this.buildConfigurationPersistence.readBuildConfiguratonProperties(project.getLocation().toFile());
-            }
-        } else {
-            buildConfigProperties = this.buildConfigurationPersistence.readBuildConfiguratonProperties(rootDir);
+        boolean cacheable = true;
+        try {
+            buildConfigProperties = this.buildConfigurationPersistence.readBuildConfiguratonProperties(project);
+        } catch (Exception e) {
+            // when the project is being imported, the configuration file might not be visible from the
+            // Eclipse resource API; in that case we fall back to raw IO operations
+            // a similar approach is used in JDT core to load the .classpath file
+            // see org.eclipse.jdt.internal.core.JavaProject.readFileEntriesWithException(Map)
+            buildConfigProperties = this.buildConfigurationPersistence.readBuildConfiguratonProperties(project.getLocation().toFile());
+            cacheable = false;
         }
-        return new DefaultBuildConfiguration(buildConfigProperties, loadWorkspaceConfiguration());
+        BuildConfiguration result = new DefaultBuildConfiguration(buildConfigProperties, loadWorkspaceConfiguration());
+        if (cacheable) {
+            this.cache.putBuildConfiguration(rootDir, result, generation);
+        }
+        return result;
     }
 
     @Override
@@ -92,10 +112,14 @@ public class DefaultConfigurationManager implements ConfigurationManager {
         DefaultBuildConfigurationProperties properties = ((DefaultBuildConfiguration)configuration).getProperties();
         File rootDir = configuration.getRootProjectDirectory();
         Optional<IProject> rootProject = CorePlugin.workspaceOperations().findProjectByLocation(rootDir);
+        boolean changed;
         if (rootProject.isPresent() && rootProject.get().isAccessible()) {
-            this.buildConfigurationPersistence.saveBuildConfiguration(rootProject.get(), properties);
+            changed = this.buildConfigurationPersistence.saveBuildConfiguration(rootProject.get(), properties);
         } else {
-            this.buildConfigurationPersistence.saveBuildConfiguration(rootDir, properties);
+            changed = this.buildConfigurationPersistence.saveBuildConfiguration(rootDir, properties);
+        }
+        if (changed) {
+            this.cache.invalidate();
         }
     }
 
@@ -106,10 +130,25 @@ public class DefaultConfigurationManager implements ConfigurationManager {
 
     @Override
     public ProjectConfiguration loadProjectConfiguration(IProject project) {
-        String pathToRoot = this.buildConfigurationPersistence.readPathToRoot(project.getLocation().toFile());
-        File rootDir = relativePathToProjectRoot(project.getLocation(), pathToRoot);
+        IPath location = project.getLocation();
+        long generation = this.cache.getGeneration();
+        if (project.isAccessible()) {
+            ProjectConfiguration cached = this.cache.getProjectConfiguration(location);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        String pathToRoot = this.buildConfigurationPersistence.readPathToRoot(location.toFile());
+        File rootDir = relativePathToProjectRoot(location, pathToRoot);
         BuildConfiguration buildConfig = loadBuildConfiguration(rootDir);
-        return new DefaultProjectConfiguration(project.getLocation().toFile(), buildConfig);
+        ProjectConfiguration result = new DefaultProjectConfiguration(location.toFile(), buildConfig);
+
+        // changes are only detected if both the project and the root project are in the workspace
+        if (project.isAccessible() && findAccessibleProject(rootDir).isPresent()) {
+            this.cache.putProjectConfiguration(location, result, generation);
+        }
+        return result;
     }
 
     @Override
@@ -137,20 +176,27 @@ public class DefaultConfigurationManager implements ConfigurationManager {
         String pathToRoot = projectRootToRelativePath(projectDir, rootDir);
 
         Optional<IProject> project = CorePlugin.workspaceOperations().findProjectByLocation(projectDir);
+        boolean changed;
         if (project.isPresent() && project.get().isAccessible()) {
-            this.buildConfigurationPersistence.savePathToRoot(project.get(), pathToRoot);
+            changed = this.buildConfigurationPersistence.savePathToRoot(project.get(), pathToRoot);
         } else {
-            this.buildConfigurationPersistence.savePathToRoot(projectDir, pathToRoot);
+            changed = this.buildConfigurationPersistence.savePathToRoot(projectDir, pathToRoot);
+        }
+        if (changed) {
+            this.cache.invalidate();
         }
-        saveBuildConfiguration(buildConfiguration);
     }
 
     @Override
     public void deleteProjectConfiguration(IProject project) {
+        boolean changed;
         if (project.isAccessible()) {
-            this.buildConfigurationPersistence.deletePathToRoot(project);
+            changed = this.buildConfigurationPersistence.deletePathToRoot(project);
         } else {
-            this.buildConfigurationPersistence.deletePathToRoot(project.getLocation().toFile());
+            changed = this.buildConfigurationPersistence.deletePathToRoot(project.getLocation().toFile());
+        }
+        if (changed) {
+            this.cache.invalidate();
         }
     }
 
@@ -221,6 +267,22 @@ public class DefaultConfigurationManager implements ConfigurationManager {
         return new DefaultRunConfiguration(projectConfiguration, runConfig);
     }
 
+    /**
+     * Unregisters the listeners invalidating the cached configurations.
+     */
+    public void close() {
+        this.cache.close();
+    }
+
+    public static DefaultConfigurationManager createAndRegister() {
+        return new DefaultConfigurationManager(ConfigurationCache.createAndRegister());
+    }
+
+    private static Optional<IProject> findAccessibleProject(File location) {
+        Optional<IProject> project = CorePlugin.workspaceOperations().findProjectByLocation(location);
+        return project.isPresent() && project.get().isAccessible() ? project : Optional.<IProject>absent();
+    }
+
     private static File relativePathToProjectRoot(IPath projectPath, String path) {
         IPath pathToRoot = new Path(path);
         IPath absolutePathToRoot = pathToRoot.isAbsolute() ? pathToRoot : RelativePathUtils.getAbsolutePath(projectPath, pathToRoot);
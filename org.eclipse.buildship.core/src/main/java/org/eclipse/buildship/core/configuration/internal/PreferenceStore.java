@@ -12,6 +12,7 @@
 package org.eclipse.buildship.core.configuration.internal;
 
 import com.google.common.base.Charsets;
+import com.google.common.base.Objects;
 import com.google.common.io.Files;
 
 import org.eclipse.buildship.core.GradlePluginsRuntimeException;
@@ -27,6 +28,8 @@ import java.util.Properties;
  */
 abstract class PreferenceStore {
 
+    private boolean modified = false;
+
     private PreferenceStore() {
     }
 
@@ -50,12 +53,18 @@ abstract class PreferenceStore {
 
     /**
      * Writes a preference key-value pair. The changes can be persisted by calling {@link #flush()}.
-     * If the value is {@code null}, the preference is removed.
+     * If the value is {@code null}, the preference is removed. Does nothing if the preference
+     * already has the given value.
      *
      * @param key the preference key
      * @param value the preference value
      */
-    abstract void write(String key, String value);
+    final void write(String key, String value) {
+        if (!Objects.equal(readString(key, null), value)) {
+            doWrite(key, value);
+            this.modified = true;
+        }
+    }
 
     /**
      * Writes a preference key-value pair. The changes can be persisted by calling {@link #flush()}.
@@ -63,7 +72,9 @@ abstract class PreferenceStore {
      * @param key the preference key
      * @param value the preference value
      */
-    abstract void writeBoolean(String key, boolean value);
+    final void writeBoolean(String key, boolean value) {
+        write(key, String.valueOf(value));
+    }
 
     /**
      * Deletes an entry from the preference store. Does nothing if the key doesn't exist in the
@@ -71,16 +82,40 @@ abstract class PreferenceStore {
      *
      * @param key the key to remove from the preference store
      */
-    void delete(String key) {
+    final void delete(String key) {
         write(key, null);
     }
 
     /**
-     * Persists changes done on this preference store.
+     * Persists changes done on this preference store. Does nothing if no preference was changed
+     * since the last call, so that the underlying file is not rewritten with the same content.
      *
+     * @return {@code true} if there were changes to persist
      * @throws GradlePluginsRuntimeException if the operation fails
      */
-    abstract void flush();
+    final boolean flush() {
+        if (!this.modified) {
+            return false;
+        }
+        doFlush();
+        this.modified = false;
+        return true;
+    }
+
+    /**
+     * Stores a preference value, or removes the preference if the value is {@code null}.
+     *
+     * @param key the preference key
+     * @param value the preference value
+     */
+    abstract void doWrite(String key, String value);
+
+    /**
+     * Persists the stored values.
+     *
+     * @throws GradlePluginsRuntimeException if the operation fails
+     */
+    abstract void doFlush();
 
     /**
      * Creates a new preference store based on Eclipse project-scoped preferences.
@@ -132,7 +167,7 @@ abstract class PreferenceStore {
         }
 
         @Override
-        void write(String key, String value) {
+        void doWrite(String key, String value) {
             if (value == null) {
                 this.preferences.remove(key);
             } else {
@@ -141,12 +176,7 @@ abstract class PreferenceStore {
         }
 
         @Override
-        void writeBoolean(String key, boolean value) {
-            this.preferences.putBoolean(key, value);
-        }
-
-        @Override
-        void flush() {
+        void doFlush() {
             try {
                 this.preferences.flush();
             } catch (Exception e) {
@@ -208,7 +238,7 @@ abstract class PreferenceStore {
         }
 
         @Override
-        void write(String key, String value) {
+        void doWrite(String key, String value) {
             if (value == null) {
                 getProperties().remove(key);
             } else {
@@ -217,12 +247,7 @@ abstract class PreferenceStore {
         }
 
         @Override
-        void writeBoolean(String key, boolean value) {
-            getProperties().put(key, String.valueOf(value));
-        }
-
-        @Override
-        void flush() {
+        void doFlush() {
             OutputStreamWriter writer = null;
             try {
                 if (!this.propertiesFile.exists()) {
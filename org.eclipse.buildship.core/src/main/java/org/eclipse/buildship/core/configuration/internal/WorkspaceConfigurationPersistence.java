@@ -13,6 +13,7 @@ import java.io.File;
 import org.osgi.service.prefs.BackingStoreException;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
 
 import com.gradleware.tooling.toolingclient.GradleDistribution;
 
@@ -37,6 +38,7 @@ public final class WorkspaceConfigurationPersistence {
     private static final String GRADLE_OFFLINE_MODE = "gradle.offline.mode";
     private static final String GRADLE_BUILD_SCANS = "gradle.build.scans";
     private static final String GRADLE_AUTO_SYNC = "auto.sync";
+    private static final ImmutableSet<String> KEYS = ImmutableSet.of(GRADLE_DISTRIBUTION, GRADLE_USER_HOME, GRADLE_OFFLINE_MODE, GRADLE_BUILD_SCANS, GRADLE_AUTO_SYNC);
 
     public WorkspaceConfiguration readWorkspaceConfig() {
         IEclipsePreferences preferences = getPreferences();
@@ -74,6 +76,16 @@ public final class WorkspaceConfigurationPersistence {
         }
     }
 
+    /**
+     * Returns whether the preference key is part of the persisted workspace configuration.
+     *
+     * @param key the key of the preference in the instance scope
+     * @return {@code true} if the workspace configuration depends on the preference
+     */
+    public static boolean isWorkspaceConfigurationKey(String key) {
+        return KEYS.contains(key);
+    }
+
     private IEclipsePreferences getPreferences() {
         return InstanceScope.INSTANCE.getNode(CorePlugin.PLUGIN_ID);
     }
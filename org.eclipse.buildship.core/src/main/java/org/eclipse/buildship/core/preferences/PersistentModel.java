@@ -32,6 +32,13 @@ public interface PersistentModel {
 
     Collection<IPath> getSubprojectPaths();
 
+    /**
+     * Returns the stored content of the Gradle classpath container.
+     *
+     * @return the classpath entries or {@code null} if the stored classpath cannot be read; in that
+     *         case the classpath has to be loaded again by a synchronization
+     * @throws IllegalStateException if the model is not {@link #isPresent() present}
+     */
     List<IClasspathEntry> getClasspath();
 
     Collection<IPath> getDerivedResources();
@@ -41,4 +48,6 @@ public interface PersistentModel {
     List<String> getManagedNatures();
 
     List<ICommand> getManagedBuilders();
+
+    String getModelFingerprint();
 }
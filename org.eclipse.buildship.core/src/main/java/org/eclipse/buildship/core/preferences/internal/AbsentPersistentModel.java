@@ -82,4 +82,9 @@ public final class AbsentPersistentModel implements PersistentModel {
     public List<ICommand> getManagedBuilders() {
         throw new IllegalStateException("Absent persistent model");
     }
+
+    @Override
+    public String getModelFingerprint() {
+        throw new IllegalStateException("Absent persistent model");
+    }
 }
@@ -8,45 +8,74 @@
 
 package org.eclipse.buildship.core.preferences.internal;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.StringWriter;
+import java.io.StringReader;
 import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-
-import com.google.common.base.Charsets;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IAccessRule;
+import org.eclipse.jdt.core.IClasspathAttribute;
 import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
 
 import org.eclipse.buildship.core.CorePlugin;
 
 /**
  * Transforms classpath entries to XML format and vica versa.
+ * <p/>
+ * The XML format is the one of {@link IJavaProject#encodeClasspathEntry(IClasspathEntry)}. The
+ * entries are read in a single pass with a StAX reader created by a shared factory, and they are
+ * created directly with the {@link JavaCore} factory methods, resolving the paths in the same way as
+ * {@link IJavaProject#decodeClasspathEntry(String)}. Comments, CDATA sections and namespace prefixes
+ * are handled by the XML parser, and unknown elements are skipped. Output entries are not supported,
+ * as they never appear in a persisted classpath.
  */
 final class ClasspathConverter {
 
+    private static final String TAG_CLASSPATH = "classpath";
+    private static final String TAG_CLASSPATH_ENTRY = "classpathentry";
+    private static final String TAG_ATTRIBUTES = "attributes";
+    private static final String TAG_ATTRIBUTE = "attribute";
+    private static final String TAG_ACCESS_RULES = "accessrules";
+    private static final String TAG_ACCESS_RULE = "accessrule";
+
+    private static final String ATTRIBUTE_KIND = "kind";
+    private static final String ATTRIBUTE_PATH = "path";
+    private static final String ATTRIBUTE_SOURCE_PATH = "sourcepath";
+    private static final String ATTRIBUTE_ROOT_PATH = "rootpath";
+    private static final String ATTRIBUTE_OUTPUT = "output";
+    private static final String ATTRIBUTE_EXPORTED = "exported";
+    private static final String ATTRIBUTE_INCLUDING = "including";
+    private static final String ATTRIBUTE_EXCLUDING = "excluding";
+    private static final String ATTRIBUTE_COMBINE_ACCESS_RULES = "combineaccessrules";
+    private static final String ATTRIBUTE_NAME = "name";
+    private static final String ATTRIBUTE_VALUE = "value";
+    private static final String ATTRIBUTE_PATTERN = "pattern";
+    private static final String ATTRIBUTE_IGNORE_IF_BETTER = "ignoreifbetter";
+
+    private static final Splitter PATTERN_SPLITTER = Splitter.on('|').omitEmptyStrings();
+
+    // the factory is configured once and only used to create readers
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
     private final IJavaProject javaProject;
+    private final IPath projectPath;
 
     private ClasspathConverter(IJavaProject javaProject) {
         this.javaProject = Preconditions.checkNotNull(javaProject);
+        this.projectPath = javaProject.getProject().getFullPath();
     }
 
     public String toXml(List<IClasspathEntry> classpath) {
@@ -62,48 +91,194 @@ final class ClasspathConverter {
 
     public List<IClasspathEntry> toEntries(String classpath) {
         try {
-            Element classpathNode = readClasspathNode(classpath);
-            return readEntriesFromClasspathNode(classpathNode);
+            return readEntries(classpath);
         } catch (Exception e) {
             CorePlugin.logger().error(String.format("Could not read persisted classpath for project %s.", this.javaProject.getProject().getName()), e);
             return null;
         }
     }
 
-    private Element readClasspathNode(String classpath) throws IOException, ParserConfigurationException, SAXException {
-        DocumentBuilder parser = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-        Element classpathNode = parser.parse(new InputSource(new ByteArrayInputStream(classpath.getBytes(Charsets.UTF_8)))).getDocumentElement();
-        if (!classpathNode.getNodeName().equalsIgnoreCase("classpath")) {
-            throw new IllegalStateException("Classpath file does not contain a <classpath> element.");
+    private List<IClasspathEntry> readEntries(String classpath) throws XMLStreamException {
+        XMLStreamReader reader = createXmlStreamReader(classpath);
+        try {
+            if (nextTag(reader) != XMLStreamConstants.START_ELEMENT || !TAG_CLASSPATH.equals(reader.getLocalName())) {
+                throw new IllegalStateException("Classpath file does not contain a <classpath> element.");
+            }
+
+            List<IClasspathEntry> entries = Lists.newArrayList();
+            while (nextTag(reader) == XMLStreamConstants.START_ELEMENT) {
+                if (TAG_CLASSPATH_ENTRY.equals(reader.getLocalName())) {
+                    entries.add(readEntry(reader));
+                } else {
+                    skipElement(reader);
+                }
+            }
+            return entries;
+        } finally {
+            reader.close();
         }
-        return classpathNode;
     }
 
-    private List<IClasspathEntry> readEntriesFromClasspathNode(Element classpathNode) throws TransformerException {
-        List<IClasspathEntry> entries = Lists.newArrayList();
-        NodeList domEntries = classpathNode.getElementsByTagName("classpathentry");
-        Transformer identity = TransformerFactory.newInstance().newTransformer();
-        identity.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-        identity.setOutputProperty(OutputKeys.INDENT, "yes");
-        for (int i = 0; i < domEntries.getLength(); i++) {
-            Node domEntry = domEntries.item(i);
-            if (domEntry.getNodeType() == Node.ELEMENT_NODE) {
-                String rawEntry = transformNodeToString(domEntry, identity);
-                IClasspathEntry entry = this.javaProject.decodeClasspathEntry(rawEntry);
-                if (entry == null) {
-                    throw new IllegalStateException(String.format("Could not parse classpath entry %s.", rawEntry));
-                } else {
-                    entries.add(entry);
+    private IClasspathEntry readEntry(XMLStreamReader reader) throws XMLStreamException {
+        Map<String, String> attributes = Maps.newHashMap();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            attributes.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+        }
+
+        List<IClasspathAttribute> extraAttributes = Lists.newArrayList();
+        List<IAccessRule> accessRules = null;
+        while (nextTag(reader) == XMLStreamConstants.START_ELEMENT) {
+            if (TAG_ATTRIBUTES.equals(reader.getLocalName())) {
+                readExtraAttributes(reader, extraAttributes);
+            } else if (TAG_ACCESS_RULES.equals(reader.getLocalName())) {
+                accessRules = Lists.newArrayList();
+                readAccessRules(reader, accessRules);
+            } else {
+                skipElement(reader);
+            }
+        }
+
+        return createEntry(attributes, accessRules, extraAttributes);
+    }
+
+    private static void readExtraAttributes(XMLStreamReader reader, List<IClasspathAttribute> result) throws XMLStreamException {
+        while (nextTag(reader) == XMLStreamConstants.START_ELEMENT) {
+            if (TAG_ATTRIBUTE.equals(reader.getLocalName())) {
+                String name = reader.getAttributeValue(null, ATTRIBUTE_NAME);
+                String value = reader.getAttributeValue(null, ATTRIBUTE_VALUE);
+                if (name != null) {
+                    result.add(JavaCore.newClasspathAttribute(name, value == null ? "" : value));
                 }
             }
+            skipElement(reader);
+        }
+    }
+
+    private static void readAccessRules(XMLStreamReader reader, List<IAccessRule> result) throws XMLStreamException {
+        while (nextTag(reader) == XMLStreamConstants.START_ELEMENT) {
+            if (TAG_ACCESS_RULE.equals(reader.getLocalName())) {
+                String pattern = reader.getAttributeValue(null, ATTRIBUTE_PATTERN);
+                int kind = accessRuleKind(reader.getAttributeValue(null, ATTRIBUTE_KIND));
+                if (pattern != null && kind != -1) {
+                    if ("true".equals(reader.getAttributeValue(null, ATTRIBUTE_IGNORE_IF_BETTER))) {
+                        kind |= IAccessRule.IGNORE_IF_BETTER;
+                    }
+                    result.add(JavaCore.newAccessRule(new Path(pattern), kind));
+                }
+            }
+            skipElement(reader);
+        }
+    }
+
+    private IClasspathEntry createEntry(Map<String, String> attributes, List<IAccessRule> accessRuleList, List<IClasspathAttribute> extraAttributeList) {
+        String kind = attributes.get(ATTRIBUTE_KIND);
+        String pathAttribute = attributes.get(ATTRIBUTE_PATH);
+        if (kind == null || pathAttribute == null) {
+            throw new IllegalStateException(String.format("Classpath entry without kind or path: %s.", attributes));
+        }
+
+        boolean variableOrContainer = "var".equals(kind) || "con".equals(kind);
+        IPath path = new Path(pathAttribute);
+        if (!variableOrContainer && !path.isAbsolute() && !(path.segmentCount() > 0 && path.segment(0).equals(".."))) {
+            path = this.projectPath.append(path);
+        }
+
+        IPath sourceAttachmentPath = attributes.containsKey(ATTRIBUTE_SOURCE_PATH) ? new Path(attributes.get(ATTRIBUTE_SOURCE_PATH)) : null;
+        if (!"var".equals(kind) && sourceAttachmentPath != null && !sourceAttachmentPath.isAbsolute()) {
+            sourceAttachmentPath = this.projectPath.append(sourceAttachmentPath);
+        }
+        IPath sourceAttachmentRootPath = attributes.containsKey(ATTRIBUTE_ROOT_PATH) ? new Path(attributes.get(ATTRIBUTE_ROOT_PATH)) : null;
+        IPath outputLocation = attributes.containsKey(ATTRIBUTE_OUTPUT) ? this.projectPath.append(attributes.get(ATTRIBUTE_OUTPUT)) : null;
+        boolean exported = "true".equals(attributes.get(ATTRIBUTE_EXPORTED));
+        boolean combineAccessRules = !"false".equals(attributes.get(ATTRIBUTE_COMBINE_ACCESS_RULES));
+        IPath[] inclusionPatterns = patterns(attributes.get(ATTRIBUTE_INCLUDING));
+        IPath[] exclusionPatterns = patterns(attributes.get(ATTRIBUTE_EXCLUDING));
+        IAccessRule[] accessRules = accessRuleList == null ? null : accessRuleList.toArray(new IAccessRule[accessRuleList.size()]);
+        IClasspathAttribute[] extraAttributes = extraAttributeList.toArray(new IClasspathAttribute[extraAttributeList.size()]);
+
+        if ("lib".equals(kind)) {
+            return JavaCore.newLibraryEntry(path, sourceAttachmentPath, sourceAttachmentRootPath, accessRules, extraAttributes, exported);
+        } else if ("var".equals(kind)) {
+            return JavaCore.newVariableEntry(path, sourceAttachmentPath, sourceAttachmentRootPath, accessRules, extraAttributes, exported);
+        } else if ("con".equals(kind)) {
+            return JavaCore.newContainerEntry(path, accessRules, extraAttributes, exported);
+        } else if ("src".equals(kind)) {
+            // a single segment outside of this project denotes a project dependency
+            String projectSegment = path.segment(0);
+            if ((projectSegment == null || !projectSegment.equals(this.javaProject.getElementName())) && path.segmentCount() == 1) {
+                return JavaCore.newProjectEntry(path, accessRules, combineAccessRules, extraAttributes, exported);
+            } else {
+                return JavaCore.newSourceEntry(path, inclusionPatterns, exclusionPatterns, outputLocation, extraAttributes);
+            }
+        } else {
+            throw new IllegalStateException(String.format("Unsupported classpath entry kind %s.", kind));
+        }
+    }
+
+    private static IPath[] patterns(String value) {
+        if (value == null) {
+            return new IPath[0];
+        }
+        List<IPath> patterns = Lists.newArrayList();
+        for (String pattern : PATTERN_SPLITTER.split(value)) {
+            patterns.add(new Path(pattern));
+        }
+        return patterns.toArray(new IPath[patterns.size()]);
+    }
+
+    private static int accessRuleKind(String kind) {
+        if ("accessible".equals(kind)) {
+            return IAccessRule.K_ACCESSIBLE;
+        } else if ("nonaccessible".equals(kind)) {
+            return IAccessRule.K_NON_ACCESSIBLE;
+        } else if ("discouraged".equals(kind)) {
+            return IAccessRule.K_DISCOURAGED;
+        } else {
+            return -1;
+        }
+    }
+
+    /**
+     * Advances to the next start or end tag, skipping text, comments and other content.
+     *
+     * @return the event type of the tag or {@code END_DOCUMENT}
+     */
+    private static int nextTag(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT || event == XMLStreamConstants.END_ELEMENT) {
+                return event;
+            }
         }
-        return entries;
+        return XMLStreamConstants.END_DOCUMENT;
     }
 
-    private String transformNodeToString(Node node, Transformer transformer) throws TransformerException {
-        StringWriter writer = new StringWriter();
-        transformer.transform(new DOMSource(node), new StreamResult(writer));
-        return writer.toString();
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = nextTag(reader);
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else {
+                throw new IllegalStateException("Unexpected end of the classpath file.");
+            }
+        }
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+
+    private static XMLStreamReader createXmlStreamReader(String classpath) throws XMLStreamException {
+        // the factory is not guaranteed to be thread-safe, but the created readers are independent
+        synchronized (XML_INPUT_FACTORY) {
+            return XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(classpath));
+        }
     }
 
     static String toXml(IJavaProject javaProject, List<IClasspathEntry> classpath) {
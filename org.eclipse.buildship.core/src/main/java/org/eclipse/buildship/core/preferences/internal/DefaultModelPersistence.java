@@ -10,52 +10,73 @@ package org.eclipse.buildship.core.preferences.internal;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
 import java.io.Reader;
-import java.io.Writer;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Properties;
-import java.util.concurrent.ExecutionException;
-
-import org.gradle.internal.UncheckedException;
+import java.util.Set;
 
 import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
-import com.google.common.io.Files;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
 
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.buildship.core.CorePlugin;
-import org.eclipse.buildship.core.configuration.GradleProjectNature;
+import org.eclipse.buildship.core.GradlePluginsRuntimeException;
 import org.eclipse.buildship.core.event.Event;
 import org.eclipse.buildship.core.event.EventListener;
 import org.eclipse.buildship.core.preferences.ModelPersistence;
 import org.eclipse.buildship.core.preferences.PersistentModel;
 import org.eclipse.buildship.core.workspace.ProjectDeletedEvent;
 import org.eclipse.buildship.core.workspace.ProjectMovedEvent;
+import org.eclipse.buildship.core.workspace.ProjectsInUseEvent;
 import org.eclipse.buildship.core.workspace.WorkbenchShutdownEvent;
 
 /**
  * Default implementation for {@link MutablePersistentModel}.
+ * <p/>
+ * The models of all projects are stored in a single {@link ModelStore}. Saved models are kept in
+ * memory and written to the store in batches by a background job, shortly after they were saved.
+ * Every batch is forced to the storage device, so a crash loses at most the models saved since the
+ * last batch. A model which cannot be written is retried by the next batch or at shutdown. When
+ * superseded models take up more space than the live ones, the batch also compacts the store. When
+ * the workbench shuts down only the remaining modified models are written.
+ * <p/>
+ * Upon the first start the models are migrated from the per-project properties files used by
+ * previous versions. A marker file records the completed migration, so an interrupted migration is
+ * finished upon the next start without overwriting the models already stored. After the startup
+ * the models are loaded in the background by the {@link ModelPrefetchJob}, starting with the
+ * projects reported in a {@link ProjectsInUseEvent}.
  *
  * @author Donat Csikos
  */
 public final class DefaultModelPersistence implements ModelPersistence, EventListener {
 
+    private static final String STORE_FILE_NAME = "persistent-models.bin";
+    private static final String LEGACY_PREFERENCES_FOLDER = "project-preferences";
+    private static final String MIGRATION_MARKER_FILE_NAME = "project-preferences.migrated";
+    private static final long FLUSH_DELAY = 2000;
+
+    // serializes the store updates of the flush job with the deletions and renames
+    private final Object lock = new Object();
+    private final ModelStore store;
+    private final FlushJob flushJob = new FlushJob();
     private final LoadingCache<IProject, PersistentModel> modelCache;
+    private final ModelPrefetchJob prefetchJob;
+    private final Set<IProject> modifiedProjects = Sets.newConcurrentHashSet();
 
-    private DefaultModelPersistence() {
+    private DefaultModelPersistence(ModelStore store) {
+        this.store = Preconditions.checkNotNull(store);
         this.modelCache = CacheBuilder.newBuilder().build(new CacheLoader<IProject, PersistentModel>() {
 
             @Override
@@ -63,6 +84,7 @@ public final class DefaultModelPersistence implements ModelPersistence, EventLis
                 return doLoadModel(project);
             }
         });
+        this.prefetchJob = new ModelPrefetchJob(this.modelCache);
     }
 
     @Override
@@ -73,42 +95,58 @@ public final class DefaultModelPersistence implements ModelPersistence, EventLis
     @Override
     public void saveModel(PersistentModel model) {
         this.modelCache.put(model.getProject(), model);
+        this.modifiedProjects.add(model.getProject());
+
+        // a sleeping job is not postponed, a running job is scheduled again after it finishes
+        this.flushJob.schedule(FLUSH_DELAY);
     }
 
     @Override
     public void deleteModel(IProject project) {
-        preferencesFile(project).delete();
-        this.modelCache.invalidate(project);
+        synchronized (this.lock) {
+            this.modifiedProjects.remove(project);
+            this.modelCache.invalidate(project);
+            try {
+                this.store.delete(project.getName());
+            } catch (IOException e) {
+                CorePlugin.logger().warn("Can't delete persistent model for project " + project.getName(), e);
+            }
+        }
     }
 
     @Override
     public void onEvent(Event event) {
         try {
             if (event instanceof ProjectMovedEvent) {
-                movePreferencesFile((ProjectMovedEvent) event);
+                moveModel((ProjectMovedEvent) event);
             } else if (event instanceof ProjectDeletedEvent) {
                 deleteProjectPreferences((ProjectDeletedEvent) event);
+            } else if (event instanceof ProjectsInUseEvent) {
+                this.prefetchJob.prioritize(((ProjectsInUseEvent) event).getProjects());
             } else if (event instanceof WorkbenchShutdownEvent) {
+                this.flushJob.cancel();
                 persistAllProjectPrefs();
             }
         } catch (IOException e) {
-            throw new UncheckedException(e);
+            throw new GradlePluginsRuntimeException(e);
         }
     }
 
-    private void movePreferencesFile(ProjectMovedEvent event) throws IOException {
+    private void moveModel(ProjectMovedEvent event) throws IOException {
         String previousName = event.getPreviousName();
-        for (IProject cached : this.modelCache.asMap().keySet()) {
-            if (cached.getName().equals(previousName)) {
-                PersistentModel model = this.modelCache.getUnchecked(cached);
-                this.modelCache.put(event.getProject(), model);
-                this.modelCache.invalidate(cached);
+        synchronized (this.lock) {
+            for (IProject cached : this.modelCache.asMap().keySet()) {
+                if (cached.getName().equals(previousName)) {
+                    PersistentModel model = this.modelCache.getUnchecked(cached);
+                    this.modelCache.put(event.getProject(), model);
+                    this.modelCache.invalidate(cached);
+                    if (this.modifiedProjects.remove(cached)) {
+                        this.modifiedProjects.add(event.getProject());
+                    }
+                }
             }
-        }
 
-        File preferencesFile = preferencesFile(event.getPreviousName());
-        if (preferencesFile.exists()) {
-            Files.move(preferencesFile, preferencesFile(event.getProject().getName()));
+            this.store.rename(previousName, event.getProject().getName());
         }
     }
 
@@ -116,90 +154,169 @@ public final class DefaultModelPersistence implements ModelPersistence, EventLis
         deleteModel(event.getProject());
     }
 
-    private static PersistentModel doLoadModel(IProject project) throws IOException, FileNotFoundException {
-        String projectName = project.getName();
-        File preferencesFile = preferencesFile(projectName);
-        if (preferencesFile.exists()) {
-            try (Reader reader = new InputStreamReader(new FileInputStream(preferencesFile(projectName)), Charsets.UTF_8)) {
-                Properties props = new Properties();
-                props.load(reader);
-                return PersistentModelConverter.toModel(project, props);
-            }
-        } else {
-            return new AbsentPersistentModel(project);
-        }
+    private PersistentModel doLoadModel(IProject project) throws IOException {
+        Properties props = this.store.read(project.getName());
+        return props != null ? PersistentModelConverter.toModel(project, props) : new AbsentPersistentModel(project);
     }
 
     private void persistAllProjectPrefs() {
-        Map<IProject, PersistentModel> modelCacheMap = this.modelCache.asMap();
-        for (Entry<IProject, PersistentModel> entry : modelCacheMap.entrySet()) {
-            PersistentModel model = entry.getValue();
-            if (model.isPresent()) {
-                persistPrefs(entry.getKey(), model);
+        for (IProject project : ImmutableList.copyOf(this.modifiedProjects)) {
+            synchronized (this.lock) {
+                // a model saved after the removal is written by the next batch
+                if (this.modifiedProjects.remove(project)) {
+                    PersistentModel model = this.modelCache.getIfPresent(project);
+                    if (model != null && model.isPresent()) {
+                        persistPrefs(project, model);
+                    }
+                }
             }
         }
+
+        try {
+            this.store.flush();
+        } catch (IOException e) {
+            CorePlugin.logger().warn("Can't flush persistent models", e);
+        }
+        try {
+            this.store.compactIfNeeded();
+        } catch (IOException e) {
+            CorePlugin.logger().warn("Can't compact persistent model store", e);
+        }
     }
 
-    private static void persistPrefs(IProject project, PersistentModel model) {
+    private void persistPrefs(IProject project, PersistentModel model) {
         try {
-            persistPrefsChecked(project, model);
+            this.store.write(project.getName(), PersistentModelConverter.toProperties(model));
         } catch (IOException e) {
+            // written by the next batch or at shutdown
+            this.modifiedProjects.add(project);
             CorePlugin.logger().warn("Can't save persistent model for project " + project.getName(), e);
         }
     }
 
-    private static void persistPrefsChecked(IProject project, PersistentModel model) throws IOException {
-        File preferencesFile = preferencesFile(project);
+    public static DefaultModelPersistence createAndRegister() {
+        ModelStore store = openStore(stateLocation().append(STORE_FILE_NAME).toFile());
+        migrateLegacyPreferences(store);
+        DefaultModelPersistence persistence = new DefaultModelPersistence(store);
+        CorePlugin.listenerRegistry().addEventListener(persistence);
+        persistence.prefetchJob.schedule();
+        return persistence;
+    }
+
+    /**
+     * Creates a persistence backed by the given store file, without listening to workspace events.
+     *
+     * @param storeFile the location of the store
+     * @return the new persistence
+     */
+    static DefaultModelPersistence create(File storeFile) {
+        return new DefaultModelPersistence(openStore(storeFile));
+    }
 
-        if (!preferencesFile.exists()) {
-            Files.createParentDirs(preferencesFile);
-            Files.touch(preferencesFile);
+    private static ModelStore openStore(File storeFile) {
+        ModelStore store;
+        try {
+            store = ModelStore.open(storeFile);
+        } catch (IOException e) {
+            // the models are recreated by the next synchronization
+            CorePlugin.logger().warn("Can't open persistent model store, discarding stored models", e);
+            storeFile.delete();
+            try {
+                store = ModelStore.open(storeFile);
+            } catch (IOException e2) {
+                throw new GradlePluginsRuntimeException(e2);
+            }
         }
+        return store;
+    }
 
-        Properties props = PersistentModelConverter.toProperties(model);
+    private static void migrateLegacyPreferences(ModelStore store) {
+        File legacyFolder = stateLocation().append(LEGACY_PREFERENCES_FOLDER).toFile();
+        File marker = stateLocation().append(MIGRATION_MARKER_FILE_NAME).toFile();
+        File[] legacyFiles = legacyFolder.listFiles();
+        if (legacyFiles == null) {
+            marker.delete();
+            return;
+        }
 
-        try (Writer writer = new OutputStreamWriter(new FileOutputStream(preferencesFile), Charsets.UTF_8)) {
-            props.store(writer, "");
+        if (!marker.exists()) {
+            // the models stored by a previous, interrupted migration can be newer than the legacy files
+            Set<String> storedNames = store.getNames();
+            for (File legacyFile : legacyFiles) {
+                if (storedNames.contains(legacyFile.getName())) {
+                    continue;
+                }
+                try (Reader reader = new InputStreamReader(new FileInputStream(legacyFile), Charsets.UTF_8)) {
+                    Properties props = new Properties();
+                    props.load(reader);
+                    store.write(legacyFile.getName(), props);
+                } catch (IOException e) {
+                    CorePlugin.logger().warn("Can't migrate persistent model from " + legacyFile.getAbsolutePath(), e);
+                }
+            }
+
+            try {
+                store.flush();
+                marker.createNewFile();
+            } catch (IOException e) {
+                CorePlugin.logger().warn("Can't complete the migration of the persistent models", e);
+                return;
+            }
         }
-    }
 
-    private static File preferencesFile(IProject project) {
-        return preferencesFile(project.getName());
+        for (File legacyFile : legacyFiles) {
+            legacyFile.delete();
+        }
+        if (legacyFolder.delete()) {
+            marker.delete();
+        }
     }
 
-    private static File preferencesFile(String projectName) {
-        return CorePlugin.getInstance().getStateLocation().append("project-preferences").append(projectName).toFile();
+    private static IPath stateLocation() {
+        return CorePlugin.getInstance().getStateLocation();
     }
 
-    public static DefaultModelPersistence createAndRegister() {
-        DefaultModelPersistence persistence = new DefaultModelPersistence();
-        CorePlugin.listenerRegistry().addEventListener(persistence);
-        persistence.prefetchCacheAsync();
-        return persistence;
-    }
+    /**
+     * Writes the modified models to the store in the background.
+     */
+    private final class FlushJob extends Job {
+
+        FlushJob() {
+            super("Persist Gradle project models");
+            setSystem(true);
+        }
 
-    private void prefetchCacheAsync() {
-        Job job = new Job("Load persistent model for all projects") {
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            persistAllProjectPrefs();
+            return Status.OK_STATUS;
+        }
 
-            @Override
-            protected IStatus run(IProgressMonitor monitor) {
-                for (IProject project : CorePlugin.workspaceOperations().getAllProjects()) {
-                    if (GradleProjectNature.isPresentOn(project)) {
-                        try {
-                            DefaultModelPersistence.this.modelCache.get(project);
-                        } catch (ExecutionException e) {
-                            CorePlugin.logger().warn("Can't load persistent model for project " + project.getName(), e);
-                        }
-                    }
-                }
-                return Status.OK_STATUS;
-            }
-        };
-        job.setSystem(true);
-        job.schedule();
+        @Override
+        public boolean belongsTo(Object family) {
+            return family == DefaultModelPersistence.this;
+        }
     }
 
     public void close() {
         CorePlugin.listenerRegistry().removeEventListener(this);
+        this.prefetchJob.cancel();
+        this.flushJob.cancel();
+        try {
+            this.prefetchJob.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            this.flushJob.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        persistAllProjectPrefs();
+        try {
+            this.store.close();
+        } catch (IOException e) {
+            CorePlugin.logger().warn("Can't close persistent model store", e);
+        }
     }
 }
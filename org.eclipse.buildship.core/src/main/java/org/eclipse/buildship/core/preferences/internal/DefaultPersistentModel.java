@@ -38,11 +38,12 @@ public final class DefaultPersistentModel implements PersistentModel {
     private final Collection<IPath> linkedResources;
     private final List<String> managedNatures;
     private final List<ICommand> managedBuilders;
+    private final String modelFingerprint;
 
     public DefaultPersistentModel(IProject project, IPath buildDir, IPath buildScriptPath,
                                   Collection<IPath> subprojectPaths, List<IClasspathEntry> classpath,
                                   Collection<IPath> derivedResources, Collection<IPath> linkedResources,
-                                  Collection<String> managedNatures, Collection<ICommand> managedBuilders) {
+                                  Collection<String> managedNatures, Collection<ICommand> managedBuilders, String modelFingerprint) {
         this.project = Preconditions.checkNotNull(project);
         this.buildDir = Preconditions.checkNotNull(buildDir);
         this.buildScriptPath = Preconditions.checkNotNull(buildScriptPath);
@@ -52,6 +53,7 @@ public final class DefaultPersistentModel implements PersistentModel {
         this.linkedResources = ImmutableList.copyOf(linkedResources);
         this.managedNatures = ImmutableList.copyOf(managedNatures);
         this.managedBuilders = ImmutableList.copyOf(managedBuilders);
+        this.modelFingerprint = Preconditions.checkNotNull(modelFingerprint);
     }
 
     @Override
@@ -104,6 +106,11 @@ public final class DefaultPersistentModel implements PersistentModel {
         return this.managedBuilders;
     }
 
+    @Override
+    public String getModelFingerprint() {
+        return this.modelFingerprint;
+    }
+
     @Override
     public boolean equals(final Object obj) {
         if (!(obj instanceof DefaultPersistentModel)) {
@@ -117,12 +124,13 @@ public final class DefaultPersistentModel implements PersistentModel {
                 && Objects.equal(this.derivedResources, that.derivedResources)
                 && Objects.equal(this.linkedResources, that.linkedResources)
                 && Objects.equal(this.managedNatures, that.managedNatures)
-                && Objects.equal(this.managedBuilders, that.managedBuilders);
+                && Objects.equal(this.managedBuilders, that.managedBuilders)
+                && Objects.equal(this.modelFingerprint, that.modelFingerprint);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(this.project, this.buildDir, this.subprojectPaths, this.classpath, this.derivedResources, this.linkedResources, this.managedNatures, this.managedBuilders);
+        return Objects.hashCode(this.project, this.buildDir, this.subprojectPaths, this.classpath, this.derivedResources, this.linkedResources, this.managedNatures, this.managedBuilders, this.modelFingerprint);
     }
 
 }
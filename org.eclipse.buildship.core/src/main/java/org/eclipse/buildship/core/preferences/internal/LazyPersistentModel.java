@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.preferences.internal;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+
+import com.google.common.base.Preconditions;
+
+import org.eclipse.core.resources.ICommand;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.IClasspathEntry;
+
+import org.eclipse.buildship.core.preferences.PersistentModel;
+
+/**
+ * PersistentModel implementation backed by the properties read from the model store.
+ * <p/>
+ * The properties are decoded field by field upon the first access and the result is kept for the
+ * subsequent calls. This way the classpath and the build commands of a project are only parsed if
+ * they are actually requested. Once a field is decoded, its raw value is removed from the
+ * properties, so the encoded and the decoded form are not retained together.
+ * <p/>
+ * If the stored classpath cannot be read, then {@link #getClasspath()} returns {@code null}.
+ *
+ * @author Donat Csikos
+ */
+final class LazyPersistentModel implements PersistentModel {
+
+    private final Object lock = new Object();
+    private final IProject project;
+    private final Properties properties;
+
+    private IPath buildDir;
+    private IPath buildScriptPath;
+    private Collection<IPath> subprojectPaths;
+    private List<IClasspathEntry> classpath;
+    private boolean classpathDecoded;
+    private Collection<IPath> derivedResources;
+    private Collection<IPath> linkedResources;
+    private List<String> managedNatures;
+    private List<ICommand> managedBuilders;
+    private String modelFingerprint;
+
+    LazyPersistentModel(IProject project, Properties properties) {
+        this.project = Preconditions.checkNotNull(project);
+        this.properties = Preconditions.checkNotNull(properties);
+    }
+
+    @Override
+    public boolean isPresent() {
+        return true;
+    }
+
+    @Override
+    public IProject getProject() {
+        return this.project;
+    }
+
+    @Override
+    public IPath getBuildDir() {
+        synchronized (this.lock) {
+            if (this.buildDir == null) {
+                this.buildDir = PersistentModelConverter.loadBuildDir(this.properties);
+                this.properties.remove(PersistentModelConverter.PROPERTY_BUILD_DIR);
+            }
+            return this.buildDir;
+        }
+    }
+
+    @Override
+    public IPath getbuildScriptPath() {
+        synchronized (this.lock) {
+            if (this.buildScriptPath == null) {
+                this.buildScriptPath = PersistentModelConverter.loadBuildScriptPath(this.properties);
+                this.properties.remove(PersistentModelConverter.PROPERTY_BUILD_SCRIPT_PATH);
+            }
+            return this.buildScriptPath;
+        }
+    }
+
+    @Override
+    public Collection<IPath> getSubprojectPaths() {
+        synchronized (this.lock) {
+            if (this.subprojectPaths == null) {
+                this.subprojectPaths = PersistentModelConverter.loadSubprojectPaths(this.properties);
+                this.properties.remove(PersistentModelConverter.PROPERTY_SUBPROJECTS);
+            }
+            return this.subprojectPaths;
+        }
+    }
+
+    @Override
+    public List<IClasspathEntry> getClasspath() {
+        synchronized (this.lock) {
+            if (!this.classpathDecoded) {
+                this.classpath = PersistentModelConverter.loadClasspath(this.project, this.properties);
+                this.classpathDecoded = true;
+                this.properties.remove(PersistentModelConverter.PROPERTY_CLASSPATH);
+            }
+            return this.classpath;
+        }
+    }
+
+    @Override
+    public Collection<IPath> getDerivedResources() {
+        synchronized (this.lock) {
+            if (this.derivedResources == null) {
+                this.derivedResources = PersistentModelConverter.loadDerivedResources(this.properties);
+                this.properties.remove(PersistentModelConverter.PROPERTY_DERIVED_RESOURCES);
+            }
+            return this.derivedResources;
+        }
+    }
+
+    @Override
+    public Collection<IPath> getLinkedResources() {
+        synchronized (this.lock) {
+            if (this.linkedResources == null) {
+                this.linkedResources = PersistentModelConverter.loadLinkedResources(this.properties);
+                this.properties.remove(PersistentModelConverter.PROPERTY_LINKED_RESOURCES);
+            }
+            return this.linkedResources;
+        }
+    }
+
+    @Override
+    public List<String> getManagedNatures() {
+        synchronized (this.lock) {
+            if (this.managedNatures == null) {
+                this.managedNatures = PersistentModelConverter.loadManagedNatures(this.properties);
+                this.properties.remove(PersistentModelConverter.PROPERTY_MANAGED_NATURES);
+            }
+            return this.managedNatures;
+        }
+    }
+
+    @Override
+    public List<ICommand> getManagedBuilders() {
+        synchronized (this.lock) {
+            if (this.managedBuilders == null) {
+                this.managedBuilders = PersistentModelConverter.loadManagedBuilders(this.project, this.properties);
+                this.properties.remove(PersistentModelConverter.PROPERTY_MANAGED_BUILDERS);
+            }
+            return this.managedBuilders;
+        }
+    }
+
+    @Override
+    public String getModelFingerprint() {
+        synchronized (this.lock) {
+            if (this.modelFingerprint == null) {
+                this.modelFingerprint = PersistentModelConverter.loadModelFingerprint(this.properties);
+                this.properties.remove(PersistentModelConverter.PROPERTY_MODEL_FINGERPRINT);
+            }
+            return this.modelFingerprint;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.preferences.internal;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.configuration.GradleProjectNature;
+import org.eclipse.buildship.core.preferences.PersistentModel;
+
+/**
+ * Loads the persistent models of all Gradle projects into the model cache after the startup.
+ * <p/>
+ * The models are loaded by a small pool of threads. The store serializes only the reading of the raw
+ * records; each worker decodes its record and the classpath of the model, the most expensive part
+ * of it, in parallel with the others. The projects reported via {@link #prioritize(List)}, e.g.
+ * the projects of the open editors, are loaded first, the remaining ones in workspace order. The
+ * report can arrive after the job started, in which case only the models still waiting in the queue
+ * are reordered. This delay only affects the loading order: a model requested while it is still
+ * waiting in the queue is loaded by the requesting thread through the cache, the prefetch skips it
+ * afterwards.
+ *
+ * @author Donat Csikos
+ */
+final class ModelPrefetchJob extends Job {
+
+    private static final int MAX_WORKERS = 4;
+
+    private final Object lock = new Object();
+    private final LoadingCache<IProject, PersistentModel> modelCache;
+    private final int maxWorkers;
+    private Set<IProject> pendingProjects = Sets.newLinkedHashSet();
+    private List<IProject> prioritizedProjects = ImmutableList.of();
+
+    ModelPrefetchJob(LoadingCache<IProject, PersistentModel> modelCache) {
+        this(modelCache, MAX_WORKERS);
+    }
+
+    ModelPrefetchJob(LoadingCache<IProject, PersistentModel> modelCache, int maxWorkers) {
+        super("Load persistent model for all projects");
+        this.modelCache = Preconditions.checkNotNull(modelCache);
+        this.maxWorkers = maxWorkers;
+        setSystem(true);
+    }
+
+    /**
+     * Moves the given projects to the front of the queue.
+     *
+     * @param projects the projects to load first, ordered by their importance
+     */
+    public void prioritize(List<IProject> projects) {
+        synchronized (this.lock) {
+            this.prioritizedProjects = ImmutableList.copyOf(projects);
+            this.pendingProjects = prioritizedOrder(this.pendingProjects, this.prioritizedProjects);
+        }
+    }
+
+    @Override
+    protected IStatus run(final IProgressMonitor monitor) {
+        Set<IProject> allProjects = Sets.newLinkedHashSet(CorePlugin.workspaceOperations().getAllProjects());
+        synchronized (this.lock) {
+            this.pendingProjects = prioritizedOrder(allProjects, this.prioritizedProjects);
+        }
+
+        int workerCount = Math.max(1, Math.min(this.maxWorkers, Math.min(Runtime.getRuntime().availableProcessors(), allProjects.size())));
+        ExecutorService executor = Executors.newFixedThreadPool(workerCount, new ThreadFactoryBuilder().setNameFormat("Persistent model loading %d").setDaemon(true).build());
+        try {
+            for (int i = 0; i < workerCount; i++) {
+                executor.execute(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        loadPendingModels(monitor);
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Status.OK_STATUS;
+    }
+
+    private void loadPendingModels(IProgressMonitor monitor) {
+        IProject project;
+        while (!monitor.isCanceled() && (project = nextPendingProject()) != null) {
+            // the models requested in the meantime are already loaded
+            if (this.modelCache.getIfPresent(project) == null && GradleProjectNature.isPresentOn(project)) {
+                try {
+                    PersistentModel model = this.modelCache.get(project);
+                    if (model.isPresent()) {
+                        // decode the classpath here instead of on the thread initializing the container
+                        model.getClasspath();
+                    }
+                } catch (ExecutionException e) {
+                    CorePlugin.logger().warn("Can't load persistent model for project " + project.getName(), e);
+                }
+            }
+        }
+    }
+
+    private IProject nextPendingProject() {
+        synchronized (this.lock) {
+            Iterator<IProject> iterator = this.pendingProjects.iterator();
+            if (!iterator.hasNext()) {
+                return null;
+            }
+            IProject project = iterator.next();
+            iterator.remove();
+            return project;
+        }
+    }
+
+    private static Set<IProject> prioritizedOrder(Collection<IProject> projects, List<IProject> prioritizedProjects) {
+        Set<IProject> result = Sets.newLinkedHashSet();
+        for (IProject project : prioritizedProjects) {
+            if (projects.contains(project)) {
+                result.add(project);
+            }
+        }
+        result.addAll(projects);
+        return result;
+    }
+}
@@ -0,0 +1,493 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.preferences.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+
+import org.eclipse.buildship.core.CorePlugin;
+
+/**
+ * Stores the persistent models of all projects in a single, versioned binary file.
+ * <p/>
+ * The file is an append-only log. After the header, which consists of a magic number and the
+ * format version, every record describes either the new state of a project or its deletion:
+ *
+ * <pre>
+ * record  := length:int crc32:int body
+ * body    := PUT name:string count:int (key:string value:string)* | DELETE name:string
+ * string  := length:int utf8-bytes
+ * </pre>
+ *
+ * Opening the store only reads the record headers and the project names to build an index of the
+ * latest record of each project. A record is decoded when the model of its project is first
+ * requested. The file is not memory-mapped, because a mapping cannot be released explicitly and
+ * would prevent replacing the file when it is compacted on some platforms.
+ * <p/>
+ * The checksum of the last record is verified upon opening: a truncated or partially written record
+ * at the end of the file, left behind by a crash during a write, is discarded. A malformed record
+ * elsewhere is skipped using its length prefix, and the checksums of all records following it are
+ * verified, because the corruption may also affect them. Only if the length prefix itself points
+ * beyond the end of the file is the rest of the file discarded, as the following records cannot be
+ * located anymore. If a skipped record superseded an older model of the same project, the older
+ * model is used until the next synchronization stores a new one. The checksums of the other records
+ * are verified when they are decoded; a corrupt record is dropped and treated as if no model was
+ * stored.
+ * <p/>
+ * If superseded records take up more space than the live ones, the store is compacted upon opening
+ * and by {@link #compactIfNeeded()}: the live records are copied to a temporary file which then
+ * atomically replaces the store.
+ * <p/>
+ * All methods are thread-safe.
+ *
+ * @author Donat Csikos
+ */
+final class ModelStore {
+
+    private static final int MAGIC = 0x4253504D;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final long MIN_COMPACTION_SIZE = 64 * 1024;
+
+    private final Object lock = new Object();
+    private final File file;
+    private final Map<String, Record> index;
+    private RandomAccessFile raf;
+    private FileChannel channel;
+    private long garbageBytes;
+
+    private ModelStore(File file, RandomAccessFile raf, Map<String, Record> index, long garbageBytes) {
+        this.file = Preconditions.checkNotNull(file);
+        this.raf = raf;
+        this.channel = raf.getChannel();
+        this.index = index;
+        this.garbageBytes = garbageBytes;
+    }
+
+    /**
+     * Returns the names of the projects having a stored model.
+     *
+     * @return the project names
+     */
+    public Set<String> getNames() {
+        synchronized (this.lock) {
+            return ImmutableSet.copyOf(this.index.keySet());
+        }
+    }
+
+    /**
+     * Reads and decodes the stored model of a project. Only the raw record is read while holding
+     * the lock of the store, the checksum verification and the decoding happen outside of it, so
+     * multiple threads can decode their records in parallel.
+     *
+     * @param name the name of the project
+     * @return the stored properties or {@code null} if there's no model stored for the project or
+     *         if the stored record is corrupt
+     * @throws IOException if the record cannot be read
+     */
+    public Properties read(String name) throws IOException {
+        Record record;
+        ByteBuffer rawRecord;
+        synchronized (this.lock) {
+            record = this.index.get(name);
+            if (record == null) {
+                return null;
+            }
+            rawRecord = readFully(this.channel, record.offset, (int) record.getSize());
+        }
+
+        ByteBuffer body = verifyBody(record, rawRecord);
+        Properties properties = body != null ? decodeProperties(body) : null;
+        if (properties == null) {
+            CorePlugin.logger().warn(String.format("Corrupt persistent model of project %s in %s, discarding it", name, this.file.getAbsolutePath()));
+            synchronized (this.lock) {
+                // a record written in the meantime is kept
+                if (this.index.get(name) == record) {
+                    this.index.remove(name);
+                    this.garbageBytes += record.getSize();
+                }
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Stores the model of a project, replacing the previously stored one.
+     *
+     * @param name the name of the project
+     * @param properties the model to store
+     * @throws IOException if the record cannot be written
+     */
+    public void write(String name, Properties properties) throws IOException {
+        byte[] body = encodePut(name, properties);
+        synchronized (this.lock) {
+            Record previous = this.index.put(name, append(body));
+            if (previous != null) {
+                this.garbageBytes += previous.getSize();
+            }
+        }
+    }
+
+    /**
+     * Removes the stored model of a project.
+     *
+     * @param name the name of the project
+     * @throws IOException if the deletion cannot be recorded
+     */
+    public void delete(String name) throws IOException {
+        synchronized (this.lock) {
+            Record previous = this.index.remove(name);
+            if (previous != null) {
+                Record tombstone = append(encodeDelete(name));
+                this.garbageBytes += previous.getSize() + tombstone.getSize();
+            }
+        }
+    }
+
+    /**
+     * Moves the stored model of a project to a new project name.
+     *
+     * @param oldName the previous name of the project
+     * @param newName the new name of the project
+     * @throws IOException if the model cannot be moved
+     */
+    public void rename(String oldName, String newName) throws IOException {
+        synchronized (this.lock) {
+            Properties properties = read(oldName);
+            if (properties != null) {
+                write(newName, properties);
+                delete(oldName);
+            }
+        }
+    }
+
+    /**
+     * Forces the appended records to the storage device.
+     *
+     * @throws IOException if the file cannot be synchronized
+     */
+    public void flush() throws IOException {
+        synchronized (this.lock) {
+            this.channel.force(false);
+        }
+    }
+
+    /**
+     * Compacts the store if the superseded records take up more space than the live ones.
+     *
+     * @return {@code true} if the store was compacted
+     * @throws IOException if the store cannot be compacted
+     */
+    public boolean compactIfNeeded() throws IOException {
+        synchronized (this.lock) {
+            if (!isCompactionNeeded(this.garbageBytes, this.channel.size())) {
+                return false;
+            }
+
+            this.raf.close();
+            try {
+                compact(this.file, this.index);
+            } finally {
+                // if the compaction failed, the original file is still in place
+                this.raf = new RandomAccessFile(this.file, "rw");
+                this.channel = this.raf.getChannel();
+                this.index.clear();
+                this.garbageBytes = scan(this.channel, this.index);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Closes the underlying file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    public void close() throws IOException {
+        synchronized (this.lock) {
+            this.raf.close();
+        }
+    }
+
+    /**
+     * Returns the number of bytes occupied by superseded records.
+     *
+     * @return the garbage size
+     */
+    long getGarbageSize() {
+        synchronized (this.lock) {
+            return this.garbageBytes;
+        }
+    }
+
+    // returns the body of the record or null if its checksum doesn't match
+    private static ByteBuffer verifyBody(Record record, ByteBuffer view) {
+        int length = view.getInt();
+        int checksum = view.getInt();
+        if (length != record.length) {
+            return null;
+        }
+        ByteBuffer body = view.slice();
+        return checksum == crc(body.duplicate()) ? body : null;
+    }
+
+    private Record append(byte[] body) throws IOException {
+        long offset = this.channel.size();
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + body.length);
+        record.putInt(body.length);
+        record.putInt(crc(ByteBuffer.wrap(body)));
+        record.put(body);
+        record.flip();
+        while (record.hasRemaining()) {
+            this.channel.write(record, offset + record.position());
+        }
+        return new Record(offset, body.length);
+    }
+
+    private static byte[] encodePut(String name, Properties properties) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(PUT);
+        writeString(out, name);
+        out.writeInt(properties.size());
+        for (String key : properties.stringPropertyNames()) {
+            writeString(out, key);
+            writeString(out, properties.getProperty(key));
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeDelete(String name) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(DELETE);
+        writeString(out, name);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    // returns null if the body is malformed
+    private static Properties decodeProperties(ByteBuffer body) {
+        try {
+            body.get(); // operation
+            readString(body); // name
+            int count = body.getInt();
+            Properties properties = new Properties();
+            for (int i = 0; i < count; i++) {
+                String key = readString(body);
+                String value = readString(body);
+                properties.setProperty(key, value);
+            }
+            return properties;
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+            return null;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        // DataOutput.writeUTF() is limited to 64KB which is not enough for large classpaths
+        byte[] bytes = value.getBytes(Charsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, Charsets.UTF_8);
+    }
+
+    private static int crc(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Opens the store, creating the file if it does not exist yet.
+     *
+     * @param file the location of the store
+     * @return the opened store
+     * @throws IOException if the file cannot be read or has an unsupported format
+     */
+    public static ModelStore open(File file) throws IOException {
+        Files.createParentDirs(file);
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = raf.getChannel();
+            if (channel.size() < HEADER_SIZE) {
+                writeHeader(channel);
+            } else {
+                readHeader(channel, file);
+            }
+
+            Map<String, Record> index = Maps.newHashMap();
+            long garbageBytes = scan(channel, index);
+            if (isCompactionNeeded(garbageBytes, channel.size())) {
+                raf.close();
+                compact(file, index);
+                raf = new RandomAccessFile(file, "rw");
+                index.clear();
+                garbageBytes = scan(raf.getChannel(), index);
+            }
+            return new ModelStore(file, raf, index, garbageBytes);
+        } catch (IOException | RuntimeException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    private static boolean isCompactionNeeded(long garbageBytes, long size) {
+        return garbageBytes > MIN_COMPACTION_SIZE && garbageBytes > size - garbageBytes;
+    }
+
+    private static void writeHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        channel.truncate(0);
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    private static void readHeader(FileChannel channel, File file) throws IOException {
+        ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+        if (header.getInt() != MAGIC) {
+            throw new IOException(file.getAbsolutePath() + " is not a model store");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException(String.format("Unsupported model store version %d in %s", version, file.getAbsolutePath()));
+        }
+    }
+
+    // reads the record headers and the project names, returns the number of superseded bytes
+    private static long scan(FileChannel channel, Map<String, Record> index) throws IOException {
+        long size = channel.size();
+        long position = HEADER_SIZE;
+        long garbageBytes = 0;
+        boolean verifyChecksums = false;
+        while (position + RECORD_HEADER_SIZE + 5 <= size) {
+            ByteBuffer recordHeader = readFully(channel, position, RECORD_HEADER_SIZE + 5);
+            int length = recordHeader.getInt();
+            int checksum = recordHeader.getInt();
+            byte operation = recordHeader.get();
+            int nameLength = recordHeader.getInt();
+            if (length < 5 || position + RECORD_HEADER_SIZE + length > size) {
+                break;
+            }
+
+            Record record = new Record(position, length);
+            // only the last record can be partially written, the others are verified when decoded
+            boolean lastRecord = position + record.getSize() == size;
+            boolean valid = nameLength >= 0 && nameLength <= length - 5 && (operation == PUT || operation == DELETE);
+            // a bogus deletion would drop a model, so deletions are always verified
+            if (valid && (verifyChecksums || lastRecord || operation == DELETE)) {
+                valid = checksum == crc(readFully(channel, position + RECORD_HEADER_SIZE, length));
+            }
+            if (!valid) {
+                if (lastRecord) {
+                    break;
+                }
+                // skip the malformed record and verify the rest of the file
+                garbageBytes += record.getSize();
+                verifyChecksums = true;
+                position += record.getSize();
+                continue;
+            }
+            String name = new String(readFully(channel, position + RECORD_HEADER_SIZE + 5, nameLength).array(), Charsets.UTF_8);
+
+            Record previous = operation == PUT ? index.put(name, record) : index.remove(name);
+            if (previous != null) {
+                garbageBytes += previous.getSize();
+            }
+            if (operation == DELETE) {
+                garbageBytes += record.getSize();
+            }
+            position += record.getSize();
+        }
+
+        // discard the incomplete record written before a crash
+        if (position < size) {
+            channel.truncate(position);
+        }
+        return garbageBytes;
+    }
+
+    private static void compact(File file, Map<String, Record> index) throws IOException {
+        File compacted = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (RandomAccessFile source = new RandomAccessFile(file, "r"); RandomAccessFile target = new RandomAccessFile(compacted, "rw")) {
+            FileChannel sourceChannel = source.getChannel();
+            FileChannel targetChannel = target.getChannel();
+            writeHeader(targetChannel);
+            long position = HEADER_SIZE;
+            for (Record record : index.values()) {
+                long transferred = 0;
+                while (transferred < record.getSize()) {
+                    transferred += sourceChannel.transferTo(record.offset + transferred, record.getSize() - transferred, targetChannel.position(position + transferred));
+                }
+                position += record.getSize();
+            }
+            targetChannel.force(true);
+        }
+        java.nio.file.Files.move(compacted.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of model store");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Location of a record in the store file.
+     */
+    private static final class Record {
+
+        private final long offset;
+        private final int length;
+
+        Record(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        long getSize() {
+            return RECORD_HEADER_SIZE + this.length;
+        }
+    }
+}
@@ -33,17 +33,28 @@ import org.eclipse.buildship.core.preferences.PersistentModel;
 
 /**
  * Contains helper methods for the {@link PersistentModel} <-> {@link Properties} conversion.
+ * <p/>
+ * The models created from properties decode their fields on demand, see {@link LazyPersistentModel}.
  */
 final class PersistentModelConverter {
 
-    private static final String PROPERTY_BUILD_DIR = "buildDir";
-    private static final String PROPERTY_BUILD_SCRIPT_PATH = "buildScriptPath";
-    private static final String PROPERTY_SUBPROJECTS = "subprojectPaths";
-    private static final String PROPERTY_CLASSPATH = "classpath";
-    private static final String PROPERTY_DERIVED_RESOURCES = "derivedResources";
-    private static final String PROPERTY_LINKED_RESOURCES = "linkedResources";
-    private static final String PROPERTY_MANAGED_NATURES = "managedNatures";
-    private static final String PROPERTY_MANAGED_BUILDERS = "managedBuilders";
+    static final String PROPERTY_BUILD_DIR = "buildDir";
+    static final String PROPERTY_BUILD_SCRIPT_PATH = "buildScriptPath";
+    static final String PROPERTY_SUBPROJECTS = "subprojectPaths";
+    static final String PROPERTY_CLASSPATH = "classpath";
+    static final String PROPERTY_DERIVED_RESOURCES = "derivedResources";
+    static final String PROPERTY_LINKED_RESOURCES = "linkedResources";
+    static final String PROPERTY_MANAGED_NATURES = "managedNatures";
+    static final String PROPERTY_MANAGED_BUILDERS = "managedBuilders";
+    static final String PROPERTY_MODEL_FINGERPRINT = "modelFingerprint";
+
+    private static final Function<String, IPath> TO_PATH = new Function<String, IPath>() {
+
+        @Override
+        public IPath apply(String path) {
+            return new Path(path);
+        }
+    };
 
     public static Properties toProperties(final PersistentModel model) {
         Properties properties = new Properties();
@@ -103,31 +114,28 @@ final class PersistentModelConverter {
             }
         });
 
+        storeValue(properties, PROPERTY_MODEL_FINGERPRINT, model.getModelFingerprint(), Functions.<String>identity());
+
         return properties;
     }
 
-    public static PersistentModel toModel(final IProject project, Properties properties) {
-        IPath buildDir = loadValue(properties, PROPERTY_BUILD_DIR, new Path("build"), new Function<String, IPath>() {
+    public static PersistentModel toModel(IProject project, Properties properties) {
+        return new LazyPersistentModel(project, properties);
+    }
 
-            @Override
-            public IPath apply(String path) {
-                return new Path(path);
-            }
-        });
-        IPath buildScriptPath = loadValue(properties, PROPERTY_BUILD_SCRIPT_PATH, new Path("build.gradle"), new Function<String, IPath>() {
+    static IPath loadBuildDir(Properties properties) {
+        return loadValue(properties, PROPERTY_BUILD_DIR, new Path("build"), TO_PATH);
+    }
 
-            @Override
-            public IPath apply(String path) {
-                return new Path(path);
-            }
-        });
-        Collection<IPath> subprojects = loadList(properties, PROPERTY_SUBPROJECTS, new Function<String, IPath>() {
+    static IPath loadBuildScriptPath(Properties properties) {
+        return loadValue(properties, PROPERTY_BUILD_SCRIPT_PATH, new Path("build.gradle"), TO_PATH);
+    }
 
-            @Override
-            public IPath apply(String path) {
-                return new Path(path);
-            }
-        });
+    static Collection<IPath> loadSubprojectPaths(Properties properties) {
+        return loadList(properties, PROPERTY_SUBPROJECTS, TO_PATH);
+    }
+
+    static List<IClasspathEntry> loadClasspath(final IProject project, Properties properties) {
         List<IClasspathEntry> classpath = loadValue(properties, PROPERTY_CLASSPATH, ImmutableList.<IClasspathEntry>of(), new Function<String, List<IClasspathEntry>>() {
 
             @Override
@@ -136,31 +144,35 @@ final class PersistentModelConverter {
                 return ClasspathConverter.toEntries(javaProject, classpath);
             }
         });
-        Collection<IPath> derivedResources = loadList(properties, PROPERTY_DERIVED_RESOURCES, new Function<String, IPath>() {
+        // the converter logs the unreadable classpaths
+        return classpath != null ? ImmutableList.copyOf(classpath) : null;
+    }
 
-            @Override
-            public IPath apply(String path) {
-                return new Path(path);
-            }
-        });
-        Collection<IPath> linkedResources = loadList(properties, PROPERTY_LINKED_RESOURCES, new Function<String, IPath>() {
+    static Collection<IPath> loadDerivedResources(Properties properties) {
+        return loadList(properties, PROPERTY_DERIVED_RESOURCES, TO_PATH);
+    }
 
-            @Override
-            public IPath apply(String path) {
-                return new Path(path);
-            }
-        });
+    static Collection<IPath> loadLinkedResources(Properties properties) {
+        return loadList(properties, PROPERTY_LINKED_RESOURCES, TO_PATH);
+    }
 
-        Collection<String> managedNatures = loadList(properties, PROPERTY_MANAGED_NATURES, Functions.<String>identity());
+    static List<String> loadManagedNatures(Properties properties) {
+        return loadList(properties, PROPERTY_MANAGED_NATURES, Functions.<String>identity());
+    }
 
-        Collection<ICommand> managedBuilders = loadValue(properties, PROPERTY_MANAGED_BUILDERS, ImmutableList.<ICommand>of(), new Function<String, List<ICommand>>() {
+    static List<ICommand> loadManagedBuilders(final IProject project, Properties properties) {
+        List<ICommand> commands = loadValue(properties, PROPERTY_MANAGED_BUILDERS, ImmutableList.<ICommand>of(), new Function<String, List<ICommand>>() {
 
             @Override
             public List<ICommand> apply(String commands) {
                 return BuildCommandConverter.toEntries(project, commands);
             }
         });
-        return new DefaultPersistentModel(project, buildDir, buildScriptPath, subprojects, classpath, derivedResources, linkedResources, managedNatures, managedBuilders);
+        return ImmutableList.copyOf(commands);
+    }
+
+    static String loadModelFingerprint(Properties properties) {
+        return loadValue(properties, PROPERTY_MODEL_FINGERPRINT, "", Functions.<String>identity());
     }
 
     private static <T> T loadValue(Properties properties, String key, T defaultValue, Function<String, T> conversion) {
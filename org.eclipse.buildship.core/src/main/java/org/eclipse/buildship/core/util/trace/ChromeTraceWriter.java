@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.util.trace;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+
+/**
+ * Writes {@link TraceSpan} instances in the Chrome trace-event format: every span becomes a
+ * complete event ({@code "ph": "X"}) and every thread gets a name through a metadata event.
+ *
+ * @author Donat Csikos
+ */
+final class ChromeTraceWriter {
+
+    private ChromeTraceWriter() {
+    }
+
+    static void write(List<TraceSpan> spans, long traceStartNanos, File target) throws IOException {
+        Files.createParentDirs(target);
+        Writer writer = Files.newWriter(target, Charsets.UTF_8);
+        try {
+            writer.write("{\"traceEvents\":[\n");
+            writer.write("{\"name\":\"process_name\",\"ph\":\"M\",\"pid\":1,\"args\":{\"name\":\"Gradle project synchronization\"}}");
+
+            Map<Long, String> threadNames = Maps.newLinkedHashMap();
+            for (TraceSpan span : spans) {
+                threadNames.put(span.getThreadId(), span.getThreadName());
+            }
+            for (Map.Entry<Long, String> thread : threadNames.entrySet()) {
+                writer.write(",\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":");
+                writer.write(String.valueOf(thread.getKey()));
+                writer.write(",\"args\":{\"name\":");
+                writeString(writer, thread.getValue());
+                writer.write("}}");
+            }
+
+            for (TraceSpan span : spans) {
+                writer.write(",\n{\"name\":");
+                writeString(writer, span.getName());
+                writer.write(",\"cat\":");
+                writeString(writer, span.getCategory());
+                writer.write(",\"ph\":\"X\",\"pid\":1,\"tid\":");
+                writer.write(String.valueOf(span.getThreadId()));
+                writer.write(",\"ts\":");
+                writer.write(String.valueOf(TimeUnit.NANOSECONDS.toMicros(span.getStartNanos() - traceStartNanos)));
+                writer.write(",\"dur\":");
+                writer.write(String.valueOf(TimeUnit.NANOSECONDS.toMicros(span.getDurationNanos())));
+                writer.write(",\"args\":{");
+                boolean hasArgument = false;
+                if (span.getDetail() != null) {
+                    writer.write("\"detail\":");
+                    writeString(writer, span.getDetail());
+                    hasArgument = true;
+                }
+                if (span.getAllocatedBytes() >= 0) {
+                    writer.write(hasArgument ? ",\"allocatedBytes\":" : "\"allocatedBytes\":");
+                    writer.write(String.valueOf(span.getAllocatedBytes()));
+                }
+                writer.write("}}");
+            }
+            writer.write("\n]}\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static void writeString(Writer writer, String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+        writer.write('"');
+    }
+}
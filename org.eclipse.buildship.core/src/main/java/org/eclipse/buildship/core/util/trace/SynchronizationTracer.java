@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.util.trace;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import org.gradle.tooling.CancellationToken;
+
+import org.eclipse.core.runtime.Platform;
+
+import org.eclipse.buildship.core.CorePlugin;
+
+/**
+ * Records the time spent in the phases of the project synchronization.
+ * <p/>
+ * If the {@link #TRACING_ENABLED} preference is set, then each synchronization records a trace.
+ * The instrumented code marks the boundaries of its phases with {@link TraceSpan} instances; each
+ * span knows its thread, its wall time and the number of bytes allocated by the thread while the
+ * span was open. Tooling API operations are only recorded if they belong to the traced
+ * synchronization, i.e. if they were started with its cancellation token. When the
+ * synchronization is finished, the spans are written as a Chrome trace-event file into the
+ * {@code synchronization-traces} folder of the plugin state location. Only the most recent
+ * {@value #MAX_TRACE_FILES} trace files are kept. The files can be opened with
+ * {@code chrome://tracing} or any other viewer supporting the format.
+ * <p/>
+ * If no trace is recorded, then the spans are no-ops.
+ *
+ * @author Donat Csikos
+ */
+public final class SynchronizationTracer {
+
+    /**
+     * Preference key to enable the recording of synchronization traces.
+     */
+    public static final String TRACING_ENABLED = "synchronization.tracing";
+
+    // the number of trace files kept in the plugin state location
+    static final int MAX_TRACE_FILES = 20;
+
+    private static final String TRACE_FOLDER = "synchronization-traces";
+    private static final String TRACE_FILE_PREFIX = "synchronization-";
+
+    private static final Method GET_THREAD_ALLOCATED_BYTES = findGetThreadAllocatedBytesMethod();
+
+    private final Object lock = new Object();
+    private List<TraceSpan> spans;
+    private long startNanos;
+    private CancellationToken token;
+
+    /**
+     * Starts recording a new trace if tracing is enabled and no trace is recorded yet.
+     *
+     * @param token the cancellation token of the traced synchronization, used to identify the
+     *            Tooling API operations belonging to it
+     */
+    public void beginTrace(CancellationToken token) {
+        if (Platform.getPreferencesService().getBoolean(CorePlugin.PLUGIN_ID, TRACING_ENABLED, false, null)) {
+            synchronized (this.lock) {
+                if (this.spans == null) {
+                    this.spans = Lists.newArrayList();
+                    this.startNanos = System.nanoTime();
+                    this.token = token;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops recording the current trace and writes it into the plugin state location.
+     *
+     * @return the written trace file or {@link Optional#absent()} if no trace was recorded
+     */
+    public Optional<File> endTrace() {
+        List<TraceSpan> spans;
+        long startNanos;
+        synchronized (this.lock) {
+            if (this.spans == null) {
+                return Optional.absent();
+            }
+            spans = ImmutableList.copyOf(this.spans);
+            startNanos = this.startNanos;
+            this.spans = null;
+            this.token = null;
+        }
+
+        String fileName = String.format("%s%s.json", TRACE_FILE_PREFIX, new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date()));
+        File traceFolder = CorePlugin.getInstance().getStateLocation().append(TRACE_FOLDER).toFile();
+        File traceFile = new File(traceFolder, fileName);
+        try {
+            ChromeTraceWriter.write(spans, startNanos, traceFile);
+            deleteOldTraceFiles(traceFolder);
+            CorePlugin.logger().debug(String.format("Synchronization trace with %d spans written to %s", spans.size(), traceFile));
+            return Optional.of(traceFile);
+        } catch (IOException e) {
+            CorePlugin.logger().warn(String.format("Cannot write synchronization trace to %s", traceFile), e);
+            return Optional.absent();
+        }
+    }
+
+    /**
+     * Opens a new span on the current thread.
+     *
+     * @param category the category of the span, e.g. {@code project} or {@code tooling-api}
+     * @param name the name of the span
+     * @return the new span or a no-op span if no trace is recorded
+     */
+    public TraceSpan startSpan(String category, String name) {
+        return startSpan(category, name, null);
+    }
+
+    /**
+     * Opens a new span on the current thread.
+     *
+     * @param category the category of the span, e.g. {@code project} or {@code tooling-api}
+     * @param name the name of the span
+     * @param detail additional information about the span, e.g. the name of the synchronized
+     *            project, can be {@code null}
+     * @return the new span or a no-op span if no trace is recorded
+     */
+    public TraceSpan startSpan(String category, String name, String detail) {
+        synchronized (this.lock) {
+            if (this.spans == null) {
+                return TraceSpan.NO_OP;
+            }
+        }
+        return new TraceSpan(this, category, name, detail);
+    }
+
+    /**
+     * Opens a new span for a Tooling API operation on the current thread. The span is only recorded
+     * if the operation belongs to the traced synchronization; operations executed concurrently, e.g.
+     * a task launched from the Tasks view, are ignored.
+     *
+     * @param operationToken the cancellation token the operation was started with
+     * @param category the category of the span
+     * @param name the name of the span
+     * @return the new span or a no-op span if the operation is not traced
+     */
+    public TraceSpan startOperationSpan(CancellationToken operationToken, String category, String name) {
+        synchronized (this.lock) {
+            if (this.spans == null || operationToken == null || operationToken != this.token) {
+                return TraceSpan.NO_OP;
+            }
+        }
+        return new TraceSpan(this, category, name, null);
+    }
+
+    void record(TraceSpan span) {
+        synchronized (this.lock) {
+            if (this.spans != null) {
+                this.spans.add(span);
+            }
+        }
+    }
+
+    private static void deleteOldTraceFiles(File traceFolder) {
+        File[] traceFiles = traceFolder.listFiles();
+        if (traceFiles == null || traceFiles.length <= MAX_TRACE_FILES) {
+            return;
+        }
+
+        // the file names contain the timestamp, hence the natural order is the chronological one
+        Arrays.sort(traceFiles);
+        for (int i = 0; i < traceFiles.length - MAX_TRACE_FILES; i++) {
+            if (traceFiles[i].getName().startsWith(TRACE_FILE_PREFIX) && !traceFiles[i].delete()) {
+                CorePlugin.logger().debug(String.format("Cannot delete synchronization trace %s", traceFiles[i]));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread, if the JVM supports measuring it.
+     *
+     * @return the allocated bytes or -1 if the value is not available
+     */
+    static long currentThreadAllocatedBytes() {
+        if (GET_THREAD_ALLOCATED_BYTES != null) {
+            try {
+                return (Long) GET_THREAD_ALLOCATED_BYTES.invoke(ManagementFactory.getThreadMXBean(), Thread.currentThread().getId());
+            } catch (Exception e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static Method findGetThreadAllocatedBytesMethod() {
+        // the allocation counters are only available on HotSpot-based JVMs through the com.sun.management API
+        try {
+            ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            Class<?> hotSpotThreadMXBean = Class.forName("com.sun.management.ThreadMXBean");
+            if (hotSpotThreadMXBean.isInstance(threadMXBean)) {
+                return hotSpotThreadMXBean.getMethod("getThreadAllocatedBytes", long.class);
+            }
+        } catch (Exception e) {
+            // allocation counts are not recorded
+        }
+        return null;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.util.trace;
+
+/**
+ * A phase of the synchronization recorded by the {@link SynchronizationTracer}.
+ * <p/>
+ * A span is started on the thread executing the phase and has to be ended on the same thread,
+ * usually in a {@code finally} block. Consecutive phases can be chained with {@link #next(String)}.
+ *
+ * @author Donat Csikos
+ */
+public final class TraceSpan {
+
+    static final TraceSpan NO_OP = new TraceSpan(null, null, null, null);
+
+    private final SynchronizationTracer tracer;
+    private final String category;
+    private final String name;
+    private final String detail;
+    private final long threadId;
+    private final String threadName;
+    private final long startNanos;
+    private final long startAllocatedBytes;
+    private long endNanos;
+    private long allocatedBytes;
+    private boolean ended;
+
+    TraceSpan(SynchronizationTracer tracer, String category, String name, String detail) {
+        this.tracer = tracer;
+        this.category = category;
+        this.name = name;
+        this.detail = detail;
+        Thread thread = Thread.currentThread();
+        this.threadId = thread.getId();
+        this.threadName = thread.getName();
+        this.startAllocatedBytes = tracer != null ? SynchronizationTracer.currentThreadAllocatedBytes() : -1;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Ends this span. Subsequent calls have no effect.
+     */
+    public void end() {
+        if (this.tracer == null || this.ended) {
+            return;
+        }
+        this.endNanos = System.nanoTime();
+        long endAllocatedBytes = SynchronizationTracer.currentThreadAllocatedBytes();
+        this.allocatedBytes = this.startAllocatedBytes >= 0 && endAllocatedBytes >= 0 ? endAllocatedBytes - this.startAllocatedBytes : -1;
+        this.ended = true;
+        this.tracer.record(this);
+    }
+
+    /**
+     * Ends this span and starts the next one with the same category and detail.
+     *
+     * @param name the name of the next span
+     * @return the next span
+     */
+    public TraceSpan next(String name) {
+        if (this.tracer == null) {
+            return this;
+        }
+        end();
+        return this.tracer.startSpan(this.category, name, this.detail);
+    }
+
+    String getCategory() {
+        return this.category;
+    }
+
+    String getName() {
+        return this.name;
+    }
+
+    String getDetail() {
+        return this.detail;
+    }
+
+    long getThreadId() {
+        return this.threadId;
+    }
+
+    String getThreadName() {
+        return this.threadName;
+    }
+
+    long getStartNanos() {
+        return this.startNanos;
+    }
+
+    long getDurationNanos() {
+        return this.endNanos - this.startNanos;
+    }
+
+    long getAllocatedBytes() {
+        return this.allocatedBytes;
+    }
+}
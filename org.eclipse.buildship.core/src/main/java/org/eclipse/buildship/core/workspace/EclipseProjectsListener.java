@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Receives the project locations of the builds participating in a composite one after another, as
+ * soon as the Eclipse models of each build were created by Gradle.
+ *
+ * @author Donat Csikos
+ * @see ModelProvider#fetchEclipseGradleProjects(com.gradleware.tooling.toolingmodel.repository.FetchStrategy,
+ *      org.gradle.tooling.CancellationToken, org.eclipse.core.runtime.IProgressMonitor, EclipseProjectsListener)
+ */
+public interface EclipseProjectsListener {
+
+    /**
+     * Called when the Eclipse models of a build participating in the composite were created. The
+     * method is called on the thread which fetches the models, while the remaining builds are
+     * still being configured.
+     *
+     * @param buildRootDir the root directory of the participant
+     * @param projectDirs the directories of the root project of the participant and all its
+     *            subprojects
+     */
+    void eclipseProjectsLoaded(File buildRootDir, List<File> projectDirs);
+}
@@ -28,6 +28,17 @@ public interface GradleBuilds extends Iterable<GradleBuild> {
      */
     void synchronize(NewProjectHandler newProjectHandler);
 
+    /**
+     * Attempts to synchronize all contained builds with the workspace. Unlike
+     * {@link #synchronize(NewProjectHandler)}, the Gradle model is applied to every project, even
+     * if it did not change since the last synchronization.
+     * <p/>
+     * The synchronization happens asynchronously. In case of a failure, the user will be notified.
+     *
+     * @param newProjectHandler how to handle newly added projects
+     */
+    void synchronizeFully(NewProjectHandler newProjectHandler);
+
     /**
      * Returns the contained {@link GradleBuild} instances.
      *
@@ -78,4 +78,20 @@ public interface ModelProvider {
      * @return the returned model
      */
     Set<OmniEclipseProject> fetchEclipseGradleProjects(FetchStrategy strategy, CancellationToken token, IProgressMonitor monitor);
+
+    /**
+     * Synchronously queries The {@link OmniEclipseProject} models from this build and notifies the
+     * listener about the projects of each participating build as soon as Gradle created their
+     * models. The models of all participants are still loaded in a single Gradle invocation and
+     * returned together, such that the caller can prepare the projects of the first participants
+     * while the rest are still being configured. If the result is not loaded from Gradle, then the
+     * listener is notified about all participants before this method returns.
+     *
+     * @param strategy the fetch strategy
+     * @param token the cancellation token
+     * @param monitor the monitor to report the progress on
+     * @param listener the listener to notify about the projects of each participant
+     * @return the returned model
+     */
+    Set<OmniEclipseProject> fetchEclipseGradleProjects(FetchStrategy strategy, CancellationToken token, IProgressMonitor monitor, EclipseProjectsListener listener);
 }
\ No newline at end of file
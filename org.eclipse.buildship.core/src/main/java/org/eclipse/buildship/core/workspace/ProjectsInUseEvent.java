@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+import org.eclipse.core.resources.IProject;
+
+import org.eclipse.buildship.core.event.Event;
+
+/**
+ * Event raised when the workbench reports the projects the user is working with, e.g. the projects
+ * of the open editors.
+ * <p/>
+ * The projects are ordered by their importance, the first project is the most likely to be needed.
+ *
+ * @author Donat Csikos
+ */
+public final class ProjectsInUseEvent implements Event {
+
+    private final List<IProject> projects;
+
+    public ProjectsInUseEvent(List<IProject> projects) {
+        this.projects = ImmutableList.copyOf(projects);
+    }
+
+    public List<IProject> getProjects() {
+        return this.projects;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+import java.util.concurrent.ConcurrentMap;
+
+import org.gradle.tooling.ProjectConnection;
+import org.gradle.tooling.model.build.BuildEnvironment;
+
+import com.google.common.collect.Maps;
+
+import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.configuration.GradleArguments;
+
+/**
+ * Caches the {@link BuildEnvironment} model of each build such that Tooling API operations don't
+ * have to query it before every execution.
+ * <p/>
+ * The entries are keyed by the root directory, the Gradle distribution and the Gradle user home,
+ * hence changing the distribution settings results in a new entry. An entry is considered stale
+ * if the wrapper properties of the build were modified since the environment was loaded.
+ *
+ * @author Donat Csikos
+ */
+public final class BuildEnvironmentCache {
+
+    private static final String WRAPPER_PROPERTIES_PATH = "gradle/wrapper/gradle-wrapper.properties";
+
+    private final ConcurrentMap<ConnectionKey, Entry> entries = Maps.newConcurrentMap();
+
+    /**
+     * Returns the build environment of the target build. If the environment is not cached then a
+     * pooled connection is used to load it.
+     *
+     * @param gradleArguments the arguments describing the target build
+     * @return the build environment
+     */
+    public BuildEnvironment get(GradleArguments gradleArguments) {
+        ConnectionKey key = ConnectionKey.from(gradleArguments);
+        Entry entry = getValidEntry(key);
+        if (entry != null) {
+            return entry.buildEnvironment;
+        }
+
+        ProjectConnectionPool.Lease lease = CorePlugin.projectConnectionPool().acquire(gradleArguments);
+        try {
+            return load(key, lease.getConnection());
+        } finally {
+            lease.release();
+        }
+    }
+
+    /**
+     * Returns the build environment of the target build. If the environment is not cached then it
+     * is loaded via the given connection.
+     *
+     * @param gradleArguments the arguments describing the target build
+     * @param connection the connection to use if the environment has to be loaded
+     * @return the build environment
+     */
+    public BuildEnvironment get(GradleArguments gradleArguments, ProjectConnection connection) {
+        ConnectionKey key = ConnectionKey.from(gradleArguments);
+        Entry entry = getValidEntry(key);
+        return entry != null ? entry.buildEnvironment : load(key, connection);
+    }
+
+    /**
+     * Removes all cached environments of the build located in the given directory.
+     *
+     * @param rootDir the root directory of the target build
+     */
+    public void invalidate(File rootDir) {
+        for (ConnectionKey key : this.entries.keySet()) {
+            if (key.getRootDir().equals(rootDir)) {
+                this.entries.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Removes all cached environments.
+     */
+    public void invalidateAll() {
+        this.entries.clear();
+    }
+
+    private Entry getValidEntry(ConnectionKey key) {
+        Entry entry = this.entries.get(key);
+        if (entry != null && entry.wrapperPropertiesTimestamp != wrapperPropertiesTimestamp(key)) {
+            this.entries.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    private BuildEnvironment load(ConnectionKey key, ProjectConnection connection) {
+        long timestamp = wrapperPropertiesTimestamp(key);
+        BuildEnvironment buildEnvironment = connection.getModel(BuildEnvironment.class);
+        this.entries.put(key, new Entry(buildEnvironment, timestamp));
+        return buildEnvironment;
+    }
+
+    private static long wrapperPropertiesTimestamp(ConnectionKey key) {
+        // File#lastModified returns 0 for non-existing files
+        return new File(key.getRootDir(), WRAPPER_PROPERTIES_PATH).lastModified();
+    }
+
+    /**
+     * A cached build environment along with the state of the wrapper properties it was loaded for.
+     */
+    private static final class Entry {
+
+        private final BuildEnvironment buildEnvironment;
+        private final long wrapperPropertiesTimestamp;
+
+        private Entry(BuildEnvironment buildEnvironment, long wrapperPropertiesTimestamp) {
+            this.buildEnvironment = buildEnvironment;
+            this.wrapperPropertiesTimestamp = wrapperPropertiesTimestamp;
+        }
+    }
+}
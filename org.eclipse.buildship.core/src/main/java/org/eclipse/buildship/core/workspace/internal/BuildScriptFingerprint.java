@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.gradle.tooling.model.GradleProject;
+import org.gradle.tooling.model.UnsupportedMethodException;
+import org.gradle.tooling.model.eclipse.EclipseProject;
+import org.gradle.tooling.model.gradle.BasicGradleProject;
+import org.gradle.tooling.model.gradle.GradleBuild;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+/**
+ * Calculates a hash over the files of a Gradle build which influence the build configuration.
+ * <p/>
+ * The files are collected from the loaded models instead of scanning the build directories: the
+ * build scripts reported by Gradle and the other scripts next to them, the settings, the
+ * {@code gradle.properties} and the wrapper properties of each build, the contents of the
+ * {@code buildSrc} folders, and the properties and init scripts of the Gradle user home. Files
+ * which don't exist are part of the hash too, such that creating them changes the fingerprint.
+ *
+ * @author Donat Csikos
+ */
+final class BuildScriptFingerprint {
+
+    private static final String BUILD_SRC = "buildSrc";
+    private static final ImmutableList<String> BUILD_ROOT_FILES = ImmutableList.of("settings.gradle", "settings.gradle.kts", "gradle.properties", "gradle/wrapper/gradle-wrapper.properties");
+    private static final ImmutableSet<String> EXCLUDED_FOLDERS = ImmutableSet.of("build", "bin", "out");
+    private static final ImmutableSet<String> INIT_SCRIPT_ARGUMENTS = ImmutableSet.of("-I", "--init-script");
+
+    private BuildScriptFingerprint() {
+    }
+
+    /**
+     * Collects the files influencing the configuration of the build the given model belongs to.
+     *
+     * @param rootDir the root directory of the build
+     * @param model the loaded {@link GradleBuild} model or the collection of {@link EclipseProject}
+     *            models of the build and of its included builds
+     * @param gradleUserHome the Gradle user home or {@code null} if the default location is used
+     * @param arguments the arguments of the Gradle invocation
+     * @return the files and folders to calculate the fingerprint for
+     */
+    static List<File> collectInputs(File rootDir, Object model, File gradleUserHome, List<String> arguments) {
+        Set<File> buildRootDirs = Sets.newLinkedHashSet();
+        Set<File> projectDirs = Sets.newLinkedHashSet();
+        Set<File> buildScripts = Sets.newLinkedHashSet();
+        buildRootDirs.add(rootDir);
+        if (model instanceof Collection) {
+            for (Object element : (Collection<?>) model) {
+                if (element instanceof EclipseProject) {
+                    buildRootDirs.add(((EclipseProject) element).getProjectDirectory());
+                    collectProjects((EclipseProject) element, projectDirs, buildScripts);
+                }
+            }
+        } else if (model instanceof GradleBuild) {
+            collectProjects((GradleBuild) model, buildRootDirs, projectDirs);
+        }
+
+        Set<File> result = Sets.newLinkedHashSet();
+        for (File buildRootDir : buildRootDirs) {
+            for (String path : BUILD_ROOT_FILES) {
+                result.add(new File(buildRootDir, path));
+            }
+            result.add(new File(buildRootDir, BUILD_SRC));
+            // scripts applied from the build scripts are usually kept in the gradle folder
+            result.addAll(listScripts(new File(buildRootDir, "gradle")));
+        }
+        for (File projectDir : projectDirs) {
+            result.addAll(listScripts(projectDir));
+        }
+        result.addAll(buildScripts);
+
+        File userHome = gradleUserHome != null ? gradleUserHome : new File(System.getProperty("user.home"), ".gradle");
+        result.add(new File(userHome, "gradle.properties"));
+        result.add(new File(userHome, "init.gradle"));
+        result.add(new File(userHome, "init.gradle.kts"));
+        result.add(new File(userHome, "init.d"));
+        for (Iterator<String> iterator = arguments.iterator(); iterator.hasNext();) {
+            if (INIT_SCRIPT_ARGUMENTS.contains(iterator.next()) && iterator.hasNext()) {
+                File initScript = new File(iterator.next());
+                result.add(initScript.isAbsolute() ? initScript : new File(rootDir, initScript.getPath()));
+            }
+        }
+        return ImmutableList.copyOf(result);
+    }
+
+    private static void collectProjects(EclipseProject project, Set<File> projectDirs, Set<File> buildScripts) {
+        projectDirs.add(project.getProjectDirectory());
+        try {
+            GradleProject gradleProject = project.getGradleProject();
+            File buildScript = gradleProject != null ? gradleProject.getBuildScript().getSourceFile() : null;
+            if (buildScript != null) {
+                buildScripts.add(buildScript);
+            }
+        } catch (UnsupportedMethodException e) {
+            // the build script location is only available for Gradle 1.8 and above
+        }
+        for (EclipseProject child : project.getChildren()) {
+            collectProjects(child, projectDirs, buildScripts);
+        }
+    }
+
+    private static void collectProjects(GradleBuild build, Set<File> buildRootDirs, Set<File> projectDirs) {
+        buildRootDirs.add(build.getRootProject().getProjectDirectory());
+        collectProjects(build.getRootProject(), projectDirs);
+        try {
+            for (GradleBuild includedBuild : build.getIncludedBuilds()) {
+                collectProjects(includedBuild, buildRootDirs, projectDirs);
+            }
+        } catch (UnsupportedMethodException e) {
+            // included builds are only available for Gradle 3.3 and above
+        }
+    }
+
+    private static void collectProjects(BasicGradleProject project, Set<File> projectDirs) {
+        projectDirs.add(project.getProjectDirectory());
+        for (BasicGradleProject child : project.getChildren()) {
+            collectProjects(child, projectDirs);
+        }
+    }
+
+    private static List<File> listScripts(File folder) {
+        File[] children = folder.listFiles();
+        if (children == null) {
+            return ImmutableList.of();
+        }
+
+        ImmutableList.Builder<File> result = ImmutableList.builder();
+        for (File child : children) {
+            if (child.isFile() && isScript(child)) {
+                result.add(child);
+            }
+        }
+        return result.build();
+    }
+
+    private static boolean isScript(File file) {
+        String name = file.getName();
+        return name.endsWith(".gradle") || name.endsWith(".gradle.kts");
+    }
+
+    /**
+     * Calculates the fingerprint of the given files. The content of the folders is included
+     * recursively.
+     *
+     * @param inputs the files and folders returned by
+     *            {@link #collectInputs(File, Object, File, List)}
+     * @return the hex-encoded fingerprint
+     * @throws IOException if a file cannot be read
+     */
+    static String calculate(List<File> inputs) throws IOException {
+        Hasher hasher = Hashing.sha1().newHasher();
+        for (File input : inputs) {
+            hasher.putString(input.getAbsolutePath(), Charsets.UTF_8);
+            if (input.isDirectory()) {
+                hashFolder(hasher, input);
+            } else {
+                hashFile(hasher, input);
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Returns whether any of the given files or folders was modified after the given time.
+     *
+     * @param inputs the files and folders to check
+     * @param timestamp the time in milliseconds since the epoch
+     * @return {@code true} if any of the inputs was modified after the given time
+     */
+    static boolean isModifiedAfter(List<File> inputs, long timestamp) {
+        for (File input : inputs) {
+            if (input.lastModified() > timestamp || (input.isDirectory() && isModifiedAfter(listIncludedChildren(input), timestamp))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void hashFolder(Hasher hasher, File folder) throws IOException {
+        for (File child : listIncludedChildren(folder)) {
+            hasher.putString(child.getName(), Charsets.UTF_8);
+            if (child.isDirectory()) {
+                hashFolder(hasher, child);
+            } else {
+                hashFile(hasher, child);
+            }
+        }
+    }
+
+    private static List<File> listIncludedChildren(File folder) {
+        File[] children = folder.listFiles();
+        if (children == null) {
+            return ImmutableList.of();
+        }
+
+        Arrays.sort(children);
+        ImmutableList.Builder<File> result = ImmutableList.builder();
+        for (File child : children) {
+            String name = child.getName();
+            if (!child.isDirectory() || !(name.startsWith(".") || EXCLUDED_FOLDERS.contains(name))) {
+                result.add(child);
+            }
+        }
+        return result.build();
+    }
+
+    private static void hashFile(Hasher hasher, File file) throws IOException {
+        if (file.isFile()) {
+            hasher.putBytes(Files.hash(file, Hashing.sha1()).asBytes());
+        } else {
+            hasher.putBoolean(false);
+        }
+    }
+}
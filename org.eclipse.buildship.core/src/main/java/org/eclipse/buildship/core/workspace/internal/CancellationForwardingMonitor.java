@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import com.google.common.base.Preconditions;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+/**
+ * Progress monitor for worker threads. Progress monitors are not thread-safe, so the workers only
+ * receive the cancellation requests of the monitor owned by the calling thread.
+ *
+ * @author Donat Csikos
+ */
+final class CancellationForwardingMonitor extends NullProgressMonitor {
+
+    private final IProgressMonitor delegate;
+
+    CancellationForwardingMonitor(IProgressMonitor delegate) {
+        this.delegate = Preconditions.checkNotNull(delegate);
+    }
+
+    @Override
+    public boolean isCanceled() {
+        return this.delegate.isCanceled();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Maps;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.IClasspathContainer;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+import org.eclipse.buildship.core.workspace.GradleClasspathContainer;
+
+/**
+ * Collects the Gradle classpath containers of multiple projects and assigns them with a single
+ * {@link JavaCore#setClasspathContainer(org.eclipse.core.runtime.IPath, IJavaProject[], IClasspathContainer[], IProgressMonitor)}
+ * call. This way JDT resolves the classpaths and fires the Java model delta only once for all
+ * projects.
+ * <p/>
+ * Containers can be added from multiple threads. If the same project is added more than once, the
+ * last container wins.
+ *
+ * @author Donat Csikos
+ */
+final class ClasspathContainerBatch {
+
+    private final Object lock = new Object();
+    private final Map<IJavaProject, IClasspathContainer> containers = Maps.newLinkedHashMap();
+
+    /**
+     * Adds the Gradle classpath container with the given entries to the batch.
+     *
+     * @param project the project to assign the container to
+     * @param classpathEntries the content of the container
+     */
+    public void add(IJavaProject project, List<IClasspathEntry> classpathEntries) {
+        IClasspathContainer container = GradleClasspathContainer.newInstance(classpathEntries);
+        synchronized (this.lock) {
+            this.containers.put(project, container);
+        }
+    }
+
+    /**
+     * Returns whether the batch contains a container for the given project.
+     *
+     * @param project the project to check
+     * @return {@code true} if a container was added for the project
+     */
+    public boolean contains(IJavaProject project) {
+        synchronized (this.lock) {
+            return this.containers.containsKey(project);
+        }
+    }
+
+    /**
+     * Assigns all collected containers and clears the batch.
+     *
+     * @param monitor the monitor to report the progress on
+     * @throws JavaModelException if the containers cannot be assigned
+     */
+    public void apply(IProgressMonitor monitor) throws JavaModelException {
+        IJavaProject[] projects;
+        IClasspathContainer[] containers;
+        synchronized (this.lock) {
+            projects = this.containers.keySet().toArray(new IJavaProject[this.containers.size()]);
+            containers = this.containers.values().toArray(new IClasspathContainer[this.containers.size()]);
+            this.containers.clear();
+        }
+
+        if (projects.length > 0) {
+            JavaCore.setClasspathContainer(GradleClasspathContainer.CONTAINER_PATH, projects, containers, monitor);
+        }
+    }
+}
@@ -16,7 +16,6 @@ import java.util.ListIterator;
 import java.util.Map;
 
 import com.google.common.base.Optional;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 import com.gradleware.tooling.toolingmodel.OmniEclipseClasspathContainer;
@@ -31,7 +30,6 @@ import org.eclipse.jdt.core.IClasspathAttribute;
 import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
-import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.launching.IVMInstall;
 import org.eclipse.jdt.launching.JavaRuntime;
 import org.eclipse.jdt.launching.environments.IExecutionEnvironment;
@@ -59,25 +57,17 @@ final class ClasspathContainerUpdater {
 
     private static final IPath DEFAULT_JRE_PATH = JavaRuntime.newDefaultJREContainerPath();
 
-    private final IJavaProject project;
     private final boolean gradleSupportsContainers;
     private final List<OmniEclipseClasspathContainer> containers;
     private final OmniJavaSourceSettings sourceSettings;
 
-    private ClasspathContainerUpdater(IJavaProject project, Optional<List<OmniEclipseClasspathContainer>> containers, OmniJavaSourceSettings sourceSettings) {
-        this.project = project;
+    private ClasspathContainerUpdater(Optional<List<OmniEclipseClasspathContainer>> containers, OmniJavaSourceSettings sourceSettings) {
         this.gradleSupportsContainers = containers.isPresent();
         this.containers = containers.or(Collections.<OmniEclipseClasspathContainer> emptyList());
         this.sourceSettings = sourceSettings;
     }
 
-    private void updateContainers(IProgressMonitor monitor) throws CoreException {
-        List<IClasspathEntry> classpath = Lists.newArrayList(this.project.getRawClasspath());
-        updateContainers(classpath);
-        this.project.setRawClasspath(classpath.toArray(new IClasspathEntry[classpath.size()]), monitor);
-    }
-
-    private void updateContainers(List<IClasspathEntry> classpath) throws JavaModelException {
+    private void updateContainers(List<IClasspathEntry> classpath) {
         if (this.gradleSupportsContainers) {
             overWriteContainers(classpath);
         } else {
@@ -167,7 +157,13 @@ final class ClasspathContainerUpdater {
 
     public static void update(IJavaProject project, Optional<List<OmniEclipseClasspathContainer>> containers, OmniJavaSourceSettings omniJavaSourceSettings,
             IProgressMonitor monitor) throws CoreException {
-        new ClasspathContainerUpdater(project, containers, omniJavaSourceSettings).updateContainers(monitor);
+        ClasspathTransaction transaction = ClasspathTransaction.begin(project);
+        update(transaction, containers, omniJavaSourceSettings);
+        transaction.commit(monitor);
+    }
+
+    public static void update(ClasspathTransaction transaction, Optional<List<OmniEclipseClasspathContainer>> containers, OmniJavaSourceSettings omniJavaSourceSettings) {
+        new ClasspathContainerUpdater(containers, omniJavaSourceSettings).updateContainers(transaction.getEntries());
     }
 
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaModelException;
+
+/**
+ * Collects the modifications of the raw classpath and of the default output location of a Java
+ * project and applies them at once.
+ * <p/>
+ * Every call to {@link IJavaProject#setRawClasspath(IClasspathEntry[], IProgressMonitor)} or to
+ * {@link IJavaProject#setOutputLocation(IPath, IProgressMonitor)} validates the classpath and
+ * fires a Java model delta. The updaters taking part in the synchronization therefore only modify
+ * the transaction and {@link #commit(IProgressMonitor)} writes the result with a single call. If
+ * the result equals the current state of the project, then nothing is written at all.
+ *
+ * @author Donat Csikos
+ */
+final class ClasspathTransaction {
+
+    private final IJavaProject project;
+    private final ImmutableList<IClasspathEntry> originalEntries;
+    private final IPath originalOutputLocation;
+    private List<IClasspathEntry> entries;
+    private IPath outputLocation;
+
+    private ClasspathTransaction(IJavaProject project, IClasspathEntry[] entries, IPath outputLocation) {
+        this.project = Preconditions.checkNotNull(project);
+        this.originalEntries = ImmutableList.copyOf(entries);
+        this.originalOutputLocation = outputLocation;
+        this.entries = Lists.newArrayList(entries);
+        this.outputLocation = outputLocation;
+    }
+
+    /**
+     * Returns the project which is modified by this transaction.
+     *
+     * @return the target project
+     */
+    public IJavaProject getProject() {
+        return this.project;
+    }
+
+    /**
+     * Returns the current raw classpath entries of the transaction. The returned list can be modified in place.
+     *
+     * @return the mutable list of classpath entries
+     */
+    public List<IClasspathEntry> getEntries() {
+        return this.entries;
+    }
+
+    /**
+     * Replaces the raw classpath entries of the transaction.
+     *
+     * @param entries the new classpath entries
+     */
+    public void setEntries(List<IClasspathEntry> entries) {
+        this.entries = Lists.newArrayList(entries);
+    }
+
+    /**
+     * Returns the default output location of the transaction.
+     *
+     * @return the workspace-relative output location
+     */
+    public IPath getOutputLocation() {
+        return this.outputLocation;
+    }
+
+    /**
+     * Sets the default output location of the transaction.
+     *
+     * @param outputLocation the workspace-relative output location
+     */
+    public void setOutputLocation(IPath outputLocation) {
+        this.outputLocation = Preconditions.checkNotNull(outputLocation);
+    }
+
+    /**
+     * Returns whether the transaction differs from the state of the project at the time the
+     * transaction was started.
+     *
+     * @return {@code true} if the classpath or the output location was changed
+     */
+    public boolean isModified() {
+        return !this.originalEntries.equals(this.entries) || !this.outputLocation.equals(this.originalOutputLocation);
+    }
+
+    /**
+     * Writes the raw classpath and the output location to the project with a single call if they
+     * differ from the current state.
+     *
+     * @param monitor the monitor to report the progress on
+     * @throws JavaModelException if the classpath cannot be assigned
+     */
+    public void commit(IProgressMonitor monitor) throws JavaModelException {
+        if (isModified()) {
+            this.project.setRawClasspath(this.entries.toArray(new IClasspathEntry[this.entries.size()]), this.outputLocation, monitor);
+        }
+    }
+
+    /**
+     * Starts a new transaction based on the current classpath and output location of the project.
+     *
+     * @param project the target project
+     * @return the new transaction
+     * @throws JavaModelException if the classpath of the project cannot be read
+     */
+    public static ClasspathTransaction begin(IJavaProject project) throws JavaModelException {
+        return new ClasspathTransaction(project, project.getRawClasspath(), project.getOutputLocation());
+    }
+}
@@ -8,6 +8,7 @@
 
 package org.eclipse.buildship.core.workspace.internal;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
 import java.lang.reflect.InvocationHandler;
@@ -17,12 +18,13 @@ import java.lang.reflect.Proxy;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.Collection;
+import java.util.Map;
 
 import org.gradle.tooling.BuildAction;
 import org.gradle.tooling.BuildActionExecuter;
 import org.gradle.tooling.BuildLauncher;
+import org.gradle.tooling.CancellationToken;
 import org.gradle.tooling.GradleConnectionException;
-import org.gradle.tooling.GradleConnector;
 import org.gradle.tooling.LongRunningOperation;
 import org.gradle.tooling.ModelBuilder;
 import org.gradle.tooling.ProgressListener;
@@ -39,10 +41,11 @@ import org.eclipse.core.runtime.Platform;
 import org.eclipse.buildship.core.CorePlugin;
 import org.eclipse.buildship.core.GradlePluginsRuntimeException;
 import org.eclipse.buildship.core.configuration.GradleArguments;
+import org.eclipse.buildship.core.util.trace.TraceSpan;
 
 /**
- * Provides long-running TAPI operation instances that close their project connection after the execution is
- * finished.
+ * Provides long-running TAPI operation instances that return their project connection to the
+ * {@link ProjectConnectionPool} after the execution is finished.
  *
  * @author Donat Csikos
  */
@@ -50,50 +53,89 @@ import org.eclipse.buildship.core.configuration.GradleArguments;
 final class ConnectionAwareLauncherProxy implements InvocationHandler {
 
     private final LongRunningOperation launcher;
-    private final ProjectConnection connection;
+    private final ProjectConnectionPool.Lease lease;
+    private final CancellationToken cancellationToken;
     private static URLClassLoader ideFriendlyCustomActionClassLoader;
 
-    private ConnectionAwareLauncherProxy(ProjectConnection connection, LongRunningOperation target) {
-        this.connection = connection;
+    private ConnectionAwareLauncherProxy(ProjectConnectionPool.Lease lease, LongRunningOperation target, CancellationToken cancellationToken) {
+        this.lease = lease;
         this.launcher = target;
+        this.cancellationToken = cancellationToken;
     }
 
     static <T> ModelBuilder<T> newModelBuilder(Class<T> model, GradleArguments gradleArguments, TransientRequestAttributes transientAttributes) {
-        ProjectConnection connection = openConnection(gradleArguments);
-        ModelBuilder<T> builder = connection.model(model);
-        BuildEnvironment buildEnvironment = connection.getModel(BuildEnvironment.class);
-        applyConfiguration(builder, gradleArguments, buildEnvironment, transientAttributes);
-        return (ModelBuilder<T>) newProxyInstance(connection, builder);
+        ProjectConnectionPool.Lease lease = acquireConnection(gradleArguments);
+        try {
+            ProjectConnection connection = lease.getConnection();
+            ModelBuilder<T> builder = connection.model(model);
+            BuildEnvironment buildEnvironment = CorePlugin.buildEnvironmentCache().get(gradleArguments, connection);
+            applyConfiguration(builder, gradleArguments, buildEnvironment, transientAttributes);
+            return (ModelBuilder<T>) newProxyInstance(lease, builder, transientAttributes);
+        } catch (RuntimeException e) {
+            // the operation is never executed, hence the connection is not released by the proxy
+            lease.release();
+            throw e;
+        }
     }
 
     static <T> BuildActionExecuter<Collection<T>> newCompositeModelQueryExecuter(Class<T> model, GradleArguments gradleArguments, TransientRequestAttributes transientAttributes) {
-        ProjectConnection connection = openConnection(gradleArguments);
-        BuildEnvironment buildEnvironment = connection.getModel(BuildEnvironment.class);
-        BuildActionExecuter<Collection<T>> executer = connection.action(compositeModelQuery(model));
-        applyConfiguration(executer, gradleArguments, buildEnvironment, transientAttributes);
-        return (BuildActionExecuter<Collection<T>>) newProxyInstance(connection, executer);
+        ProjectConnectionPool.Lease lease = acquireConnection(gradleArguments);
+        try {
+            ProjectConnection connection = lease.getConnection();
+            BuildEnvironment buildEnvironment = CorePlugin.buildEnvironmentCache().get(gradleArguments, connection);
+            BuildActionExecuter<Collection<T>> executer = connection.action(compositeModelQuery(model));
+            applyConfiguration(executer, gradleArguments, buildEnvironment, transientAttributes);
+            return (BuildActionExecuter<Collection<T>>) newProxyInstance(lease, executer, transientAttributes);
+        } catch (RuntimeException e) {
+            lease.release();
+            throw e;
+        }
+    }
+
+    static BuildActionExecuter<Map<String, Object>> newSyncSnapshotQueryExecuter(GradleArguments gradleArguments, File channelFile, TransientRequestAttributes transientAttributes) {
+        ProjectConnectionPool.Lease lease = acquireConnection(gradleArguments);
+        try {
+            ProjectConnection connection = lease.getConnection();
+            BuildEnvironment buildEnvironment = CorePlugin.buildEnvironmentCache().get(gradleArguments, connection);
+            BuildActionExecuter<Map<String, Object>> executer = connection.action(syncSnapshotQuery(channelFile));
+            applyConfiguration(executer, gradleArguments, buildEnvironment, transientAttributes);
+            return (BuildActionExecuter<Map<String, Object>>) newProxyInstance(lease, executer, transientAttributes);
+        } catch (RuntimeException e) {
+            lease.release();
+            throw e;
+        }
     }
 
     static BuildLauncher newBuildLauncher(GradleArguments gradleArguments, Writer configWriter, TransientRequestAttributes transientAttributes) {
-        ProjectConnection connection = openConnection(gradleArguments);
-        BuildEnvironment buildEnvironment = connection.getModel(BuildEnvironment.class);
-        BuildLauncher launcher = connection.newBuild();
-        applyConfiguration(launcher, gradleArguments, buildEnvironment, configWriter, transientAttributes);
-        return (BuildLauncher) newProxyInstance(connection, launcher);
+        ProjectConnectionPool.Lease lease = acquireConnection(gradleArguments);
+        try {
+            ProjectConnection connection = lease.getConnection();
+            BuildEnvironment buildEnvironment = CorePlugin.buildEnvironmentCache().get(gradleArguments, connection);
+            BuildLauncher launcher = connection.newBuild();
+            applyConfiguration(launcher, gradleArguments, buildEnvironment, configWriter, transientAttributes);
+            return (BuildLauncher) newProxyInstance(lease, launcher, transientAttributes);
+        } catch (RuntimeException e) {
+            lease.release();
+            throw e;
+        }
     }
 
     static TestLauncher newTestLauncher(GradleArguments gradleArguments, Writer configWriter, TransientRequestAttributes transientAttributes) {
-        ProjectConnection connection = openConnection(gradleArguments);
-        BuildEnvironment buildEnvironment = connection.getModel(BuildEnvironment.class);
-        TestLauncher launcher = connection.newTestLauncher();
-        applyConfiguration(launcher, gradleArguments, buildEnvironment, configWriter, transientAttributes);
-        return (TestLauncher) newProxyInstance(connection, launcher);
+        ProjectConnectionPool.Lease lease = acquireConnection(gradleArguments);
+        try {
+            ProjectConnection connection = lease.getConnection();
+            BuildEnvironment buildEnvironment = CorePlugin.buildEnvironmentCache().get(gradleArguments, connection);
+            TestLauncher launcher = connection.newTestLauncher();
+            applyConfiguration(launcher, gradleArguments, buildEnvironment, configWriter, transientAttributes);
+            return (TestLauncher) newProxyInstance(lease, launcher, transientAttributes);
+        } catch (RuntimeException e) {
+            lease.release();
+            throw e;
+        }
     }
 
-    private static ProjectConnection openConnection(GradleArguments gradleArguments) {
-        GradleConnector connector = GradleConnector.newConnector();
-        gradleArguments.applyTo(connector);
-        return connector.connect();
+    private static ProjectConnectionPool.Lease acquireConnection(GradleArguments gradleArguments) {
+        return CorePlugin.projectConnectionPool().acquire(gradleArguments);
     }
 
     private static void applyConfiguration(LongRunningOperation operation, GradleArguments gradleArguments, BuildEnvironment buildEnvironment,
@@ -121,13 +163,22 @@ final class ConnectionAwareLauncherProxy implements InvocationHandler {
 
     private static <T> BuildAction<Collection<T>> compositeModelQuery(Class<T> model) {
         if (Platform.inDevelopmentMode()) {
-            return ideFriendlyCompositeModelQuery(model);
+            return (BuildAction<Collection<T>>) ideFriendlyBuildAction(CompositeModelQuery.class, new Class<?>[] { Class.class }, model);
         } else {
             return new CompositeModelQuery<>(model);
         }
     }
 
-    private static <T> BuildAction<Collection<T>> ideFriendlyCompositeModelQuery(Class<T> model) {
+    private static BuildAction<Map<String, Object>> syncSnapshotQuery(File channelFile) {
+        String channelPath = channelFile == null ? null : channelFile.getAbsolutePath();
+        if (Platform.inDevelopmentMode()) {
+            return (BuildAction<Map<String, Object>>) ideFriendlyBuildAction(SyncSnapshotQuery.class, new Class<?>[] { String.class }, channelPath);
+        } else {
+            return new SyncSnapshotQuery(channelPath);
+        }
+    }
+
+    private static BuildAction<?> ideFriendlyBuildAction(Class<?> buildActionType, Class<?>[] parameterTypes, Object... constructorArguments) {
         // When Buildship is launched from the IDE - as an Eclipse application or as a plugin-in
         // test - the URLs returned by the Equinox class loader is incorrect. This means, the
         // Tooling API is unable to find the referenced build actions and fails with a CNF
@@ -138,17 +189,17 @@ final class ConnectionAwareLauncherProxy implements InvocationHandler {
             ClassLoader tapiClassloader = ProjectConnection.class.getClassLoader();
             URL actionRootUrl = FileLocator.resolve(coreClassloader.getResource(""));
             ideFriendlyCustomActionClassLoader = new URLClassLoader(new URL[] { actionRootUrl }, tapiClassloader);
-            Class<?> actionClass = ideFriendlyCustomActionClassLoader.loadClass(CompositeModelQuery.class.getName());
-            return (BuildAction<Collection<T>>) actionClass.getConstructor(Class.class).newInstance(model);
+            Class<?> actionClass = ideFriendlyCustomActionClassLoader.loadClass(buildActionType.getName());
+            return (BuildAction<?>) actionClass.getConstructor(parameterTypes).newInstance(constructorArguments);
         } catch (Exception e) {
             throw new GradlePluginsRuntimeException(e);
         }
     }
 
-    private static Object newProxyInstance(ProjectConnection connection, LongRunningOperation launcher) {
+    private static Object newProxyInstance(ProjectConnectionPool.Lease lease, LongRunningOperation launcher, TransientRequestAttributes transientAttributes) {
         return Proxy.newProxyInstance(launcher.getClass().getClassLoader(),
                                       launcher.getClass().getInterfaces(),
-                                      new ConnectionAwareLauncherProxy(connection, launcher));
+                                      new ConnectionAwareLauncherProxy(lease, launcher, transientAttributes.getCancellationToken()));
     }
 
     @Override
@@ -158,7 +209,7 @@ final class ConnectionAwareLauncherProxy implements InvocationHandler {
         if (m.getName().equals("run") || m.getName().equals("get")) {
             if (args == null) {
                 return invokeRun(m);
-            } else if (args.length == 1 && args[0].getClass() == ResultHandler.class) {
+            } else if (args.length == 1 && args[0] instanceof ResultHandler) {
                 return invokeRun(m, args[0]);
             }
         }
@@ -166,6 +217,7 @@ final class ConnectionAwareLauncherProxy implements InvocationHandler {
     }
 
     private Object invokeRun(Method m) throws Throwable {
+        TraceSpan span = CorePlugin.synchronizationTracer().startOperationSpan(this.cancellationToken, "tooling-api", m.getDeclaringClass().getSimpleName() + "." + m.getName());
         try {
             return m.invoke(this.launcher);
         } catch (InvocationTargetException e) {
@@ -175,7 +227,8 @@ final class ConnectionAwareLauncherProxy implements InvocationHandler {
                 throw e;
             }
         } finally {
-            closeConnection();
+            span.end();
+            releaseConnection();
         }
     }
 
@@ -188,7 +241,7 @@ final class ConnectionAwareLauncherProxy implements InvocationHandler {
                 try {
                     handler.onComplete(result);
                 } finally {
-                    closeConnection();
+                    releaseConnection();
                 }
             }
 
@@ -197,14 +250,14 @@ final class ConnectionAwareLauncherProxy implements InvocationHandler {
                 try {
                     handler.onFailure(e);
                 } finally {
-                    closeConnection();
+                    releaseConnection();
                 }
             }
         });
     }
 
-    private void closeConnection() {
-        this.connection.close();
+    private void releaseConnection() {
+        this.lease.release();
         if (ideFriendlyCustomActionClassLoader != null) {
             try {
                 ideFriendlyCustomActionClassLoader.close();
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+
+import com.google.common.base.Objects;
+
+import com.gradleware.tooling.toolingclient.GradleDistribution;
+
+import org.eclipse.buildship.core.configuration.GradleArguments;
+
+/**
+ * The attributes of a {@link GradleArguments} instance which determine the Tooling API connection
+ * and the build environment.
+ *
+ * @author Donat Csikos
+ */
+final class ConnectionKey {
+
+    private final File rootDir;
+    private final GradleDistribution gradleDistribution;
+    private final File gradleUserHome;
+
+    private ConnectionKey(File rootDir, GradleDistribution gradleDistribution, File gradleUserHome) {
+        this.rootDir = rootDir;
+        this.gradleDistribution = gradleDistribution;
+        this.gradleUserHome = gradleUserHome;
+    }
+
+    File getRootDir() {
+        return this.rootDir;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof ConnectionKey) {
+            ConnectionKey other = (ConnectionKey) obj;
+            return Objects.equal(this.rootDir, other.rootDir)
+                    && Objects.equal(this.gradleDistribution, other.gradleDistribution)
+                    && Objects.equal(this.gradleUserHome, other.gradleUserHome);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.rootDir, this.gradleDistribution, this.gradleUserHome);
+    }
+
+    static ConnectionKey from(GradleArguments gradleArguments) {
+        return new ConnectionKey(gradleArguments.getRootDir(), gradleArguments.getGradleDistribution(), gradleArguments.getGradleUserHome());
+    }
+}
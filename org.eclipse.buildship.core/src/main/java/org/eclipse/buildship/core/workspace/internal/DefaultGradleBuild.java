@@ -25,7 +25,6 @@ import org.eclipse.buildship.core.configuration.BuildConfiguration;
 import org.eclipse.buildship.core.configuration.RunConfiguration;
 import org.eclipse.buildship.core.util.progress.AsyncHandler;
 import org.eclipse.buildship.core.workspace.GradleBuild;
-import org.eclipse.buildship.core.workspace.ModelProvider;
 import org.eclipse.buildship.core.workspace.NewProjectHandler;
 
 /**
@@ -74,7 +73,7 @@ public class DefaultGradleBuild implements GradleBuild {
     }
 
     @Override
-    public ModelProvider getModelProvider() {
+    public DefaultModelProvider getModelProvider() {
         return this.modelProvider;
     }
 
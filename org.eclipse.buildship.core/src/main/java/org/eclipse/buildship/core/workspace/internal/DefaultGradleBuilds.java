@@ -40,6 +40,11 @@ public class DefaultGradleBuilds implements GradleBuilds {
         SynchronizeGradleBuildsJob.forMultipleGradleBuilds(this, newProjectHandler, AsyncHandler.NO_OP).schedule();
     }
 
+    @Override
+    public void synchronizeFully(NewProjectHandler newProjectHandler) {
+        SynchronizeGradleBuildsJob.fullSynchronizationForMultipleGradleBuilds(this, newProjectHandler, AsyncHandler.NO_OP).schedule();
+    }
+
     @Override
     public Iterator<GradleBuild> iterator() {
         return ImmutableSet.<GradleBuild>copyOf(this.getGradleBuilds()).iterator();
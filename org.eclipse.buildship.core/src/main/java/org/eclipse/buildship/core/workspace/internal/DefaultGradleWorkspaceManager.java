@@ -7,16 +7,22 @@
  */
 package org.eclipse.buildship.core.workspace.internal;
 
+import java.io.File;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.google.common.base.Function;
+import com.google.common.base.Objects;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicates;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.Lists;
 
 import com.gradleware.tooling.toolingmodel.repository.FixedRequestAttributes;
 
@@ -32,12 +38,17 @@ import org.eclipse.buildship.core.workspace.GradleWorkspaceManager;
 
 /**
  * Default implementation of {@link GradleWorkspaceManager}.
+ * <p/>
+ * The builds are cached by their configuration. The builds whose configuration is not used by any
+ * workspace project anymore are evicted when projects are removed from the workspace, see
+ * {@link #evictUnreferencedBuilds()}. The models of the builds are bounded separately by the
+ * {@link ModelCacheRegistry}.
  *
  * @author Stefan Oehme
  */
 public class DefaultGradleWorkspaceManager implements GradleWorkspaceManager {
 
-    private final LoadingCache<BuildConfiguration, GradleBuild> cache = CacheBuilder.newBuilder().build(new CacheLoader<BuildConfiguration, GradleBuild>() {
+    private final LoadingCache<BuildConfiguration, GradleBuild> cache = CacheBuilder.newBuilder().recordStats().build(new CacheLoader<BuildConfiguration, GradleBuild>() {
 
         @Override
         public GradleBuild load(BuildConfiguration buildConfiguration) {
@@ -61,6 +72,30 @@ public class DefaultGradleWorkspaceManager implements GradleWorkspaceManager {
         return this.cache.getUnchecked(buildConfig);
     }
 
+    /**
+     * Returns the already requested builds located in the given directory which use the same
+     * effective settings as the given build configuration.
+     *
+     * @param rootDir the root directory of the builds
+     * @param settings the configuration defining the Gradle distribution, the Gradle user home, the
+     *            offline mode and the build scans settings
+     * @return the matching builds
+     */
+    List<DefaultGradleBuild> getCachedGradleBuilds(File rootDir, BuildConfiguration settings) {
+        List<DefaultGradleBuild> result = Lists.newArrayList();
+        for (GradleBuild gradleBuild : this.cache.asMap().values()) {
+            BuildConfiguration buildConfig = gradleBuild.getBuildConfig();
+            if (buildConfig.getRootProjectDirectory().equals(rootDir)
+                    && Objects.equal(buildConfig.getGradleDistribution(), settings.getGradleDistribution())
+                    && Objects.equal(buildConfig.getGradleUserHome(), settings.getGradleUserHome())
+                    && buildConfig.isOfflineMode() == settings.isOfflineMode()
+                    && buildConfig.isBuildScansEnabled() == settings.isBuildScansEnabled()) {
+                result.add((DefaultGradleBuild) gradleBuild);
+            }
+        }
+        return result;
+    }
+
     @Override
     public Optional<GradleBuild> getGradleBuild(IProject project) {
         if (GradleProjectNature.isPresentOn(project)) {
@@ -85,6 +120,29 @@ public class DefaultGradleWorkspaceManager implements GradleWorkspaceManager {
         return new DefaultGradleBuilds(getBuildConfigs(projects));
     }
 
+    /**
+     * Returns the statistics of the build cache. The statistics of the model caches of the builds
+     * are available via {@link ModelCacheRegistry#getStats()}.
+     *
+     * @return the cache statistics
+     */
+    public CacheStats getStats() {
+        return this.cache.stats();
+    }
+
+    /**
+     * Evicts the builds whose configuration is not used by any workspace project. The builds being
+     * synchronized are kept.
+     */
+    void evictUnreferencedBuilds() {
+        Set<BuildConfiguration> referencedBuildConfigs = getBuildConfigs(CorePlugin.workspaceOperations().getAllProjects());
+        for (Map.Entry<BuildConfiguration, GradleBuild> entry : this.cache.asMap().entrySet()) {
+            if (!referencedBuildConfigs.contains(entry.getKey()) && !entry.getValue().isSyncRunning()) {
+                this.cache.asMap().remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
     private Set<BuildConfiguration> getBuildConfigs(Collection<IProject> projects) {
         return FluentIterable.from(projects).filter(GradleProjectNature.isPresentOn()).transform(new Function<IProject, BuildConfiguration>() {
 
@@ -8,26 +8,36 @@
  */
 package org.eclipse.buildship.core.workspace.internal;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.gradle.tooling.BuildActionExecuter;
 import org.gradle.tooling.CancellationToken;
+import org.gradle.tooling.GradleConnectionException;
 import org.gradle.tooling.GradleConnector;
 import org.gradle.tooling.ModelBuilder;
 import org.gradle.tooling.ProgressListener;
+import org.gradle.tooling.ResultHandler;
 import org.gradle.tooling.model.build.BuildEnvironment;
 import org.gradle.tooling.model.eclipse.EclipseProject;
 import org.gradle.tooling.model.gradle.GradleBuild;
 import org.gradle.util.GradleVersion;
 
 import com.google.common.base.Supplier;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 
 import com.gradleware.tooling.toolingmodel.OmniBuildEnvironment;
@@ -40,12 +50,15 @@ import com.gradleware.tooling.toolingmodel.repository.internal.DefaultOmniEclips
 import com.gradleware.tooling.toolingmodel.repository.internal.DefaultOmniGradleBuild;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 
 import org.eclipse.buildship.core.CorePlugin;
 import org.eclipse.buildship.core.GradlePluginsRuntimeException;
 import org.eclipse.buildship.core.configuration.BuildConfiguration;
 import org.eclipse.buildship.core.console.ProcessStreams;
 import org.eclipse.buildship.core.util.progress.DelegatingProgressListener;
+import org.eclipse.buildship.core.workspace.EclipseProjectsListener;
+import org.eclipse.buildship.core.workspace.GradleWorkspaceManager;
 import org.eclipse.buildship.core.workspace.ModelProvider;
 
 /**
@@ -55,36 +68,55 @@ import org.eclipse.buildship.core.workspace.ModelProvider;
  */
 final class DefaultModelProvider implements ModelProvider {
 
+    private static final long CHANNEL_POLL_INTERVAL_MILLIS = 100;
+
     private final BuildConfiguration buildConfiguration;
-    private final Cache<Object, Object> cache = CacheBuilder.newBuilder().build();
+    private final ModelCacheRegistry.ModelCache cache;
 
     public DefaultModelProvider(BuildConfiguration buildConfiguration) {
         this.buildConfiguration = buildConfiguration;
+        this.cache = CorePlugin.modelCacheRegistry().newCache();
     }
 
     @Override
-    public <T> T fetchModel(Class<T> model, FetchStrategy strategy, CancellationToken token, IProgressMonitor monitor) {
-        TransientRequestAttributes transientAttributes = getTransientRequestAttributes(token, monitor);
-        ModelBuilder<T> builder = ConnectionAwareLauncherProxy.newModelBuilder(model, this.buildConfiguration.toGradleArguments(), transientAttributes);
-        return executeModelBuilder(builder, strategy, model);
+    public <T> T fetchModel(final Class<T> model, FetchStrategy strategy, CancellationToken token, IProgressMonitor monitor) {
+        final TransientRequestAttributes transientAttributes = getTransientRequestAttributes(token, monitor);
+        return executeOperation(new Supplier<T>() {
+
+            @Override
+            public T get() {
+                return newModelBuilder(model, transientAttributes).get();
+            }
+        }, strategy, model, model == GradleBuild.class);
     }
 
     @Override
-    public <T> Collection<T> fetchModels(Class<T> model, FetchStrategy strategy, CancellationToken token, IProgressMonitor monitor) {
-        TransientRequestAttributes transientAttributes = getTransientRequestAttributes(token, monitor);
-        if (supportsCompositeBuilds(token, monitor)) {
-            final BuildActionExecuter<Collection<T>> executer = ConnectionAwareLauncherProxy
-                    .newCompositeModelQueryExecuter(model, DefaultModelProvider.this.buildConfiguration.toGradleArguments(), transientAttributes);
-            return executeBuildActionExecuter(executer, strategy, model);
-        } else {
-            ModelBuilder<T> builder = ConnectionAwareLauncherProxy.newModelBuilder(model, this.buildConfiguration.toGradleArguments(), transientAttributes);
-            return ImmutableList.of(executeModelBuilder(builder, strategy, model));
-        }
+    public <T> Collection<T> fetchModels(final Class<T> model, FetchStrategy strategy, CancellationToken token, IProgressMonitor monitor) {
+        final TransientRequestAttributes transientAttributes = getTransientRequestAttributes(token, monitor);
+        // the launchers are only created when the model is not served from the cache such that no
+        // pooled connection is borrowed without being returned
+        return executeOperation(new Supplier<Collection<T>>() {
+
+            @Override
+            public Collection<T> get() {
+                if (!supportsCompositeBuilds()) {
+                    return ImmutableList.of(newModelBuilder(model, transientAttributes).get());
+                } else if (model == EclipseProject.class) {
+                    @SuppressWarnings("unchecked")
+                    Collection<T> result = (Collection<T>) fetchSyncSnapshot(transientAttributes, null);
+                    return result;
+                } else {
+                    BuildActionExecuter<Collection<T>> executer = ConnectionAwareLauncherProxy
+                            .newCompositeModelQueryExecuter(model, DefaultModelProvider.this.buildConfiguration.toGradleArguments(), transientAttributes);
+                    return executer.run();
+                }
+            }
+        }, strategy, model, model == EclipseProject.class);
     }
 
     @Override
     public OmniBuildEnvironment fetchBuildEnvironment(FetchStrategy strategy, CancellationToken token, IProgressMonitor monitor) {
-        BuildEnvironment model = fetchModel(BuildEnvironment.class, strategy, token, monitor);
+        BuildEnvironment model = fetchCachedBuildEnvironment(strategy);
         return DefaultOmniBuildEnvironment.from(model);
     }
 
@@ -104,27 +136,121 @@ final class DefaultModelProvider implements ModelProvider {
         return result.build();
     }
 
-    private <T> T executeBuildActionExecuter(final BuildActionExecuter<T> executer, FetchStrategy fetchStrategy, Class<?> cacheKey) {
-        return executeOperation(new Supplier<T>() {
+    @Override
+    public Set<OmniEclipseProject> fetchEclipseGradleProjects(FetchStrategy strategy, CancellationToken token, IProgressMonitor monitor, final EclipseProjectsListener listener) {
+        final TransientRequestAttributes transientAttributes = getTransientRequestAttributes(token, monitor);
+        final AtomicBoolean streamed = new AtomicBoolean(false);
+        Collection<EclipseProject> models = executeOperation(new Supplier<Collection<EclipseProject>>() {
 
             @Override
-            public T get() {
-                return executer.run();
+            public Collection<EclipseProject> get() {
+                if (!supportsCompositeBuilds()) {
+                    return ImmutableList.of(newModelBuilder(EclipseProject.class, transientAttributes).get());
+                }
+                streamed.set(true);
+                return fetchSyncSnapshot(transientAttributes, listener);
             }
-        }, fetchStrategy, cacheKey);
+        }, strategy, EclipseProject.class, true);
+
+        ImmutableSet.Builder<OmniEclipseProject> result = ImmutableSet.builder();
+        for (EclipseProject model : models) {
+            // models served from the cache or from a persisted snapshot were not streamed
+            if (!streamed.get()) {
+                List<File> projectDirs = Lists.newArrayList();
+                SyncSnapshotQuery.collectProjectDirs(model, projectDirs);
+                listener.eclipseProjectsLoaded(model.getProjectDirectory(), projectDirs);
+            }
+            result.addAll(DefaultOmniEclipseProject.from(model).getAll());
+        }
+        return result.build();
     }
 
-    private <T> T executeModelBuilder(final ModelBuilder<T> builder, FetchStrategy fetchStrategy, Class<?> cacheKey) {
-        return executeOperation(new Supplier<T>() {
+    private Collection<EclipseProject> fetchSyncSnapshot(TransientRequestAttributes transientAttributes, EclipseProjectsListener listener) {
+        // load all models required by the synchronization and by the UI in one Gradle invocation and
+        // store the build-scoped models in the cache as a side effect
+        Map<String, Object> snapshot = listener == null ? runSyncSnapshotQuery(null, transientAttributes) : streamSyncSnapshotQuery(listener, transientAttributes);
+        GradleBuild gradleBuild = (GradleBuild) snapshot.get(GradleBuild.class.getName());
+        this.cache.put(GradleBuild.class, gradleBuild);
+        cacheIncludedBuilds(gradleBuild);
+        @SuppressWarnings("unchecked")
+        Collection<EclipseProject> eclipseProjects = (Collection<EclipseProject>) snapshot.get(EclipseProject.class.getName());
+        return eclipseProjects;
+    }
 
-            @Override
-            public T get() {
-                return builder.get();
+    private Map<String, Object> runSyncSnapshotQuery(File channelFile, TransientRequestAttributes transientAttributes) {
+        return ConnectionAwareLauncherProxy.newSyncSnapshotQueryExecuter(this.buildConfiguration.toGradleArguments(), channelFile, transientAttributes).run();
+    }
+
+    private Map<String, Object> streamSyncSnapshotQuery(EclipseProjectsListener listener, TransientRequestAttributes transientAttributes) {
+        EclipseProjectsChannel channel;
+        try {
+            channel = EclipseProjectsChannel.create(listener);
+        } catch (IOException e) {
+            CorePlugin.logger().warn("Can't create the channel for the projects of the included builds", e);
+            return runSyncSnapshotQuery(null, transientAttributes);
+        }
+
+        try {
+            // the action runs asynchronously such that this thread can poll the channel meanwhile
+            final SettableFuture<Map<String, Object>> result = SettableFuture.create();
+            ConnectionAwareLauncherProxy.newSyncSnapshotQueryExecuter(this.buildConfiguration.toGradleArguments(), channel.getFile(), transientAttributes)
+                    .run(new ResultHandler<Map<String, Object>>() {
+
+                        @Override
+                        public void onComplete(Map<String, Object> snapshot) {
+                            result.set(snapshot);
+                        }
+
+                        @Override
+                        public void onFailure(GradleConnectionException e) {
+                            result.setException(e);
+                        }
+                    });
+
+            while (true) {
+                try {
+                    Map<String, Object> snapshot = result.get(CHANNEL_POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    channel.poll();
+                    return snapshot;
+                } catch (TimeoutException e) {
+                    channel.poll();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OperationCanceledException();
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void cacheIncludedBuilds(GradleBuild gradleBuild) {
+        // the included builds which are also used as standalone builds with the same settings don't
+        // have to load their structure in a separate request
+        GradleWorkspaceManager workspaceManager = CorePlugin.gradleWorkspaceManager();
+        if (!(workspaceManager instanceof DefaultGradleWorkspaceManager)) {
+            return;
+        }
+
+        for (GradleBuild includedBuild : gradleBuild.getIncludedBuilds()) {
+            File rootDir = includedBuild.getRootProject().getProjectDirectory();
+            for (DefaultGradleBuild build : ((DefaultGradleWorkspaceManager) workspaceManager).getCachedGradleBuilds(rootDir, this.buildConfiguration)) {
+                build.getModelProvider().cache.put(GradleBuild.class, includedBuild);
             }
-        }, fetchStrategy, cacheKey);
+        }
+    }
+
+    private <T> ModelBuilder<T> newModelBuilder(Class<T> model, TransientRequestAttributes transientAttributes) {
+        return ConnectionAwareLauncherProxy.newModelBuilder(model, this.buildConfiguration.toGradleArguments(), transientAttributes);
     }
 
-    private <T> T executeOperation(final Supplier<T> operation, FetchStrategy fetchStrategy, Class<?> cacheKey) {
+    private <T> T executeOperation(Supplier<T> operation, FetchStrategy fetchStrategy, Class<?> cacheKey) {
+        return executeOperation(operation, fetchStrategy, cacheKey, false);
+    }
+
+    private <T> T executeOperation(final Supplier<T> operation, final FetchStrategy fetchStrategy, final Class<?> cacheKey, final boolean persistent) {
         if (FetchStrategy.FROM_CACHE_ONLY == fetchStrategy) {
             @SuppressWarnings("unchecked")
             T result = (T) this.cache.getIfPresent(cacheKey);
@@ -139,7 +265,23 @@ final class DefaultModelProvider implements ModelProvider {
 
             @Override
             public T call() {
+                ModelSnapshotStore snapshotStore = CorePlugin.modelSnapshotStore();
+                if (!persistent) {
+                    return operation.get();
+                }
+
+                if (FetchStrategy.LOAD_IF_NOT_CACHED == fetchStrategy) {
+                    @SuppressWarnings("unchecked")
+                    T snapshot = (T) snapshotStore.load(DefaultModelProvider.this.buildConfiguration, cacheKey);
+                    if (snapshot != null) {
+                        return snapshot;
+                    }
+                }
+
+                // the snapshot is discarded if the build scripts change while the model is loaded
+                long loadStartTime = System.currentTimeMillis();
                 T model = operation.get();
+                snapshotStore.save(DefaultModelProvider.this.buildConfiguration, cacheKey, model, loadStartTime);
                 return model;
             }
         });
@@ -161,8 +303,22 @@ final class DefaultModelProvider implements ModelProvider {
         }
     }
 
-    private boolean supportsCompositeBuilds(CancellationToken token, IProgressMonitor monitor) {
-        BuildEnvironment buildEnvironment = fetchModel(BuildEnvironment.class, FetchStrategy.FORCE_RELOAD, token, monitor);
+    private BuildEnvironment fetchCachedBuildEnvironment(FetchStrategy strategy) {
+        final BuildEnvironmentCache buildEnvironmentCache = CorePlugin.buildEnvironmentCache();
+        if (FetchStrategy.FORCE_RELOAD == strategy) {
+            buildEnvironmentCache.invalidate(this.buildConfiguration.getRootProjectDirectory());
+        }
+        return executeOperation(new Supplier<BuildEnvironment>() {
+
+            @Override
+            public BuildEnvironment get() {
+                return buildEnvironmentCache.get(DefaultModelProvider.this.buildConfiguration.toGradleArguments());
+            }
+        }, strategy, BuildEnvironment.class);
+    }
+
+    private boolean supportsCompositeBuilds() {
+        BuildEnvironment buildEnvironment = CorePlugin.buildEnvironmentCache().get(this.buildConfiguration.toGradleArguments());
         GradleVersion gradleVersion = GradleVersion.version(buildEnvironment.getGradle().getGradleVersion());
         return gradleVersion.getBaseVersion().compareTo(GradleVersion.version("3.3")) >= 0;
     }
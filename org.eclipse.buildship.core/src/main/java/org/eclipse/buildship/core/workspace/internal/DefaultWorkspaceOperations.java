@@ -36,6 +36,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.SubMonitor;
 
+import org.eclipse.buildship.core.CorePlugin;
 import org.eclipse.buildship.core.GradlePluginsRuntimeException;
 import org.eclipse.buildship.core.UnsupportedConfigurationException;
 import org.eclipse.buildship.core.workspace.WorkspaceOperations;
@@ -51,29 +52,15 @@ public class DefaultWorkspaceOperations implements WorkspaceOperations {
     }
 
     @Override
-    public Optional<IProject> findProjectByName(final String name) {
-        return FluentIterable.from(getAllProjects()).firstMatch(new Predicate<IProject>() {
-
-            @Override
-            public boolean apply(IProject project) {
-                return project.getName().equals(name);
-            }
-        });
+    public Optional<IProject> findProjectByName(String name) {
+        // the workspace tree is already indexed by project name
+        IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(name);
+        return project.exists() && !project.isHidden() ? Optional.of(project) : Optional.<IProject>absent();
     }
 
     @Override
-    public Optional<IProject> findProjectByLocation(final File directory) {
-        return FluentIterable.from(getAllProjects()).firstMatch(new Predicate<IProject>() {
-
-            @Override
-            public boolean apply(IProject project) {
-                IPath location = project.getLocation();
-                // since Eclipse 3.4 projects can be non-local and they could return null locations
-                // for Buildship this is not the case, Gradle projects are always available on the
-                // local file system
-                return location != null && location.toFile().equals(directory);
-            }
-        });
+    public Optional<IProject> findProjectByLocation(File directory) {
+        return CorePlugin.workspaceProjectIndex().findByLocation(directory);
     }
 
     @Override
@@ -111,6 +98,7 @@ public class DefaultWorkspaceOperations implements WorkspaceOperations {
             projectDescription.setComment(String.format("Project %s created by Buildship.", name));
             IProject project = workspace.getRoot().getProject(name);
             project.create(projectDescription, progress.newChild(1));
+            CorePlugin.workspaceProjectIndex().projectAdded(project);
 
             // open the project
             project.open(IResource.BACKGROUND_REFRESH, progress.newChild(1));
@@ -143,6 +131,7 @@ public class DefaultWorkspaceOperations implements WorkspaceOperations {
             IWorkspace workspace = ResourcesPlugin.getWorkspace();
             IProject project = workspace.getRoot().getProject(projectName);
             project.create(projectDescription, progress.newChild(1));
+            CorePlugin.workspaceProjectIndex().projectAdded(project);
 
             // open the project
             project.open(IResource.BACKGROUND_REFRESH, progress.newChild(1));
@@ -355,7 +344,11 @@ public class DefaultWorkspaceOperations implements WorkspaceOperations {
         } catch (CoreException e) {
             throw new GradlePluginsRuntimeException(e);
         }
-        return findProjectByName(newName).get();
+        // update the index right away, the resource change event is only fired after the enclosing workspace operation
+        IProject movedProject = findProjectByName(newName).get();
+        CorePlugin.workspaceProjectIndex().projectRemoved(project);
+        CorePlugin.workspaceProjectIndex().projectAdded(movedProject);
+        return movedProject;
     }
 
 }
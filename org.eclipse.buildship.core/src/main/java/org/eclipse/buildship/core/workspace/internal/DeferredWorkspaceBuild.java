@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.buildship.core.CorePlugin;
+
+/**
+ * Defers the full Java builds requested while Gradle builds are synchronized with the workspace.
+ * <p/>
+ * The projects whose compiler settings changed, see {@link #requestFullBuild(IProject)}, are
+ * collected between {@link #beginSynchronization()} and the last {@link #endSynchronization()}
+ * call. Afterwards a single job joins the auto-build job family, so the incremental build of the
+ * changes made by the synchronization completes first, and then runs a full Java build for the
+ * collected projects in build order, holding the workspace build rule.
+ * <p/>
+ * The auto-build setting of the workspace is never changed. The auto-build job requires the
+ * workspace root rule, so it waits while the synchronization holds the rule of any project. Nothing
+ * is built if the auto-build is disabled.
+ *
+ * @author Donat Csikos
+ */
+public final class DeferredWorkspaceBuild {
+
+    private static final Object LOCK = new Object();
+    private static final Set<IProject> fullBuildProjects = Sets.newLinkedHashSet();
+    private static int activeSynchronizations = 0;
+    private static WorkspaceBuildJob pendingBuild;
+
+    /**
+     * Defers the requested builds until the matching {@link #endSynchronization()} call.
+     */
+    static void beginSynchronization() {
+        synchronized (LOCK) {
+            activeSynchronizations++;
+        }
+    }
+
+    /**
+     * Schedules the deferred build if no other synchronization is running.
+     */
+    static void endSynchronization() {
+        synchronized (LOCK) {
+            activeSynchronizations--;
+            if (activeSynchronizations == 0 && !fullBuildProjects.isEmpty()) {
+                scheduleBuild();
+            }
+        }
+    }
+
+    /**
+     * Requests a full Java build of the project after its compiler settings changed. If no
+     * synchronization is running, the build is scheduled immediately.
+     *
+     * @param project the project to build
+     */
+    static void requestFullBuild(IProject project) {
+        synchronized (LOCK) {
+            if (isAutoBuilding()) {
+                fullBuildProjects.add(project);
+                if (activeSynchronizations == 0) {
+                    scheduleBuild();
+                }
+            }
+        }
+    }
+
+    private static void scheduleBuild() {
+        if (pendingBuild == null) {
+            pendingBuild = new WorkspaceBuildJob();
+            pendingBuild.schedule();
+        }
+    }
+
+    private static boolean isAutoBuilding() {
+        return ResourcesPlugin.getWorkspace().getDescription().isAutoBuilding();
+    }
+
+    /**
+     * Runs the requested full builds after the pending auto-build.
+     */
+    private static final class WorkspaceBuildJob extends Job {
+
+        WorkspaceBuildJob() {
+            super("Building workspace after Gradle synchronization");
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            // the job holds no rule, so the auto-build can finish while this job waits for it
+            try {
+                Job.getJobManager().join(ResourcesPlugin.FAMILY_AUTO_BUILD, monitor);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (OperationCanceledException e) {
+                return Status.CANCEL_STATUS;
+            }
+
+            final List<IProject> projects;
+            synchronized (LOCK) {
+                if (pendingBuild == this) {
+                    pendingBuild = null;
+                }
+                // a new synchronization started, it schedules the build again when it finishes
+                if (activeSynchronizations > 0) {
+                    return Status.OK_STATUS;
+                }
+                projects = buildOrder(fullBuildProjects);
+                fullBuildProjects.clear();
+            }
+
+            IWorkspace workspace = ResourcesPlugin.getWorkspace();
+            try {
+                workspace.run(new IWorkspaceRunnable() {
+
+                    @Override
+                    public void run(IProgressMonitor monitor) throws CoreException {
+                        SubMonitor progress = SubMonitor.convert(monitor, projects.size());
+                        for (IProject project : projects) {
+                            // https://bugs.eclipse.org/bugs/show_bug.cgi?id=501830
+                            if (project.isAccessible()) {
+                                project.build(IncrementalProjectBuilder.FULL_BUILD, JavaCore.BUILDER_ID, Collections.<String, String>emptyMap(), progress.newChild(1));
+                            } else {
+                                progress.worked(1);
+                            }
+                        }
+                    }
+                }, workspace.getRuleFactory().buildRule(), IWorkspace.AVOID_UPDATE, monitor);
+                return Status.OK_STATUS;
+            } catch (CoreException e) {
+                return e.getStatus();
+            } finally {
+                monitor.done();
+            }
+        }
+
+        private static List<IProject> buildOrder(Set<IProject> projects) {
+            ImmutableList.Builder<IProject> result = ImmutableList.builder();
+            for (IProject project : ResourcesPlugin.getWorkspace().computeProjectOrder(projects.toArray(new IProject[projects.size()])).projects) {
+                result.add(project);
+            }
+            return result.build();
+        }
+
+        @Override
+        public boolean belongsTo(Object family) {
+            return CorePlugin.GRADLE_JOB_FAMILY.equals(family);
+        }
+    }
+
+    private DeferredWorkspaceBuild() {
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import com.google.common.collect.ImmutableList;
+
+import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.workspace.EclipseProjectsListener;
+
+/**
+ * Reads the project locations which the {@link SyncSnapshotQuery} appends to a local file while
+ * the Eclipse models of the builds participating in a composite are created.
+ * <p/>
+ * The file is polled by the thread waiting for the result of the build action, so the listener is
+ * notified on that thread. A record which is not yet completely written is read by the next poll.
+ * If the file can't be read, then no more records are delivered; the models themselves are still
+ * returned as the result of the build action.
+ *
+ * @author Donat Csikos
+ */
+final class EclipseProjectsChannel {
+
+    private final File file;
+    private final EclipseProjectsListener listener;
+    private long position;
+    private boolean broken;
+
+    private EclipseProjectsChannel(File file, EclipseProjectsListener listener) {
+        this.file = file;
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the file the build action writes to.
+     *
+     * @return the channel file
+     */
+    File getFile() {
+        return this.file;
+    }
+
+    /**
+     * Notifies the listener about all records completely written since the last poll.
+     */
+    void poll() {
+        if (this.broken) {
+            return;
+        }
+
+        try {
+            RandomAccessFile in = new RandomAccessFile(this.file, "r");
+            try {
+                long length = in.length();
+                while (length - this.position >= 4) {
+                    in.seek(this.position);
+                    int size = in.readInt();
+                    if (size < 0 || length - this.position - 4 < size) {
+                        break;
+                    }
+                    byte[] body = new byte[size];
+                    in.readFully(body);
+                    this.position += 4 + size;
+                    deliver(body);
+                }
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            this.broken = true;
+            CorePlugin.logger().warn("Can't read the projects of the included builds from " + this.file, e);
+        }
+    }
+
+    private void deliver(byte[] body) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        File buildRootDir = new File(in.readUTF());
+        int projectCount = in.readInt();
+        ImmutableList.Builder<File> projectDirs = ImmutableList.builder();
+        for (int i = 0; i < projectCount; i++) {
+            projectDirs.add(new File(in.readUTF()));
+        }
+        this.listener.eclipseProjectsLoaded(buildRootDir, projectDirs.build());
+    }
+
+    /**
+     * Deletes the channel file.
+     */
+    void close() {
+        if (!this.file.delete() && this.file.exists()) {
+            CorePlugin.logger().warn("Can't delete " + this.file);
+        }
+    }
+
+    /**
+     * Creates a new, empty channel file.
+     *
+     * @param listener the listener to notify about the records
+     * @return the new channel
+     * @throws IOException if the file can't be created
+     */
+    static EclipseProjectsChannel create(EclipseProjectsListener listener) throws IOException {
+        return new EclipseProjectsChannel(File.createTempFile("buildship-projects", ".channel"), listener);
+    }
+}
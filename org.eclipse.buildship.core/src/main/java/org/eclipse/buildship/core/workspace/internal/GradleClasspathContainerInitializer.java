@@ -11,17 +11,29 @@
 
 package org.eclipse.buildship.core.workspace.internal;
 
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.jdt.core.ClasspathContainerInitializer;
 import org.eclipse.jdt.core.IClasspathContainer;
+import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 
 import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.configuration.GradleProjectNature;
 import org.eclipse.buildship.core.workspace.GradleBuild;
+import org.eclipse.buildship.core.workspace.GradleClasspathContainer;
 
 /**
  * Updates the Gradle classpath container of the given Java workspace project.
@@ -29,14 +41,26 @@ import org.eclipse.buildship.core.workspace.GradleBuild;
  * This initializer is assigned to the projects via the
  * {@code org.eclipse.jdt.core.classpathContainerInitializer} extension point.
  * <p/>
+ * The first request is usually issued right after startup, when JDT is about to request the
+ * container of every project referencing it. Therefore the stored containers of all those projects
+ * are collected and assigned with a single {@link ClasspathContainerBatch#apply} call. The
+ * subsequent requests for the restored projects are answered without loading the models again.
  *
  * @see GradleClasspathContainerUpdater
  */
 public final class GradleClasspathContainerInitializer extends ClasspathContainerInitializer {
 
+    private final AtomicBoolean workspaceInitialized = new AtomicBoolean(false);
+    private final Set<IJavaProject> restoredProjects = Sets.newSetFromMap(new ConcurrentHashMap<IJavaProject, Boolean>());
+
     @Override
     public void initialize(IPath containerPath, IJavaProject javaProject) throws JavaModelException {
-        loadClasspath(javaProject);
+        if (this.workspaceInitialized.compareAndSet(false, true)) {
+            restoreRequestedContainers(javaProject);
+        }
+        if (!this.restoredProjects.remove(javaProject)) {
+            loadClasspath(javaProject);
+        }
     }
 
     @Override
@@ -44,11 +68,58 @@ public final class GradleClasspathContainerInitializer extends ClasspathContaine
         loadClasspath(javaProject);
     }
 
+    private void restoreRequestedContainers(IJavaProject requestedProject) throws JavaModelException {
+        ClasspathContainerBatch batch = new ClasspathContainerBatch();
+        for (IJavaProject javaProject : collectRequestingProjects(requestedProject)) {
+            if (GradleClasspathContainerUpdater.updateFromStorage(javaProject, batch)) {
+                this.restoredProjects.add(javaProject);
+            }
+        }
+        batch.apply(null);
+    }
+
+    private static List<IJavaProject> collectRequestingProjects(IJavaProject requestedProject) {
+        List<IJavaProject> result = Lists.newArrayList(requestedProject);
+        for (IProject project : CorePlugin.workspaceOperations().getAllProjects()) {
+            if (!project.equals(requestedProject.getProject()) && GradleProjectNature.isPresentOn(project) && hasJavaNature(project)) {
+                IJavaProject javaProject = JavaCore.create(project);
+                if (referencesGradleClasspathContainer(javaProject)) {
+                    result.add(javaProject);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean hasJavaNature(IProject project) {
+        try {
+            return project.hasNature(JavaCore.NATURE_ID);
+        } catch (CoreException e) {
+            return false;
+        }
+    }
+
+    private static boolean referencesGradleClasspathContainer(IJavaProject javaProject) {
+        try {
+            for (IClasspathEntry entry : javaProject.getRawClasspath()) {
+                if (entry.getEntryKind() == IClasspathEntry.CPE_CONTAINER && entry.getPath().equals(GradleClasspathContainer.CONTAINER_PATH)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (JavaModelException e) {
+            return false;
+        }
+    }
+
     private void loadClasspath(IJavaProject javaProject) throws JavaModelException {
         IProject project = javaProject.getProject();
-        boolean updatedFromStorage = updateFromStorage(javaProject);
+        ClasspathContainerBatch batch = new ClasspathContainerBatch();
+        boolean updatedFromStorage = GradleClasspathContainerUpdater.updateFromStorage(javaProject, batch);
 
-        if (!updatedFromStorage) {
+        if (updatedFromStorage) {
+            batch.apply(null);
+        } else {
             Optional<GradleBuild> gradleBuild = CorePlugin.gradleWorkspaceManager().getGradleBuild(project);
             if (!gradleBuild.isPresent()) {
                 GradleClasspathContainerUpdater.clear(javaProject, null);
@@ -61,10 +132,6 @@ public final class GradleClasspathContainerInitializer extends ClasspathContaine
         }
     }
 
-    private boolean updateFromStorage(IJavaProject javaProject) throws JavaModelException {
-        return GradleClasspathContainerUpdater.updateFromStorage(javaProject, null);
-    }
-
     @Override
     public Object getComparisonID(IPath containerPath, IJavaProject project) {
         return project;
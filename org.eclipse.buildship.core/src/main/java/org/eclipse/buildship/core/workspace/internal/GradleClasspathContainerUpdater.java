@@ -32,7 +32,6 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Path;
-import org.eclipse.jdt.core.IClasspathContainer;
 import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
@@ -41,13 +40,13 @@ import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.buildship.core.CorePlugin;
 import org.eclipse.buildship.core.preferences.PersistentModel;
 import org.eclipse.buildship.core.util.classpath.ClasspathUtils;
-import org.eclipse.buildship.core.workspace.GradleClasspathContainer;
 
 /**
  * Updates the classpath container of the target project.
  * <p/>
- * The update is triggered via {@link #updateFromModel(IJavaProject, OmniEclipseProject, Set, IProgressMonitor)}.
+ * The update is triggered via {@link #updateFromModel(IJavaProject, OmniEclipseProject, Set, PersistentModelBuilder, ClasspathContainerBatch)}.
  * The method executes synchronously and unprotected, without thread synchronization or job scheduling.
+ * The new container is assigned when the batch is applied.
  * <p/>
  * The update logic composes a new classpath container containing all project and external
  * dependencies defined in the Gradle model. At the end of the execution the old classpath
@@ -72,9 +71,9 @@ final class GradleClasspathContainerUpdater {
         }
     }
 
-    private void updateClasspathContainer(PersistentModelBuilder persistentModel, IProgressMonitor monitor) throws JavaModelException {
+    private void updateClasspathContainer(PersistentModelBuilder persistentModel, ClasspathContainerBatch batch) {
         ImmutableList<IClasspathEntry> containerEntries = collectClasspathContainerEntries();
-        setClasspathContainer(this.eclipseProject, containerEntries, monitor);
+        batch.add(this.eclipseProject, containerEntries);
         persistentModel.classpath(containerEntries);
     }
 
@@ -146,21 +145,26 @@ final class GradleClasspathContainerUpdater {
     }
 
     /**
-     * Updates the classpath container of the target project based on the given Gradle model.
-     * The container will be persisted so it does not have to be reloaded after the workbench is restarted.
+     * Calculates the classpath container of the target project based on the given Gradle model
+     * and adds it to the batch. The container is assigned when the batch is applied. The container
+     * will be persisted so it does not have to be reloaded after the workbench is restarted.
      */
-    public static void updateFromModel(IJavaProject eclipseProject, OmniEclipseProject gradleProject, Set<OmniEclipseProject> allGradleProjects, PersistentModelBuilder persistentModel, IProgressMonitor monitor) throws JavaModelException {
+    public static void updateFromModel(IJavaProject eclipseProject, OmniEclipseProject gradleProject, Set<OmniEclipseProject> allGradleProjects, PersistentModelBuilder persistentModel, ClasspathContainerBatch batch) {
         GradleClasspathContainerUpdater updater = new GradleClasspathContainerUpdater(eclipseProject, gradleProject, allGradleProjects);
-        updater.updateClasspathContainer(persistentModel, monitor);
+        updater.updateClasspathContainer(persistentModel, batch);
     }
 
     /**
-     * Updates the classpath container from the state stored by the last call to {@link #updateFromModel(IJavaProject, OmniEclipseProject, IProgressMonitor)}.
+     * Adds the classpath container stored by the last call to
+     * {@link #updateFromModel(IJavaProject, OmniEclipseProject, Set, PersistentModelBuilder, ClasspathContainerBatch)}
+     * to the batch. Returns {@code false} if no container is stored for the target project.
      */
-    public static boolean updateFromStorage(IJavaProject eclipseProject, IProgressMonitor monitor) throws JavaModelException {
+    public static boolean updateFromStorage(IJavaProject eclipseProject, ClasspathContainerBatch batch) {
         PersistentModel model = CorePlugin.modelPersistence().loadModel(eclipseProject.getProject());
-        if (model.isPresent()) {
-            setClasspathContainer(eclipseProject, model.getClasspath(), monitor);
+        // an unreadable classpath is loaded again by the synchronization
+        List<IClasspathEntry> classpath = model.isPresent() ? model.getClasspath() : null;
+        if (classpath != null) {
+            batch.add(eclipseProject, classpath);
             return true;
         } else {
             return false;
@@ -171,12 +175,9 @@ final class GradleClasspathContainerUpdater {
      * Resolves the classpath container to an empty list.
      */
     public static void clear(IJavaProject eclipseProject, IProgressMonitor monitor) throws JavaModelException {
-        setClasspathContainer(eclipseProject, ImmutableList.<IClasspathEntry>of(), monitor);
-    }
-
-    private static void setClasspathContainer(IJavaProject eclipseProject, List<IClasspathEntry> classpathEntries, IProgressMonitor monitor) throws JavaModelException {
-        IClasspathContainer classpathContainer = GradleClasspathContainer.newInstance(classpathEntries);
-        JavaCore.setClasspathContainer(GradleClasspathContainer.CONTAINER_PATH, new IJavaProject[]{eclipseProject}, new IClasspathContainer[]{classpathContainer}, monitor);
+        ClasspathContainerBatch batch = new ClasspathContainerBatch();
+        batch.add(eclipseProject, ImmutableList.<IClasspathEntry>of());
+        batch.apply(monitor);
     }
 
 }
@@ -11,19 +11,11 @@
 
 package org.eclipse.buildship.core.workspace.internal;
 
-import java.util.Collections;
-
 import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
 import com.gradleware.tooling.toolingmodel.OmniJavaSourceSettings;
 
-import org.eclipse.core.resources.IProject;
-import org.eclipse.core.resources.IncrementalProjectBuilder;
-import org.eclipse.core.resources.ResourcesPlugin;
-import org.eclipse.core.resources.WorkspaceJob;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Status;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
 
@@ -42,8 +34,9 @@ final class JavaSourceSettingsUpdater {
         compilerOptionChanged |= updateJavaProjectOptionIfNeeded(project, JavaCore.COMPILER_SOURCE, sourceVersion);
         compilerOptionChanged |= updateJavaProjectOptionIfNeeded(project, JavaCore.COMPILER_CODEGEN_TARGET_PLATFORM, targetVersion);
 
-        if (compilerOptionChanged && isProjectAutoBuildingEnabled()) {
-            scheduleJdtBuild(project.getProject());
+        // the incremental Java builder does not pick up compliance changes
+        if (compilerOptionChanged) {
+            DeferredWorkspaceBuild.requestFullBuild(project.getProject());
         }
     }
 
@@ -57,35 +50,6 @@ final class JavaSourceSettingsUpdater {
         }
     }
 
-    private static boolean isProjectAutoBuildingEnabled() {
-        return ResourcesPlugin.getWorkspace().getDescription().isAutoBuilding();
-    }
-
-    private static void scheduleJdtBuild(final IProject project) {
-        WorkspaceJob build = new WorkspaceJob(String.format("Building project %s after Java compiler settings changed", project.getName())) {
-
-            @Override
-            public IStatus runInWorkspace(IProgressMonitor monitor) throws CoreException {
-                try {
-                    // https://bugs.eclipse.org/bugs/show_bug.cgi?id=501830
-                    if (project.isAccessible()) {
-                        project.build(IncrementalProjectBuilder.FULL_BUILD, JavaCore.BUILDER_ID, Collections.<String, String>emptyMap(), monitor);
-                    }
-                    return Status.OK_STATUS;
-                } finally {
-                    monitor.done();
-                }
-            }
-
-            @Override
-            public boolean belongsTo(Object family) {
-                return family == ResourcesPlugin.FAMILY_AUTO_BUILD;
-            }
-
-        };
-        build.schedule();
-    }
-
     private JavaSourceSettingsUpdater() {
     }
 
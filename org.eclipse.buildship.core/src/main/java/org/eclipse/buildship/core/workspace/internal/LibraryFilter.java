@@ -8,7 +8,7 @@
 
 package org.eclipse.buildship.core.workspace.internal;
 
-import java.util.Arrays;
+import java.util.List;
 
 import com.google.common.base.Predicate;
 import com.google.common.collect.FluentIterable;
@@ -31,20 +31,25 @@ import org.eclipse.jdt.core.JavaModelException;
 final class LibraryFilter {
 
     public static void update(IJavaProject eclipseProject, OmniEclipseProject modelProject, IProgressMonitor monitor) throws JavaModelException {
+        ClasspathTransaction transaction = ClasspathTransaction.begin(eclipseProject);
+        update(transaction, modelProject);
+        transaction.commit(monitor);
+    }
+
+    public static void update(ClasspathTransaction transaction, OmniEclipseProject modelProject) {
         if (supportsClasspathCustomization(modelProject)) {
-            IClasspathEntry[] newClasspath = filterLibraries(eclipseProject.getRawClasspath());
-            eclipseProject.setRawClasspath(newClasspath, monitor);
+            transaction.setEntries(filterLibraries(transaction.getEntries()));
         }
     }
 
-    private static IClasspathEntry[] filterLibraries(IClasspathEntry[] classpath) throws JavaModelException {
-        return FluentIterable.from(Arrays.asList(classpath)).filter(new Predicate<IClasspathEntry>() {
+    private static List<IClasspathEntry> filterLibraries(List<IClasspathEntry> classpath) {
+        return FluentIterable.from(classpath).filter(new Predicate<IClasspathEntry>() {
 
             @Override
             public boolean apply(IClasspathEntry entry) {
                 return entry.getEntryKind() != IClasspathEntry.CPE_LIBRARY;
             }
-        }).toArray(IClasspathEntry.class);
+        }).toList();
     }
 
     private static boolean supportsClasspathCustomization(OmniEclipseProject modelProject) {
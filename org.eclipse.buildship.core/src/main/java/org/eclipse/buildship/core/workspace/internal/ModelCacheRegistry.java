@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Creates the model caches of the {@link DefaultModelProvider} instances.
+ * <p/>
+ * The models of all caches are stored in a single cache, so all builds share one budget which is
+ * bounded by the approximate size of the models, see {@link ModelWeigher}. The least recently used
+ * models exceeding the budget are evicted. The models are held via soft references, so they are
+ * also reclaimed by the garbage collector before the heap runs out. An evicted model is loaded
+ * again when it is requested, from the model snapshot store if the request allows it, otherwise
+ * from Gradle.
+ * <p/>
+ * The statistics of the cache are available via {@link #getStats()}.
+ *
+ * @author Donat Csikos
+ */
+public final class ModelCacheRegistry {
+
+    // the approximate number of projects, classpath entries and source folders held by all builds
+    private static final long MAX_WEIGHT = 1000000;
+
+    private final Cache<Key, Object> cache;
+
+    public ModelCacheRegistry() {
+        this(MAX_WEIGHT);
+    }
+
+    ModelCacheRegistry(long maxWeight) {
+        // a single segment, such that the complete weight is available for the Eclipse models
+        this.cache = CacheBuilder.newBuilder().concurrencyLevel(1).maximumWeight(maxWeight).weigher(ModelWeigher.INSTANCE).softValues().recordStats().build();
+    }
+
+    /**
+     * Creates a new model cache, sharing its budget with all other caches.
+     *
+     * @return the new cache
+     */
+    ModelCache newCache() {
+        return new ModelCache(this.cache);
+    }
+
+    /**
+     * Removes the models from all caches.
+     */
+    public void invalidateAll() {
+        this.cache.invalidateAll();
+    }
+
+    /**
+     * Returns the number of models in all caches.
+     *
+     * @return the number of cached models
+     */
+    public long size() {
+        return this.cache.size();
+    }
+
+    /**
+     * Returns the statistics of all caches.
+     *
+     * @return the cache statistics
+     */
+    public CacheStats getStats() {
+        return this.cache.stats();
+    }
+
+    public void close() {
+        invalidateAll();
+    }
+
+    /**
+     * The models of a single build, stored in the shared cache of the registry.
+     */
+    static final class ModelCache {
+
+        private final Cache<Key, Object> cache;
+
+        private ModelCache(Cache<Key, Object> cache) {
+            this.cache = cache;
+        }
+
+        Object getIfPresent(Object key) {
+            return this.cache.getIfPresent(new Key(this, key));
+        }
+
+        Object get(Object key, Callable<?> loader) throws ExecutionException {
+            return this.cache.get(new Key(this, key), loader);
+        }
+
+        void put(Object key, Object model) {
+            this.cache.put(new Key(this, key), model);
+        }
+
+        void invalidate(Object key) {
+            this.cache.invalidate(new Key(this, key));
+        }
+
+        void invalidateAll() {
+            for (Key key : ImmutableList.copyOf(this.cache.asMap().keySet())) {
+                if (key.owner == this) {
+                    this.cache.invalidate(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * The key of a model in the shared cache, identifying its cache and its type.
+     */
+    private static final class Key {
+
+        private final ModelCache owner;
+        private final Object key;
+
+        private Key(ModelCache owner, Object key) {
+            this.owner = owner;
+            this.key = Preconditions.checkNotNull(key);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            Key that = (Key) obj;
+            return this.owner == that.owner && this.key.equals(that.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(System.identityHashCode(this.owner), this.key);
+        }
+    }
+}
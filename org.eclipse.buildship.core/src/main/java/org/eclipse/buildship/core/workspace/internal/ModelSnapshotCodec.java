@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.Serializable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.gradle.tooling.model.DomainObjectSet;
+import org.gradle.tooling.model.UnsupportedMethodException;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+
+/**
+ * Converts Tooling API models to a serializable form and back.
+ * <p/>
+ * The Tooling API model instances are dynamic proxies whose implementation classes are only
+ * available while the connection to the Gradle distribution is alive, hence they cannot be written
+ * to disk directly. Instead, the codec records the values of all getter methods declared on the
+ * model interfaces into a graph of {@link Node} objects. Restoring a graph creates new dynamic
+ * proxies implementing the same interfaces which answer the getter calls from the recorded values.
+ * Methods which threw an exception when the model was captured (e.g. because the target Gradle
+ * version doesn't support them) throw an {@link UnsupportedMethodException} on the restored model.
+ * Cycles in the model graph (e.g. parent-child references) are preserved.
+ *
+ * @author Donat Csikos
+ */
+final class ModelSnapshotCodec {
+
+    private static final String MODEL_PACKAGE_PREFIX = "org.gradle.tooling.model.";
+
+    private ModelSnapshotCodec() {
+    }
+
+    /**
+     * Captures a model or a collection of models.
+     *
+     * @param model the model instance or a collection of model instances
+     * @param modelType the model type
+     * @return the serializable representation of the model
+     */
+    static Serializable capture(Object model, Class<?> modelType) {
+        Capturer capturer = new Capturer();
+        if (model instanceof Collection) {
+            ArrayList<Object> result = new ArrayList<Object>();
+            for (Object element : (Collection<?>) model) {
+                result.add(capturer.captureValue(element, modelType));
+            }
+            return result;
+        } else {
+            return (Serializable) capturer.captureValue(model, modelType);
+        }
+    }
+
+    /**
+     * Restores a model or a collection of models from the form returned by
+     * {@link #capture(Object, Class)}.
+     *
+     * @param snapshot the serializable representation of the model
+     * @param classLoader the class loader to load the model interfaces with
+     * @return the restored model instance or collection of model instances
+     */
+    static Object restore(Serializable snapshot, ClassLoader classLoader) {
+        Restorer restorer = new Restorer(classLoader);
+        if (snapshot instanceof List) {
+            ImmutableList.Builder<Object> result = ImmutableList.builder();
+            for (Object element : (List<?>) snapshot) {
+                result.add(restorer.restoreNode((Node) element));
+            }
+            return result.build();
+        } else {
+            return restorer.restoreNode((Node) snapshot);
+        }
+    }
+
+    private static boolean isModelType(Class<?> type) {
+        return type.isInterface() && type.getName().startsWith(MODEL_PACKAGE_PREFIX);
+    }
+
+    private static boolean isGetter(Method method) {
+        return method.getParameterTypes().length == 0 && method.getReturnType() != void.class && method.getDeclaringClass() != Object.class
+                && (method.getName().startsWith("get") || method.getName().startsWith("is"));
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        } else if (type instanceof ParameterizedType) {
+            return rawType(((ParameterizedType) type).getRawType());
+        } else if (type instanceof WildcardType) {
+            return rawType(((WildcardType) type).getUpperBounds()[0]);
+        } else {
+            return Object.class;
+        }
+    }
+
+    private static Type elementType(Type collectionType) {
+        if (collectionType instanceof ParameterizedType) {
+            return ((ParameterizedType) collectionType).getActualTypeArguments()[0];
+        } else {
+            return Object.class;
+        }
+    }
+
+    /**
+     * Records the model graph.
+     */
+    private static final class Capturer {
+
+        // the Tooling API doesn't guarantee that the same proxy is returned for the same model
+        // element, but the proxies delegate equals() and hashCode() to the underlying objects
+        private final Map<List<Object>, Node> capturedNodes = Maps.newHashMap();
+
+        private Object captureValue(Object value, Type type) {
+            Class<?> rawType = rawType(type);
+            if (value == null) {
+                return null;
+            } else if (value instanceof Collection) {
+                // DomainObjectSet is declared in the model package, but it's restored as a collection
+                ArrayList<Object> result = new ArrayList<Object>();
+                for (Object element : (Collection<?>) value) {
+                    result.add(captureValue(element, elementType(type)));
+                }
+                return result;
+            } else if (isModelType(rawType)) {
+                return captureNode(value, rawType);
+            } else if (value instanceof Serializable) {
+                return value;
+            } else {
+                return Unsupported.INSTANCE;
+            }
+        }
+
+        private Node captureNode(Object model, Class<?> modelType) {
+            List<Object> key = ImmutableList.of(model, modelType);
+            Node node = this.capturedNodes.get(key);
+            if (node != null) {
+                return node;
+            }
+
+            node = new Node(modelType.getName());
+            this.capturedNodes.put(key, node);
+            for (Method getter : mostSpecificGetters(modelType)) {
+                node.properties.put(getter.getName(), captureProperty(model, getter));
+            }
+            return node;
+        }
+
+        private static Collection<Method> mostSpecificGetters(Class<?> modelType) {
+            // model interfaces override getters with covariant return types, e.g.
+            // EclipseProject#getChildren() narrows HierarchicalEclipseProject#getChildren()
+            Map<String, Method> result = Maps.newLinkedHashMap();
+            for (Method method : modelType.getMethods()) {
+                if (isGetter(method)) {
+                    Method existing = result.get(method.getName());
+                    if (existing == null || isMoreSpecific(method.getGenericReturnType(), existing.getGenericReturnType())) {
+                        result.put(method.getName(), method);
+                    }
+                }
+            }
+            return result.values();
+        }
+
+        private static boolean isMoreSpecific(Type candidate, Type existing) {
+            Class<?> candidateType = rawType(candidate);
+            Class<?> existingType = rawType(existing);
+            if (candidateType.equals(existingType)) {
+                return Collection.class.isAssignableFrom(candidateType) && isMoreSpecific(elementType(candidate), elementType(existing));
+            } else {
+                return existingType.isAssignableFrom(candidateType);
+            }
+        }
+
+        private Object captureProperty(Object model, Method getter) {
+            try {
+                return captureValue(getter.invoke(model), getter.getGenericReturnType());
+            } catch (InvocationTargetException e) {
+                return Unsupported.INSTANCE;
+            } catch (IllegalAccessException e) {
+                return Unsupported.INSTANCE;
+            }
+        }
+    }
+
+    /**
+     * Creates proxies from the recorded model graph.
+     */
+    private static final class Restorer {
+
+        private final ClassLoader classLoader;
+        private final Map<Node, Object> restoredNodes = new IdentityHashMap<Node, Object>();
+
+        private Restorer(ClassLoader classLoader) {
+            this.classLoader = classLoader;
+        }
+
+        private Object restoreNode(Node node) {
+            Object model = this.restoredNodes.get(node);
+            if (model == null) {
+                try {
+                    Class<?> modelType = Class.forName(node.type, false, this.classLoader);
+                    model = Proxy.newProxyInstance(this.classLoader, new Class<?>[] { modelType }, new SnapshotInvocationHandler(node, this));
+                    this.restoredNodes.put(node, model);
+                } catch (ClassNotFoundException e) {
+                    throw new IllegalStateException("Cannot load model type " + node.type, e);
+                }
+            }
+            return model;
+        }
+
+        private Object restoreValue(Object value, Type type) {
+            if (value instanceof Node) {
+                return restoreNode((Node) value);
+            } else if (value instanceof List) {
+                List<Object> elements = new ArrayList<Object>();
+                for (Object element : (List<?>) value) {
+                    elements.add(restoreValue(element, elementType(type)));
+                }
+                Class<?> rawType = rawType(type);
+                if (DomainObjectSet.class.isAssignableFrom(rawType)) {
+                    return new RestoredDomainObjectSet<Object>(elements);
+                } else if (Set.class.isAssignableFrom(rawType)) {
+                    return ImmutableSet.copyOf(elements);
+                } else {
+                    return elements;
+                }
+            } else {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Answers the model method calls from a recorded {@link Node}.
+     */
+    private static final class SnapshotInvocationHandler implements InvocationHandler {
+
+        private final Node node;
+        private final Restorer restorer;
+        private final Map<String, Object> restoredProperties = Maps.newHashMap();
+
+        private SnapshotInvocationHandler(Node node, Restorer restorer) {
+            this.node = node;
+            this.restorer = restorer;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals") && args != null && args.length == 1) {
+                return proxy == args[0];
+            } else if (name.equals("hashCode") && args == null) {
+                return System.identityHashCode(proxy);
+            } else if (name.equals("toString") && args == null) {
+                return String.format("%s snapshot", this.node.type);
+            }
+
+            Object value = this.node.properties.get(name);
+            if (value == Unsupported.INSTANCE || args != null || !this.node.properties.containsKey(name)) {
+                throw new UnsupportedMethodException(String.format("Method %s is not available in the model snapshot of type %s.", name, this.node.type));
+            }
+            // restored models can be accessed from multiple threads
+            synchronized (this.restorer) {
+                if (!this.restoredProperties.containsKey(name)) {
+                    this.restoredProperties.put(name, this.restorer.restoreValue(value, method.getGenericReturnType()));
+                }
+                return this.restoredProperties.get(name);
+            }
+        }
+    }
+
+    /**
+     * Serializable representation of a model element.
+     */
+    static final class Node implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String type;
+        private final LinkedHashMap<String, Object> properties = new LinkedHashMap<String, Object>();
+
+        private Node(String type) {
+            this.type = type;
+        }
+    }
+
+    /**
+     * Marker for model methods which cannot be answered from a snapshot.
+     */
+    enum Unsupported {
+        INSTANCE
+    }
+
+    /**
+     * Immutable {@link DomainObjectSet} implementation for restored models.
+     */
+    private static final class RestoredDomainObjectSet<T> extends AbstractSet<T> implements DomainObjectSet<T> {
+
+        private final ImmutableList<T> elements;
+
+        private RestoredDomainObjectSet(List<T> elements) {
+            // keep duplicates out the same way the Tooling API does
+            this.elements = ImmutableSet.copyOf(elements).asList();
+        }
+
+        @Override
+        public List<T> getAll() {
+            return this.elements;
+        }
+
+        @Override
+        public T getAt(int index) throws IndexOutOfBoundsException {
+            return this.elements.get(index);
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return this.elements.iterator();
+        }
+
+        @Override
+        public int size() {
+            return this.elements.size();
+        }
+    }
+}
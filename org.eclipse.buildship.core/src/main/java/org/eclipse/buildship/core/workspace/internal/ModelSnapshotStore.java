@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.gradle.tooling.ProjectConnection;
+import org.gradle.tooling.model.eclipse.EclipseProject;
+import org.gradle.tooling.model.gradle.GradleBuild;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.configuration.BuildConfiguration;
+import org.eclipse.buildship.core.configuration.GradleArguments;
+import org.eclipse.buildship.core.util.gradle.GradleDistributionSerializer;
+
+/**
+ * Stores the {@link EclipseProject} and {@link GradleBuild} models of each build in the plugin state
+ * location such that they are available right after the IDE is restarted.
+ * <p/>
+ * Each snapshot is tagged with the {@link BuildScriptFingerprint} of the files influencing the
+ * configuration of the build and of its included builds. The files are collected from the saved
+ * model, hence no build directory is scanned. A snapshot is only returned if the fingerprint still
+ * matches, i.e. none of the files changed since the models were loaded. The snapshots are keyed by
+ * all settings of the Gradle invocation.
+ *
+ * @author Donat Csikos
+ */
+public final class ModelSnapshotStore {
+
+    private static final int FORMAT_VERSION = 2;
+
+    // the file systems with the coarsest timestamp resolution store the modification time in
+    // two-second steps
+    private static final long TIMESTAMP_RESOLUTION_MILLIS = 2000;
+
+    /**
+     * Loads the snapshot of the target model.
+     *
+     * @param buildConfiguration the build the model belongs to
+     * @param modelType the type of the model
+     * @return the model or {@code null} if no valid snapshot is available
+     */
+    public Object load(BuildConfiguration buildConfiguration, Class<?> modelType) {
+        File snapshotFile = snapshotFile(buildConfiguration, modelType);
+        if (!snapshotFile.exists()) {
+            return null;
+        }
+
+        try {
+            Snapshot snapshot = readSnapshot(snapshotFile);
+            if (snapshot.version == FORMAT_VERSION && snapshot.fingerprint.equals(BuildScriptFingerprint.calculate(snapshot.inputs))) {
+                return ModelSnapshotCodec.restore(snapshot.model, ProjectConnection.class.getClassLoader());
+            } else {
+                snapshotFile.delete();
+                return null;
+            }
+        } catch (Exception e) {
+            CorePlugin.logger().warn("Cannot load model snapshot from " + snapshotFile.getAbsolutePath(), e);
+            snapshotFile.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Asynchronously saves the snapshot of the target model. The snapshot is discarded if any of
+     * the files influencing the build configuration was modified while the model was loaded.
+     *
+     * @param buildConfiguration the build the model belongs to
+     * @param modelType the type of the model
+     * @param model the model instance or the collection of model instances
+     * @param loadStartTime the time when the model loading was started, in milliseconds since the
+     *            epoch
+     */
+    public void save(BuildConfiguration buildConfiguration, Class<?> modelType, Object model, long loadStartTime) {
+        new SaveSnapshotJob(buildConfiguration, modelType, model, loadStartTime).schedule();
+    }
+
+    private static Snapshot readSnapshot(File snapshotFile) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream input = new ModelObjectInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+            return (Snapshot) input.readObject();
+        }
+    }
+
+    private static void writeSnapshot(File snapshotFile, Snapshot snapshot) throws IOException {
+        Files.createParentDirs(snapshotFile);
+        File tempFile = new File(snapshotFile.getParentFile(), snapshotFile.getName() + ".tmp");
+        try (ObjectOutputStream output = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            output.writeObject(snapshot);
+        }
+        if (!tempFile.renameTo(snapshotFile)) {
+            Files.move(tempFile, snapshotFile);
+        }
+    }
+
+    private static File snapshotFile(BuildConfiguration buildConfiguration, Class<?> modelType) {
+        GradleArguments gradleArguments = buildConfiguration.toGradleArguments();
+        String key = Joiner.on('|').useForNull("").join(buildConfiguration.getRootProjectDirectory().getAbsolutePath(),
+                GradleDistributionSerializer.INSTANCE.serializeToString(buildConfiguration.getGradleDistribution()),
+                buildConfiguration.getGradleUserHome(),
+                buildConfiguration.isOfflineMode(),
+                buildConfiguration.isBuildScansEnabled(),
+                gradleArguments.getJavaHome(),
+                gradleArguments.getJvmArguments(),
+                arguments(gradleArguments));
+        String fileName = Hashing.sha1().hashString(key, Charsets.UTF_8).toString() + "-" + modelType.getSimpleName();
+        return CorePlugin.getInstance().getStateLocation().append("model-snapshots").append(fileName).toFile();
+    }
+
+    private static List<String> arguments(GradleArguments gradleArguments) {
+        // the contributed arguments are added to every invocation, e.g. the init scripts of other plugins
+        List<String> result = new ArrayList<String>(gradleArguments.getArguments());
+        result.addAll(CorePlugin.invocationCustomizer().getExtraArguments());
+        return result;
+    }
+
+    /**
+     * The content of a snapshot file.
+     */
+    private static final class Snapshot implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int version;
+        private final ArrayList<File> inputs;
+        private final String fingerprint;
+        private final Serializable model;
+
+        private Snapshot(List<File> inputs, String fingerprint, Serializable model) {
+            this.version = FORMAT_VERSION;
+            this.inputs = new ArrayList<File>(inputs);
+            this.fingerprint = fingerprint;
+            this.model = model;
+        }
+    }
+
+    /**
+     * Resolves classes referenced from the Tooling API models, e.g. enum values, from the Tooling
+     * API bundle.
+     */
+    private static final class ModelObjectInputStream extends ObjectInputStream {
+
+        private ModelObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass description) throws IOException, ClassNotFoundException {
+            try {
+                return Class.forName(description.getName(), false, ModelSnapshotStore.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                return Class.forName(description.getName(), false, ProjectConnection.class.getClassLoader());
+            }
+        }
+    }
+
+    /**
+     * Captures and writes a model snapshot in the background.
+     */
+    private static final class SaveSnapshotJob extends Job {
+
+        private final BuildConfiguration buildConfiguration;
+        private final Class<?> modelType;
+        private final Object model;
+        private final long loadStartTime;
+
+        public SaveSnapshotJob(BuildConfiguration buildConfiguration, Class<?> modelType, Object model, long loadStartTime) {
+            super("Save Gradle model snapshot");
+            this.buildConfiguration = buildConfiguration;
+            this.modelType = modelType;
+            this.model = model;
+            this.loadStartTime = loadStartTime;
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            File snapshotFile = snapshotFile(this.buildConfiguration, this.modelType);
+            try {
+                List<File> inputs = BuildScriptFingerprint.collectInputs(this.buildConfiguration.getRootProjectDirectory(), this.model,
+                        this.buildConfiguration.getGradleUserHome(), arguments(this.buildConfiguration.toGradleArguments()));
+                // the model might not reflect the build scripts changed during the model loading
+                if (BuildScriptFingerprint.isModifiedAfter(inputs, this.loadStartTime - TIMESTAMP_RESOLUTION_MILLIS)) {
+                    snapshotFile.delete();
+                    return Status.OK_STATUS;
+                }
+                String fingerprint = BuildScriptFingerprint.calculate(inputs);
+                Serializable capturedModel = ModelSnapshotCodec.capture(this.model, this.modelType);
+                writeSnapshot(snapshotFile, new Snapshot(inputs, fingerprint, capturedModel));
+            } catch (Exception e) {
+                CorePlugin.logger().warn("Cannot save model snapshot to " + snapshotFile.getAbsolutePath(), e);
+            }
+            return Status.OK_STATUS;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.util.Collection;
+
+import org.gradle.tooling.model.UnsupportedMethodException;
+import org.gradle.tooling.model.eclipse.EclipseProject;
+import org.gradle.tooling.model.gradle.BasicGradleProject;
+import org.gradle.tooling.model.gradle.GradleBuild;
+
+import com.google.common.cache.Weigher;
+
+/**
+ * Estimates the size of the cached Tooling API models by counting their elements.
+ * <p/>
+ * An Eclipse project weighs one unit plus one unit for each of its classpath entries, project
+ * dependencies and source folders, and includes the weight of its child projects. A Gradle build
+ * weighs one unit per project. Other models weigh one unit.
+ *
+ * @author Donat Csikos
+ */
+final class ModelWeigher implements Weigher<Object, Object> {
+
+    static final ModelWeigher INSTANCE = new ModelWeigher();
+
+    private ModelWeigher() {
+    }
+
+    @Override
+    public int weigh(Object key, Object model) {
+        long weight = weightOf(model);
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    private static long weightOf(Object model) {
+        if (model instanceof Collection) {
+            long weight = 1;
+            for (Object element : (Collection<?>) model) {
+                weight += weightOf(element);
+            }
+            return weight;
+        } else if (model instanceof EclipseProject) {
+            return weightOf((EclipseProject) model);
+        } else if (model instanceof GradleBuild) {
+            return weightOf((GradleBuild) model);
+        } else {
+            return 1;
+        }
+    }
+
+    private static long weightOf(EclipseProject project) {
+        long weight = 1 + project.getClasspath().size() + project.getProjectDependencies().size() + project.getSourceDirectories().size();
+        for (EclipseProject child : project.getChildren()) {
+            weight += weightOf(child);
+        }
+        return weight;
+    }
+
+    private static long weightOf(GradleBuild build) {
+        try {
+            return weightOf(build.getRootProject());
+        } catch (UnsupportedMethodException e) {
+            return 1;
+        }
+    }
+
+    private static long weightOf(BasicGradleProject project) {
+        long weight = 1;
+        for (BasicGradleProject child : project.getChildren()) {
+            weight += weightOf(child);
+        }
+        return weight;
+    }
+}
@@ -25,10 +25,16 @@ import org.eclipse.jdt.core.IJavaProject;
 final class OutputLocationUpdater {
 
     public static void update(IJavaProject project, Optional<OmniEclipseOutputLocation> outputLocation, IProgressMonitor monitor) throws CoreException {
+        ClasspathTransaction transaction = ClasspathTransaction.begin(project);
+        update(transaction, outputLocation);
+        transaction.commit(monitor);
+    }
+
+    public static void update(ClasspathTransaction transaction, Optional<OmniEclipseOutputLocation> outputLocation) {
         if (outputLocation.isPresent()) {
-            IPath projectPath = project.getProject().getFullPath();
+            IPath projectPath = transaction.getProject().getProject().getFullPath();
             String outputPath = outputLocation.get().getPath();
-            project.setOutputLocation(projectPath.append(outputPath), monitor);
+            transaction.setOutputLocation(projectPath.append(outputPath));
         }
     }
 }
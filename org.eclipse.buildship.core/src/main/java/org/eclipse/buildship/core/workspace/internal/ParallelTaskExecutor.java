@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.SubMonitor;
+
+import org.eclipse.buildship.core.GradlePluginsRuntimeException;
+
+/**
+ * Executes a task for each element of a list on a bounded pool of worker threads.
+ * <p/>
+ * Each task receives its own progress monitor worth one tick of the calling thread's monitor.
+ * Progress monitors are not thread-safe, so the progress reported by the workers is collected and
+ * forwarded to the monitor by the calling thread. The first failure cancels the remaining tasks
+ * and is rethrown on the calling thread.
+ *
+ * @param <T> the type of the elements
+ * @author Donat Csikos
+ */
+final class ParallelTaskExecutor<T> {
+
+    private static final long PROGRESS_UPDATE_INTERVAL_MILLIS = 100;
+
+    private final int parallelism;
+    private final String threadNameFormat;
+
+    ParallelTaskExecutor(int parallelism, String threadNameFormat) {
+        this.parallelism = parallelism;
+        this.threadNameFormat = threadNameFormat;
+    }
+
+    /**
+     * Executes the task for all elements and waits until all of them are finished. If the
+     * parallelism is one or there is only one element, then the tasks are executed on the calling
+     * thread.
+     *
+     * @param elements the elements to process
+     * @param task the task to execute for each element
+     * @param monitor the monitor of the calling thread
+     * @throws CoreException if one of the tasks fails
+     */
+    void execute(List<T> elements, final Task<T> task, IProgressMonitor monitor) throws CoreException {
+        SubMonitor progress = SubMonitor.convert(monitor, elements.size());
+        int workerCount = Math.min(this.parallelism, elements.size());
+        if (workerCount <= 1) {
+            for (T element : elements) {
+                task.run(element, progress.newChild(1));
+            }
+            return;
+        }
+
+        final WorkerProgress workerProgress = new WorkerProgress(progress);
+        ExecutorService executor = Executors.newFixedThreadPool(workerCount, new ThreadFactoryBuilder().setNameFormat(this.threadNameFormat).setDaemon(true).build());
+        try {
+            CompletionService<T> completionService = new ExecutorCompletionService<T>(executor);
+            for (final T element : elements) {
+                final IProgressMonitor taskMonitor = workerProgress.newTaskMonitor();
+                completionService.submit(new Callable<T>() {
+
+                    @Override
+                    public T call() throws Exception {
+                        try {
+                            task.run(element, taskMonitor);
+                            return element;
+                        } finally {
+                            taskMonitor.done();
+                        }
+                    }
+                });
+            }
+
+            for (int completed = 0; completed < elements.size();) {
+                Future<T> result = poll(completionService);
+                workerProgress.forwardProgress();
+                if (result != null) {
+                    getResult(result);
+                    completed++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> Future<T> poll(CompletionService<T> completionService) {
+        try {
+            return completionService.poll(PROGRESS_UPDATE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OperationCanceledException();
+        }
+    }
+
+    private static <T> T getResult(Future<T> result) throws CoreException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OperationCanceledException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            Throwables.propagateIfPossible(cause, CoreException.class);
+            throw new GradlePluginsRuntimeException(cause);
+        }
+    }
+
+    /**
+     * A task executed for a single element.
+     *
+     * @param <T> the type of the element
+     */
+    interface Task<T> {
+
+        void run(T element, IProgressMonitor monitor) throws CoreException;
+    }
+
+    /**
+     * Collects the progress reported on the worker threads until the calling thread forwards it.
+     */
+    private static final class WorkerProgress {
+
+        private final Object lock = new Object();
+        private final IProgressMonitor owner;
+        private double pendingWork;
+        private String pendingSubTask;
+
+        private WorkerProgress(IProgressMonitor owner) {
+            this.owner = owner;
+        }
+
+        private IProgressMonitor newTaskMonitor() {
+            return new TaskMonitor(this);
+        }
+
+        private void add(double work, String subTask) {
+            synchronized (this.lock) {
+                this.pendingWork += work;
+                if (subTask != null) {
+                    this.pendingSubTask = subTask;
+                }
+            }
+        }
+
+        private void forwardProgress() {
+            double work;
+            String subTask;
+            synchronized (this.lock) {
+                work = this.pendingWork;
+                subTask = this.pendingSubTask;
+                this.pendingWork = 0;
+                this.pendingSubTask = null;
+            }
+            if (subTask != null) {
+                this.owner.subTask(subTask);
+            }
+            if (work > 0) {
+                this.owner.internalWorked(work);
+            }
+        }
+    }
+
+    /**
+     * The monitor of a single task, mapping the total work of the task to one tick of the owner.
+     */
+    private static final class TaskMonitor extends NullProgressMonitor {
+
+        private final WorkerProgress workerProgress;
+        private int totalWork = UNKNOWN;
+        private double reportedWork;
+
+        private TaskMonitor(WorkerProgress workerProgress) {
+            this.workerProgress = workerProgress;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return this.workerProgress.owner.isCanceled();
+        }
+
+        @Override
+        public void beginTask(String name, int totalWork) {
+            if (this.totalWork == UNKNOWN) {
+                this.totalWork = totalWork;
+            }
+        }
+
+        @Override
+        public void internalWorked(double work) {
+            if (this.totalWork > 0) {
+                report(work / this.totalWork, null);
+            }
+        }
+
+        @Override
+        public void worked(int work) {
+            internalWorked(work);
+        }
+
+        @Override
+        public void setTaskName(String name) {
+            report(0, name);
+        }
+
+        @Override
+        public void subTask(String name) {
+            report(0, name);
+        }
+
+        @Override
+        public void done() {
+            report(1, null);
+        }
+
+        private void report(double work, String subTask) {
+            double remaining = 1 - this.reportedWork;
+            double reported = Math.min(work, remaining);
+            this.reportedWork += reported;
+            this.workerProgress.add(reported, subTask);
+        }
+    }
+}
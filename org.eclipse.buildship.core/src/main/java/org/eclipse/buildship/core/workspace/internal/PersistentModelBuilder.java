@@ -11,7 +11,9 @@ package org.eclipse.buildship.core.workspace.internal;
 import java.util.Collection;
 import java.util.List;
 
+import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 
 import org.eclipse.core.resources.ICommand;
 import org.eclipse.core.runtime.IPath;
@@ -37,6 +39,7 @@ public final class PersistentModelBuilder {
     private Collection<IPath> linkedResources;
     private Collection<String> managedNatures;
     private Collection<ICommand> managedBuilders;
+    private String modelFingerprint;
 
     public PersistentModelBuilder(PersistentModel previous) {
         this.previous = Preconditions.checkNotNull(previous);
@@ -44,11 +47,15 @@ public final class PersistentModelBuilder {
             this.buildDir = previous.getBuildDir();
             this.buildScriptPath = previous.getbuildScriptPath();
             this.subprojectPaths = previous.getSubprojectPaths();
-            this.classpath = previous.getClasspath();
+            // an unreadable classpath is replaced by the synchronization
+            this.classpath = Objects.firstNonNull(previous.getClasspath(), ImmutableList.<IClasspathEntry>of());
             this.derivedResources = previous.getDerivedResources();
             this.linkedResources = previous.getLinkedResources();
             this.managedNatures = previous.getManagedNatures();
             this.managedBuilders = previous.getManagedBuilders();
+            this.modelFingerprint = previous.getModelFingerprint();
+        } else {
+            this.modelFingerprint = "";
         }
     }
 
@@ -87,6 +94,11 @@ public final class PersistentModelBuilder {
         return this;
     }
 
+    public PersistentModelBuilder modelFingerprint(String modelFingerprint) {
+        this.modelFingerprint = modelFingerprint;
+        return this;
+    }
+
     public PersistentModelBuilder buildScriptPath(IPath buildScriptPath) {
         this.buildScriptPath = buildScriptPath;
         return this;
@@ -97,6 +109,6 @@ public final class PersistentModelBuilder {
     }
 
     public PersistentModel build() {
-        return new DefaultPersistentModel(this.previous.getProject(), this.buildDir, this.buildScriptPath, this.subprojectPaths, this.classpath, this.derivedResources, this.linkedResources, this.managedNatures, this.managedBuilders);
+        return new DefaultPersistentModel(this.previous.getProject(), this.buildDir, this.buildScriptPath, this.subprojectPaths, this.classpath, this.derivedResources, this.linkedResources, this.managedNatures, this.managedBuilders, this.modelFingerprint);
     }
 }
\ No newline at end of file
@@ -8,6 +8,8 @@
 
 package org.eclipse.buildship.core.workspace.internal;
 
+import com.google.common.base.Preconditions;
+
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IResourceChangeListener;
@@ -21,20 +23,25 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 
 import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.workspace.GradleWorkspaceManager;
 import org.eclipse.buildship.core.workspace.ProjectCreatedEvent;
 import org.eclipse.buildship.core.workspace.ProjectDeletedEvent;
 import org.eclipse.buildship.core.workspace.ProjectMovedEvent;
 
 /**
  * An {@link IResourceChangeListener} implementation which sends events about project change events
- * via {@link CorePlugin#listenerRegistry()}.
+ * via {@link CorePlugin#listenerRegistry()} and keeps the {@link WorkspaceProjectIndex} up-to-date.
+ * When projects are removed, the Gradle builds which are not used anymore are evicted.
  *
  * @author Donat Csikos
  *
  */
 public final class ProjectChangeListener implements IResourceChangeListener {
 
-    private ProjectChangeListener() {
+    private final WorkspaceProjectIndex projectIndex;
+
+    private ProjectChangeListener(WorkspaceProjectIndex projectIndex) {
+        this.projectIndex = Preconditions.checkNotNull(projectIndex);
     }
 
     @Override
@@ -46,6 +53,16 @@ public final class ProjectChangeListener implements IResourceChangeListener {
             } catch (CoreException e) {
                 CorePlugin.logger().warn("Failed to detect project changes", e);
             }
+            if (delta.getAffectedChildren(IResourceDelta.REMOVED).length > 0) {
+                evictUnreferencedBuilds();
+            }
+        }
+    }
+
+    private static void evictUnreferencedBuilds() {
+        GradleWorkspaceManager workspaceManager = CorePlugin.gradleWorkspaceManager();
+        if (workspaceManager instanceof DefaultGradleWorkspaceManager) {
+            ((DefaultGradleWorkspaceManager) workspaceManager).evictUnreferencedBuilds();
         }
     }
 
@@ -68,6 +85,7 @@ public final class ProjectChangeListener implements IResourceChangeListener {
             IProject project = (IProject) delta.getResource();
             IPath fromPath = delta.getMovedFromPath();
             IPath toPath = delta.getMovedToPath();
+            updateProjectIndex(project, delta);
             if (delta.getKind() == IResourceDelta.REMOVED) {
                 if (fromPath == null && toPath == null) {
                     CorePlugin.listenerRegistry().dispatch(new ProjectDeletedEvent(project));
@@ -86,8 +104,18 @@ public final class ProjectChangeListener implements IResourceChangeListener {
         }
     }
 
-    public static ProjectChangeListener createAndRegister() {
-        ProjectChangeListener listener = new ProjectChangeListener();
+    private void updateProjectIndex(IProject project, IResourceDelta delta) {
+        // a move is reported as the removal of the old and the addition of the new project, while
+        // changing the location of a project is reported as a description change
+        if (delta.getKind() == IResourceDelta.REMOVED) {
+            this.projectIndex.projectRemoved(project);
+        } else if (delta.getKind() == IResourceDelta.ADDED || (delta.getFlags() & (IResourceDelta.OPEN | IResourceDelta.DESCRIPTION)) != 0) {
+            this.projectIndex.projectAdded(project);
+        }
+    }
+
+    public static ProjectChangeListener createAndRegister(WorkspaceProjectIndex projectIndex) {
+        ProjectChangeListener listener = new ProjectChangeListener(projectIndex);
         ResourcesPlugin.getWorkspace().addResourceChangeListener(listener, IResourceChangeEvent.POST_CHANGE);
         return listener;
     }
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.gradle.tooling.GradleConnector;
+import org.gradle.tooling.ProjectConnection;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.configuration.GradleArguments;
+
+/**
+ * Keeps Tooling API {@link ProjectConnection} instances open between subsequent operations on the
+ * same build.
+ * <p/>
+ * Connections are keyed by the root directory, the Gradle distribution and the Gradle user home of
+ * the requesting {@link GradleArguments}. A connection is shared by all clients holding a
+ * {@link Lease} on it and it is closed once it was not leased for the idle timeout or when the
+ * pool has to make room for a new connection.
+ *
+ * @author Donat Csikos
+ */
+public final class ProjectConnectionPool {
+
+    private static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(3);
+    private static final int DEFAULT_MAX_SIZE = 16;
+
+    private final Object lock = new Object();
+    // access-ordered to find the least recently used connection when the pool is full
+    private final Map<ConnectionKey, PooledConnection> connections = new LinkedHashMap<ConnectionKey, PooledConnection>(16, 0.75f, true);
+    private final long idleTimeoutMillis;
+    private final int maxSize;
+    private final Job evictionJob;
+    private boolean shutdown;
+
+    ProjectConnectionPool(long idleTimeoutMillis, int maxSize) {
+        Preconditions.checkArgument(idleTimeoutMillis >= 0, "Idle timeout must not be negative");
+        Preconditions.checkArgument(maxSize > 0, "Maximum size must be positive");
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxSize = maxSize;
+        this.evictionJob = new EvictIdleConnectionsJob();
+    }
+
+    /**
+     * Returns a lease on a connection for the target build. A new connection is opened if there is
+     * no pooled connection for the build yet.
+     *
+     * @param gradleArguments the arguments describing the target build
+     * @return the lease, never null
+     */
+    public Lease acquire(GradleArguments gradleArguments) {
+        List<ProjectConnection> evicted;
+        Lease lease;
+        synchronized (this.lock) {
+            Preconditions.checkState(!this.shutdown, "Connection pool is already shut down");
+            evicted = removeIdleConnections(System.currentTimeMillis());
+            ConnectionKey key = ConnectionKey.from(gradleArguments);
+            PooledConnection connection = this.connections.get(key);
+            if (connection == null) {
+                evicted.addAll(removeLeastRecentlyUsedConnections(this.maxSize - 1));
+                connection = new PooledConnection(openConnection(gradleArguments));
+                this.connections.put(key, connection);
+            }
+            connection.leases++;
+            lease = new Lease(connection);
+        }
+        closeAll(evicted);
+        return lease;
+    }
+
+    /**
+     * Returns the number of open connections in the pool.
+     *
+     * @return the number of open connections
+     */
+    public int size() {
+        synchronized (this.lock) {
+            return this.connections.size();
+        }
+    }
+
+    /**
+     * Closes all pooled connections. Subsequent {@link #acquire(GradleArguments)} calls fail.
+     */
+    public void shutdown() {
+        List<ProjectConnection> all;
+        synchronized (this.lock) {
+            this.shutdown = true;
+            all = Lists.newArrayList();
+            for (PooledConnection connection : this.connections.values()) {
+                all.add(connection.connection);
+            }
+            this.connections.clear();
+        }
+        this.evictionJob.cancel();
+        closeAll(all);
+    }
+
+    private void release(PooledConnection connection) {
+        synchronized (this.lock) {
+            connection.leases--;
+            connection.lastReleased = System.currentTimeMillis();
+            if (this.shutdown) {
+                return;
+            }
+        }
+        this.evictionJob.schedule(this.idleTimeoutMillis);
+    }
+
+    private void evictIdleConnections() {
+        List<ProjectConnection> evicted;
+        synchronized (this.lock) {
+            evicted = removeIdleConnections(System.currentTimeMillis());
+        }
+        closeAll(evicted);
+    }
+
+    private List<ProjectConnection> removeIdleConnections(long now) {
+        List<ProjectConnection> result = Lists.newArrayList();
+        Iterator<PooledConnection> iterator = this.connections.values().iterator();
+        while (iterator.hasNext()) {
+            PooledConnection connection = iterator.next();
+            if (connection.leases == 0 && now - connection.lastReleased >= this.idleTimeoutMillis) {
+                iterator.remove();
+                result.add(connection.connection);
+            }
+        }
+        return result;
+    }
+
+    private List<ProjectConnection> removeLeastRecentlyUsedConnections(int targetSize) {
+        // leased connections are never closed, so the pool can temporarily exceed its maximum size
+        List<ProjectConnection> result = Lists.newArrayList();
+        Iterator<PooledConnection> iterator = this.connections.values().iterator();
+        while (this.connections.size() > targetSize && iterator.hasNext()) {
+            PooledConnection connection = iterator.next();
+            if (connection.leases == 0) {
+                iterator.remove();
+                result.add(connection.connection);
+            }
+        }
+        return result;
+    }
+
+    private static ProjectConnection openConnection(GradleArguments gradleArguments) {
+        GradleConnector connector = GradleConnector.newConnector();
+        gradleArguments.applyTo(connector);
+        return connector.connect();
+    }
+
+    private static void closeAll(List<ProjectConnection> connections) {
+        for (ProjectConnection connection : connections) {
+            try {
+                connection.close();
+            } catch (RuntimeException e) {
+                CorePlugin.logger().warn("Can't close project connection", e);
+            }
+        }
+    }
+
+    public static ProjectConnectionPool create() {
+        return new ProjectConnectionPool(DEFAULT_IDLE_TIMEOUT_MILLIS, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * A borrowed connection. The connection must not be closed by the client; {@link #release()}
+     * should be called instead once the client no longer needs it.
+     */
+    public final class Lease {
+
+        private final PooledConnection pooledConnection;
+        private boolean released;
+
+        private Lease(PooledConnection pooledConnection) {
+            this.pooledConnection = pooledConnection;
+        }
+
+        public ProjectConnection getConnection() {
+            return this.pooledConnection.connection;
+        }
+
+        /**
+         * Returns the connection to the pool. Calling this method multiple times has no effect.
+         */
+        public void release() {
+            synchronized (this) {
+                if (this.released) {
+                    return;
+                }
+                this.released = true;
+            }
+            ProjectConnectionPool.this.release(this.pooledConnection);
+        }
+    }
+
+    /**
+     * A pooled connection along with its usage statistics.
+     */
+    private static final class PooledConnection {
+
+        private final ProjectConnection connection;
+        private int leases;
+        private long lastReleased;
+
+        private PooledConnection(ProjectConnection connection) {
+            this.connection = connection;
+            this.lastReleased = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Closes the connections which were not used for the idle timeout.
+     */
+    private final class EvictIdleConnectionsJob extends Job {
+
+        public EvictIdleConnectionsJob() {
+            super("Close idle Gradle connections");
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            evictIdleConnections();
+            return Status.OK_STATUS;
+        }
+    }
+}
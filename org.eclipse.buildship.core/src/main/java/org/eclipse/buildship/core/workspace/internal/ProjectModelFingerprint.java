@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import com.gradleware.tooling.toolingmodel.OmniAccessRule;
+import com.gradleware.tooling.toolingmodel.OmniClasspathAttribute;
+import com.gradleware.tooling.toolingmodel.OmniClasspathEntry;
+import com.gradleware.tooling.toolingmodel.OmniEclipseBuildCommand;
+import com.gradleware.tooling.toolingmodel.OmniEclipseClasspathContainer;
+import com.gradleware.tooling.toolingmodel.OmniEclipseLinkedResource;
+import com.gradleware.tooling.toolingmodel.OmniEclipseOutputLocation;
+import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
+import com.gradleware.tooling.toolingmodel.OmniEclipseProjectDependency;
+import com.gradleware.tooling.toolingmodel.OmniEclipseProjectNature;
+import com.gradleware.tooling.toolingmodel.OmniEclipseSourceDirectory;
+import com.gradleware.tooling.toolingmodel.OmniExternalDependency;
+import com.gradleware.tooling.toolingmodel.OmniGradleScript;
+import com.gradleware.tooling.toolingmodel.OmniJavaSourceSettings;
+import com.gradleware.tooling.toolingmodel.util.Maybe;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.launching.IVMInstall;
+import org.eclipse.jdt.launching.environments.IExecutionEnvironment;
+
+/**
+ * Calculates a structural hash over the parts of an {@link OmniEclipseProject} which are applied
+ * to the workspace project during the synchronization: source folders, dependencies, classpath
+ * containers, natures, build commands, output location, linked resources, Java source settings,
+ * the build script and the location and build directories of the nested projects.
+ * <p/>
+ * The fingerprint also covers the workspace state the synchronization result depends on: the
+ * Eclipse descriptor files which the synchronization writes, such that manual modifications of the
+ * workspace project (e.g. removing a classpath entry) are detected, the workspace projects
+ * referenced as project dependencies, and the execution environment and the installed JREs the
+ * JRE container is resolved from. If two fingerprints of the same project are equal, then
+ * synchronizing the project again yields the same result as the previous synchronization.
+ *
+ * @author Donat Csikos
+ */
+final class ProjectModelFingerprint {
+
+    // increment if the synchronization logic changes such that projects have to be updated
+    // even if their model is unchanged
+    private static final int VERSION = 2;
+
+    private static final ImmutableList<String> DESCRIPTOR_FILES = ImmutableList.of(".project", ".classpath", ".settings/org.eclipse.jdt.core.prefs");
+
+    private final Hasher hasher = Hashing.sha1().newHasher();
+
+    private ProjectModelFingerprint() {
+    }
+
+    /**
+     * Calculates the fingerprint of the target project.
+     *
+     * @param project the Gradle project to calculate the fingerprint for
+     * @param workspaceProject the corresponding workspace project
+     * @return the hex-encoded fingerprint
+     */
+    static String calculate(OmniEclipseProject project, IProject workspaceProject) {
+        ProjectModelFingerprint fingerprint = new ProjectModelFingerprint();
+        fingerprint.putProject(project);
+        fingerprint.putWorkspaceState(workspaceProject);
+        fingerprint.putReferencedProjects(project.getProjectDependencies());
+        fingerprint.putJavaRuntime(project.getJavaSourceSettings());
+        return fingerprint.hasher.hash().toString();
+    }
+
+    private void putReferencedProjects(List<OmniEclipseProjectDependency> dependencies) {
+        // the project entries don't resolve if the target project was renamed, closed or deleted
+        IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+        for (OmniEclipseProjectDependency dependency : dependencies) {
+            IResource target = root.findMember(new Path("/" + dependency.getPath()));
+            put(target != null, target != null && target.isAccessible(), target != null ? target.getLocation() : null);
+        }
+    }
+
+    private void putJavaRuntime(Optional<OmniJavaSourceSettings> sourceSettings) {
+        // the JRE container is resolved in the same order as in EclipseVmUtil
+        if (sourceSettings.isPresent()) {
+            Optional<IExecutionEnvironment> executionEnvironment = EclipseVmUtil.findExecutionEnvironment(sourceSettings.get().getTargetBytecodeLevel().getName());
+            put(executionEnvironment.isPresent());
+            if (executionEnvironment.isPresent()) {
+                IVMInstall[] compatibleVms = executionEnvironment.get().getCompatibleVMs();
+                putVm(executionEnvironment.get().getDefaultVM());
+                putVm(compatibleVms.length > 0 ? compatibleVms[0] : null);
+            }
+        }
+    }
+
+    private void putVm(IVMInstall vm) {
+        if (vm != null) {
+            put(vm.getId(), vm.getInstallLocation());
+        } else {
+            put((Object) null);
+        }
+    }
+
+    private void putWorkspaceState(IProject workspaceProject) {
+        for (String path : DESCRIPTOR_FILES) {
+            IFile file = workspaceProject.getFile(path);
+            // the modification stamp reflects changes done via the workspace API, the file system
+            // timestamp reflects external changes not yet picked up by a refresh
+            IPath location = file.getLocation();
+            put(file.getModificationStamp(), location != null ? location.toFile().lastModified() : null);
+        }
+    }
+
+    private void putProject(OmniEclipseProject project) {
+        put(VERSION);
+        put(project.getName());
+        put(project.getProjectDirectory());
+        putBuildScript(project.getGradleProject().getBuildScript());
+        for (OmniEclipseProject nested : project.getAll()) {
+            put(nested.getProjectDirectory());
+            putMaybe(nested.getGradleProject().getBuildDirectory());
+        }
+        for (OmniEclipseLinkedResource linkedResource : project.getLinkedResources()) {
+            put(linkedResource.getName(), linkedResource.getType(), linkedResource.getLocation());
+        }
+        putNatures(project.getProjectNatures());
+        putBuildCommands(project.getBuildCommands());
+        putJavaSourceSettings(project.getJavaSourceSettings());
+        putOutputLocation(project.getOutputLocation());
+        for (OmniEclipseSourceDirectory sourceDirectory : project.getSourceDirectories()) {
+            put(sourceDirectory.getPath());
+            putMaybe(sourceDirectory.getOutput());
+            putOptional(sourceDirectory.getExcludes());
+            putOptional(sourceDirectory.getIncludes());
+            putAttributes(sourceDirectory.getClasspathAttributes());
+        }
+        putClasspathContainers(project.getClasspathContainers());
+        for (OmniEclipseProjectDependency dependency : project.getProjectDependencies()) {
+            put(dependency.getPath(), dependency.isExported());
+            putClasspathEntry(dependency);
+        }
+        for (OmniExternalDependency dependency : project.getExternalDependencies()) {
+            File file = dependency.getFile();
+            // the classpath container only contains existing folders and archives
+            put(file, file.exists(), file.isDirectory(), dependency.getSource(), dependency.isExported());
+            putClasspathEntry(dependency);
+        }
+    }
+
+    private void putBuildScript(Maybe<OmniGradleScript> buildScript) {
+        if (buildScript.isPresent() && buildScript.get() != null) {
+            put(buildScript.get().getSourceFile());
+        } else {
+            put((Object) null);
+        }
+    }
+
+    private void putNatures(Optional<List<OmniEclipseProjectNature>> natures) {
+        put(natures.isPresent());
+        if (natures.isPresent()) {
+            for (OmniEclipseProjectNature nature : natures.get()) {
+                put(nature.getId());
+            }
+        }
+    }
+
+    private void putBuildCommands(Optional<List<OmniEclipseBuildCommand>> buildCommands) {
+        put(buildCommands.isPresent());
+        if (buildCommands.isPresent()) {
+            for (OmniEclipseBuildCommand buildCommand : buildCommands.get()) {
+                put(buildCommand.getName());
+                putSorted(buildCommand.getArguments());
+            }
+        }
+    }
+
+    private void putJavaSourceSettings(Optional<OmniJavaSourceSettings> sourceSettings) {
+        put(sourceSettings.isPresent());
+        if (sourceSettings.isPresent()) {
+            OmniJavaSourceSettings settings = sourceSettings.get();
+            put(settings.getSourceLanguageLevel().getName(), settings.getTargetBytecodeLevel().getName(), settings.getTargetRuntime().getHomeDirectory());
+        }
+    }
+
+    private void putOutputLocation(Optional<OmniEclipseOutputLocation> outputLocation) {
+        put(outputLocation.isPresent() ? outputLocation.get().getPath() : null);
+    }
+
+    private void putClasspathContainers(Optional<List<OmniEclipseClasspathContainer>> containers) {
+        put(containers.isPresent());
+        if (containers.isPresent()) {
+            for (OmniEclipseClasspathContainer container : containers.get()) {
+                put(container.getPath(), container.isExported());
+                putClasspathEntry(container);
+            }
+        }
+    }
+
+    private void putClasspathEntry(OmniClasspathEntry entry) {
+        Optional<List<OmniAccessRule>> accessRules = entry.getAccessRules();
+        put(accessRules.isPresent());
+        if (accessRules.isPresent()) {
+            for (OmniAccessRule accessRule : accessRules.get()) {
+                put(accessRule.getKind(), accessRule.getPattern());
+            }
+        }
+        putAttributes(entry.getClasspathAttributes());
+    }
+
+    private void putAttributes(Optional<List<OmniClasspathAttribute>> attributes) {
+        put(attributes.isPresent());
+        if (attributes.isPresent()) {
+            for (OmniClasspathAttribute attribute : attributes.get()) {
+                put(attribute.getName(), attribute.getValue());
+            }
+        }
+    }
+
+    private void putMaybe(Maybe<?> value) {
+        put(value.isPresent());
+        if (value.isPresent()) {
+            put(value.get());
+        }
+    }
+
+    private void putOptional(Optional<?> value) {
+        put(value.orNull());
+    }
+
+    private void putSorted(Map<String, String> map) {
+        put(map == null ? null : ImmutableSortedMap.copyOf(map));
+    }
+
+    private void put(Object... values) {
+        for (Object value : values) {
+            this.hasher.putString(String.valueOf(value), Charsets.UTF_8);
+            // separate the values to avoid collisions between different splits of the same string
+            this.hasher.putByte((byte) 0);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import com.gradleware.tooling.toolingmodel.OmniEclipseLinkedResource;
+import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
+import com.gradleware.tooling.toolingmodel.OmniEclipseSourceDirectory;
+import com.gradleware.tooling.toolingmodel.util.Maybe;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.SubMonitor;
+
+import org.eclipse.buildship.core.GradlePluginsRuntimeException;
+import org.eclipse.buildship.core.preferences.PersistentModel;
+import org.eclipse.buildship.core.util.file.RelativePathUtils;
+
+/**
+ * Brings the resources read by the project synchronization in sync with the file system.
+ * <p/>
+ * Refreshing the whole project walks every file, including large build output and
+ * {@code node_modules} folders. The updaters only read the direct members of the project (e.g.
+ * {@code .project} and {@code .classpath}), the {@code .settings} folder, the source folders,
+ * the linked resources, the build directories and the previously derived resources, so only these
+ * are refreshed.
+ *
+ * @author Donat Csikos
+ */
+final class ProjectResourceRefresher {
+
+    private static final String DEFAULT_BUILD_DIR_NAME = "build";
+    private static final String LINKED_FILE_TYPE = "1";
+
+    private final IProject workspaceProject;
+    private final Map<IPath, Integer> depths = Maps.newHashMap();
+    private final Set<IPath> files = Sets.newHashSet();
+
+    private ProjectResourceRefresher(IProject workspaceProject) {
+        this.workspaceProject = workspaceProject;
+        add(Path.EMPTY, IResource.DEPTH_ONE);
+        add(new Path(".settings"), IResource.DEPTH_ONE);
+    }
+
+    private void add(IPath projectRelativePath, int depth) {
+        Integer currentDepth = this.depths.get(projectRelativePath);
+        if (currentDepth == null || currentDepth < depth) {
+            this.depths.put(projectRelativePath, depth);
+        }
+    }
+
+    private void addModelResources(OmniEclipseProject project) {
+        for (OmniEclipseSourceDirectory sourceDirectory : project.getSourceDirectories()) {
+            add(new Path(sourceDirectory.getPath()), IResource.DEPTH_INFINITE);
+        }
+        for (OmniEclipseLinkedResource linkedResource : project.getLinkedResources()) {
+            IPath path = new Path(linkedResource.getName());
+            add(path, IResource.DEPTH_ZERO);
+            if (LINKED_FILE_TYPE.equals(linkedResource.getType())) {
+                this.files.add(path);
+            }
+        }
+
+        IPath projectLocation = this.workspaceProject.getLocation();
+        for (OmniEclipseProject child : project.getAll()) {
+            IPath childLocation = Path.fromOSString(child.getProjectDirectory().getPath());
+            if (projectLocation != null && projectLocation.isPrefixOf(childLocation)) {
+                IPath relativePath = RelativePathUtils.getRelativePath(projectLocation, childLocation);
+                add(relativePath, IResource.DEPTH_ZERO);
+                IPath buildDir = getBuildDirectoryPath(child.getGradleProject().getBuildDirectory(), relativePath);
+                add(buildDir, relativePath.isEmpty() ? IResource.DEPTH_ONE : IResource.DEPTH_ZERO);
+            }
+        }
+    }
+
+    private IPath getBuildDirectoryPath(Maybe<File> buildDirectory, IPath projectPath) {
+        IPath projectLocation = this.workspaceProject.getLocation();
+        if (buildDirectory.isPresent() && buildDirectory.get() != null) {
+            IPath buildDirLocation = new Path(buildDirectory.get().getPath());
+            if (projectLocation.isPrefixOf(buildDirLocation)) {
+                return RelativePathUtils.getRelativePath(projectLocation, buildDirLocation);
+            }
+        }
+        return projectPath.append(DEFAULT_BUILD_DIR_NAME);
+    }
+
+    private void addPersistedResources(PersistentModel persistentModel) {
+        if (persistentModel.isPresent()) {
+            for (IPath derivedResource : persistentModel.getDerivedResources()) {
+                add(derivedResource, IResource.DEPTH_ZERO);
+            }
+        }
+    }
+
+    private void refresh(IProgressMonitor monitor) {
+        List<Map.Entry<IPath, Integer>> targets = Lists.newArrayList(this.depths.entrySet());
+        // refresh the parents first such that the children are already known to the workspace
+        Collections.sort(targets, new Comparator<Map.Entry<IPath, Integer>>() {
+
+            @Override
+            public int compare(Map.Entry<IPath, Integer> first, Map.Entry<IPath, Integer> second) {
+                return first.getKey().segmentCount() - second.getKey().segmentCount();
+            }
+        });
+
+        SubMonitor progress = SubMonitor.convert(monitor, targets.size());
+        try {
+            for (Map.Entry<IPath, Integer> target : targets) {
+                IPath path = target.getKey();
+                int depth = target.getValue();
+                if (isCovered(path, depth)) {
+                    progress.worked(1);
+                } else {
+                    findResource(path).refreshLocal(depth, progress.newChild(1));
+                }
+            }
+        } catch (CoreException e) {
+            throw new GradlePluginsRuntimeException(String.format("Cannot refresh project %s.", this.workspaceProject.getName()), e);
+        }
+    }
+
+    private IResource findResource(IPath path) {
+        if (path.isEmpty()) {
+            return this.workspaceProject;
+        }
+
+        // linked resources and derived resources can be files too
+        IResource member = this.workspaceProject.findMember(path);
+        if (member != null) {
+            return member;
+        }
+        IPath projectLocation = this.workspaceProject.getLocation();
+        boolean isFile = this.files.contains(path) || (projectLocation != null && projectLocation.append(path).toFile().isFile());
+        return isFile ? this.workspaceProject.getFile(path) : this.workspaceProject.getFolder(path);
+    }
+
+    private boolean isCovered(IPath path, int depth) {
+        // direct members are refreshed with the project and nothing is refreshed twice below an infinite refresh
+        if (path.segmentCount() == 1 && depth == IResource.DEPTH_ZERO) {
+            return true;
+        }
+        for (int i = path.segmentCount() - 1; i >= 0; i--) {
+            Integer parentDepth = this.depths.get(path.uptoSegment(i));
+            if (parentDepth != null && parentDepth == IResource.DEPTH_INFINITE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Refreshes the resources which are read while the project is synchronized with the given
+     * Gradle project.
+     *
+     * @param workspaceProject the project to refresh
+     * @param project the Gradle model of the project
+     * @param persistentModel the model stored during the last synchronization
+     * @param monitor the monitor to report the progress on
+     */
+    static void refresh(IProject workspaceProject, OmniEclipseProject project, PersistentModel persistentModel, IProgressMonitor monitor) {
+        ProjectResourceRefresher refresher = new ProjectResourceRefresher(workspaceProject);
+        refresher.addModelResources(project);
+        refresher.addPersistedResources(persistentModel);
+        refresher.refresh(monitor);
+    }
+
+    /**
+     * Refreshes the project descriptor and the project settings.
+     *
+     * @param workspaceProject the project to refresh
+     * @param monitor the monitor to report the progress on
+     */
+    static void refreshDescriptorAndSettings(IProject workspaceProject, IProgressMonitor monitor) {
+        new ProjectResourceRefresher(workspaceProject).refresh(monitor);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.gradle.tooling.BuildAction;
+import org.gradle.tooling.BuildController;
+import org.gradle.tooling.model.eclipse.EclipseProject;
+import org.gradle.tooling.model.gradle.GradleBuild;
+
+/**
+ * Build action to query all models required by a project synchronization in a single Gradle
+ * invocation.
+ * <p/>
+ * The result maps the fully qualified name of the {@link GradleBuild} and {@link EclipseProject}
+ * model types to the corresponding model of the root build. For the {@link EclipseProject} type the
+ * value is the collection of the root models of all participants in the composite, as returned by
+ * {@link CompositeModelQuery}. Only JDK types are used in the result such that it can be consumed
+ * when the action is loaded via an isolated class loader.
+ * <p/>
+ * The build environment is not part of the result: it is already known before the action is
+ * executed, and older Gradle versions don't provide it from within a build action.
+ * <p/>
+ * The Tooling API can't return intermediate results from a build action. If a channel file is
+ * specified, then the action appends the project locations of each participant to that file as
+ * soon as its Eclipse models are created, such that the IDE can start processing them while the
+ * remaining participants are configured. The file is read by {@link EclipseProjectsChannel}. Each
+ * record consists of its length, the root directory of the participant, the number of projects and
+ * the project directories.
+ *
+ * @author Donat Csikos
+ */
+public final class SyncSnapshotQuery implements BuildAction<Map<String, Object>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String channelPath;
+
+    public SyncSnapshotQuery() {
+        this(null);
+    }
+
+    public SyncSnapshotQuery(String channelPath) {
+        this.channelPath = channelPath;
+    }
+
+    @Override
+    public Map<String, Object> execute(BuildController controller) {
+        GradleBuild gradleBuild = controller.getBuildModel();
+        Collection<EclipseProject> eclipseProjects = new ArrayList<EclipseProject>();
+        OutputStream channel = openChannel();
+        try {
+            collectRootModels(controller, gradleBuild, eclipseProjects, channel);
+        } finally {
+            closeChannel(channel);
+        }
+
+        Map<String, Object> result = new HashMap<String, Object>();
+        result.put(GradleBuild.class.getName(), gradleBuild);
+        result.put(EclipseProject.class.getName(), eclipseProjects);
+        return result;
+    }
+
+    private void collectRootModels(BuildController controller, GradleBuild build, Collection<EclipseProject> models, OutputStream channel) {
+        // same traversal as the CompositeModelQuery
+        EclipseProject model = controller.getModel(build.getRootProject(), EclipseProject.class);
+        models.add(model);
+        if (channel != null) {
+            writeRecord(channel, model);
+        }
+
+        for (GradleBuild includedBuild : build.getIncludedBuilds()) {
+            collectRootModels(controller, includedBuild, models, channel);
+        }
+    }
+
+    private OutputStream openChannel() {
+        if (this.channelPath == null) {
+            return null;
+        }
+        try {
+            return new FileOutputStream(this.channelPath, true);
+        } catch (IOException e) {
+            // the models are still returned as the result of the action
+            return null;
+        }
+    }
+
+    private static void closeChannel(OutputStream channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // the records are already written
+            }
+        }
+    }
+
+    static void writeRecord(OutputStream channel, EclipseProject model) {
+        try {
+            List<File> projectDirs = new ArrayList<File>();
+            collectProjectDirs(model, projectDirs);
+
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(body);
+            out.writeUTF(model.getProjectDirectory().getPath());
+            out.writeInt(projectDirs.size());
+            for (File projectDir : projectDirs) {
+                out.writeUTF(projectDir.getPath());
+            }
+            out.flush();
+
+            // the reader skips the record until its complete body is written
+            ByteArrayOutputStream record = new ByteArrayOutputStream();
+            DataOutputStream recordOut = new DataOutputStream(record);
+            recordOut.writeInt(body.size());
+            body.writeTo(recordOut);
+            recordOut.flush();
+            channel.write(record.toByteArray());
+            channel.flush();
+        } catch (IOException e) {
+            // the models are still returned as the result of the action
+        }
+    }
+
+    static void collectProjectDirs(EclipseProject project, List<File> result) {
+        result.add(project.getProjectDirectory());
+        for (EclipseProject child : project.getChildren()) {
+            collectProjectDirs(child, result);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
+
+import org.eclipse.core.resources.IProject;
+
+import org.eclipse.buildship.core.util.progress.AsyncHandler;
+import org.eclipse.buildship.core.workspace.GradleBuild;
+import org.eclipse.buildship.core.workspace.NewProjectHandler;
+
+/**
+ * Describes what a {@link SynchronizeGradleBuildsJob} has to do: which Gradle builds to synchronize,
+ * how to handle the new projects of each build, which builds are fully synchronized and which
+ * initializers run before the synchronization.
+ * <p/>
+ * Requests which are not started yet are merged with {@link #merge(SynchronizationRequest)}. The
+ * new project handlers are kept per build, so merging never imports projects of a build which was
+ * requested to be synchronized without importing new projects.
+ *
+ * @author Donat Csikos
+ */
+final class SynchronizationRequest {
+
+    private final ImmutableMap<GradleBuild, NewProjectHandler> newProjectHandlers;
+    private final ImmutableSet<GradleBuild> fullySynchronizedBuilds;
+    private final ImmutableList<AsyncHandler> initializers;
+
+    private SynchronizationRequest(Map<GradleBuild, NewProjectHandler> newProjectHandlers, Set<GradleBuild> fullySynchronizedBuilds, Iterable<AsyncHandler> initializers) {
+        this.newProjectHandlers = ImmutableMap.copyOf(newProjectHandlers);
+        this.fullySynchronizedBuilds = ImmutableSet.copyOf(fullySynchronizedBuilds);
+        this.initializers = ImmutableList.copyOf(initializers);
+    }
+
+    public ImmutableSet<GradleBuild> getBuilds() {
+        return this.newProjectHandlers.keySet();
+    }
+
+    public NewProjectHandler getNewProjectHandler(GradleBuild build) {
+        return this.newProjectHandlers.get(build);
+    }
+
+    public boolean isFullSynchronization(GradleBuild build) {
+        return this.fullySynchronizedBuilds.contains(build);
+    }
+
+    public ImmutableList<AsyncHandler> getInitializers() {
+        return this.initializers;
+    }
+
+    /**
+     * Returns whether synchronizing this request also fulfills the other one.
+     * <p/>
+     * A request covers another if it synchronizes all builds of the other one, with the same
+     * {@link NewProjectHandler} unless the other's handler is a no-op, if it runs all initializers
+     * of the other request and if it synchronizes fully all builds the other one synchronizes fully.
+     *
+     * @param other the request to check
+     * @return {@code true} if the other request is covered
+     */
+    public boolean covers(SynchronizationRequest other) {
+        for (GradleBuild build : other.getBuilds()) {
+            NewProjectHandler handler = other.getNewProjectHandler(build);
+            if (!getBuilds().contains(build) || (handler != NewProjectHandler.NO_OP && !Objects.equal(handler, getNewProjectHandler(build)))) {
+                return false;
+            }
+        }
+        return this.initializers.containsAll(other.initializers) && this.fullySynchronizedBuilds.containsAll(other.fullySynchronizedBuilds);
+    }
+
+    /**
+     * Creates a request which synchronizes the union of the builds of both requests. If the same
+     * build is requested with different {@link NewProjectHandler}s, then the handlers are composed.
+     *
+     * @param other the request to merge
+     * @return the merged request
+     */
+    public SynchronizationRequest merge(SynchronizationRequest other) {
+        Map<GradleBuild, NewProjectHandler> newProjectHandlers = Maps.newLinkedHashMap(this.newProjectHandlers);
+        for (GradleBuild build : other.getBuilds()) {
+            NewProjectHandler handler = newProjectHandlers.get(build);
+            newProjectHandlers.put(build, handler == null ? other.getNewProjectHandler(build) : compose(handler, other.getNewProjectHandler(build)));
+        }
+        Set<GradleBuild> fullySynchronizedBuilds = Sets.union(this.fullySynchronizedBuilds, other.fullySynchronizedBuilds);
+        Set<AsyncHandler> initializers = Sets.newLinkedHashSet(this.initializers);
+        initializers.addAll(other.initializers);
+        return new SynchronizationRequest(newProjectHandlers, fullySynchronizedBuilds, initializers);
+    }
+
+    private static NewProjectHandler compose(final NewProjectHandler first, final NewProjectHandler second) {
+        if (first == NewProjectHandler.NO_OP || first.equals(second)) {
+            return second;
+        } else if (second == NewProjectHandler.NO_OP) {
+            return first;
+        } else {
+            return new NewProjectHandler() {
+
+                @Override
+                public boolean shouldImport(OmniEclipseProject projectModel) {
+                    return first.shouldImport(projectModel) || second.shouldImport(projectModel);
+                }
+
+                @Override
+                public void afterImport(IProject project, OmniEclipseProject projectModel) {
+                    if (first.shouldImport(projectModel)) {
+                        first.afterImport(project, projectModel);
+                    }
+                    if (second.shouldImport(projectModel)) {
+                        second.afterImport(project, projectModel);
+                    }
+                }
+            };
+        }
+    }
+
+    public static SynchronizationRequest of(Set<GradleBuild> builds, NewProjectHandler newProjectHandler, AsyncHandler initializer, boolean fullSynchronization) {
+        Preconditions.checkNotNull(newProjectHandler);
+        Preconditions.checkNotNull(initializer);
+        Map<GradleBuild, NewProjectHandler> newProjectHandlers = Maps.newLinkedHashMap();
+        for (GradleBuild build : builds) {
+            newProjectHandlers.put(build, newProjectHandler);
+        }
+        Set<GradleBuild> fullySynchronizedBuilds = fullySynchronization ? builds : ImmutableSet.<GradleBuild>of();
+        Iterable<AsyncHandler> initializers = initializer == AsyncHandler.NO_OP ? ImmutableList.<AsyncHandler>of() : ImmutableList.of(initializer);
+        return new SynchronizationRequest(newProjectHandlers, fullySynchronizedBuilds, initializers);
+    }
+}
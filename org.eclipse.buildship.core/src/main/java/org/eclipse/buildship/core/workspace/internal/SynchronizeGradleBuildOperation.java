@@ -15,21 +15,26 @@ package org.eclipse.buildship.core.workspace.internal;
 import java.io.File;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 
 import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.IJavaProject;
@@ -41,6 +46,9 @@ import org.eclipse.buildship.core.configuration.BuildConfiguration;
 import org.eclipse.buildship.core.configuration.ConfigurationManager;
 import org.eclipse.buildship.core.configuration.GradleProjectNature;
 import org.eclipse.buildship.core.configuration.ProjectConfiguration;
+import org.eclipse.buildship.core.preferences.PersistentModel;
+import org.eclipse.buildship.core.util.trace.SynchronizationTracer;
+import org.eclipse.buildship.core.util.trace.TraceSpan;
 import org.eclipse.buildship.core.workspace.NewProjectHandler;
 
 /**
@@ -72,7 +80,7 @@ import org.eclipse.buildship.core.workspace.NewProjectHandler;
  * <li>the Java nature is added </li>
  * <li>the source compatibility settings are updated</li>
  * <li>the set of source folders is updated</li>
- * <li>the Gradle classpath container is updated</li>
+ * <li>the Gradle classpath container is updated (for all projects of the build at once)</li>
  * </ul>
  * </li>
  * </ul>
@@ -93,48 +101,167 @@ import org.eclipse.buildship.core.workspace.NewProjectHandler;
  * </ol>
  *
  * <p/>
- * This operation changes resources. It will acquire the workspace scheduling rule to ensure an atomic operation.
+ * This operation changes resources. The steps affecting multiple projects (uncoupling, creating,
+ * importing and renaming projects) are executed in a serialized phase holding the workspace
+ * scheduling rule. The remaining, project-local steps are executed in parallel on a bounded
+ * worker pool, each holding only the scheduling rule of the project, which also covers its
+ * settings folder. The size of the pool is defined by the
+ * {@link SynchronizeGradleBuildsJob#PROJECT_SYNCHRONIZATION_PARALLELISM} preference; a value of
+ * one synchronizes the projects one after another.
+ * <p/>
+ * Unless a full synchronization is requested, the project-local steps are skipped for existing
+ * projects whose {@link ProjectModelFingerprint} matches the one stored in the persistent model at
+ * the end of the previous synchronization.
+ * <p/>
+ * Before a project is updated, only the resources read by the updaters are refreshed, see
+ * {@link ProjectResourceRefresher}. Full synchronizations and workspaces setting the
+ * {@link SynchronizeGradleBuildsJob#FULL_REFRESH} preference refresh the complete project instead.
  *
  */
-final class SynchronizeGradleBuildOperation implements IWorkspaceRunnable {
+final class SynchronizeGradleBuildOperation {
 
     private final Set<OmniEclipseProject> allProjects;
     private final BuildConfiguration buildConfig;
     private final NewProjectHandler newProjectHandler;
+    private final boolean fullSynchronization;
+    private final boolean fullRefresh;
+    private final AtomicInteger skippedProjectCount = new AtomicInteger();
+    private final ClasspathContainerBatch classpathContainers = new ClasspathContainerBatch();
 
-    SynchronizeGradleBuildOperation(Set<OmniEclipseProject> allProjects, BuildConfiguration buildConfig, NewProjectHandler newProjectHandler) {
+    SynchronizeGradleBuildOperation(Set<OmniEclipseProject> allProjects, BuildConfiguration buildConfig, NewProjectHandler newProjectHandler, boolean fullSynchronization) {
         this.allProjects = allProjects;
         this.buildConfig = buildConfig;
         this.newProjectHandler = newProjectHandler;
+        this.fullSynchronization = fullSynchronization;
+        this.fullRefresh = fullSynchronization || Platform.getPreferencesService().getBoolean(CorePlugin.PLUGIN_ID, SynchronizeGradleBuildsJob.FULL_REFRESH, false, null);
+    }
+
+    /**
+     * Returns the number of projects which were not updated because their model did not change
+     * since the last synchronization.
+     *
+     * @return the number of skipped projects
+     */
+    int getSkippedProjectCount() {
+        return this.skippedProjectCount.get();
     }
 
-    @Override
     public void run(IProgressMonitor monitor) throws CoreException {
-        SubMonitor progress = SubMonitor.convert(monitor);
+        SubMonitor progress = SubMonitor.convert(monitor, 3);
         progress.setTaskName(String.format("Synchronizing Gradle build at %s", this.buildConfig.getRootProjectDirectory()));
-        synchronizeProjectsWithWorkspace(progress);
+
+        final List<ProjectSynchronization> synchronizations = Lists.newArrayList();
+        IWorkspace workspace = ResourcesPlugin.getWorkspace();
+        workspace.run(new IWorkspaceRunnable() {
+
+            @Override
+            public void run(IProgressMonitor monitor) throws CoreException {
+                TraceSpan span = CorePlugin.synchronizationTracer().startSpan("operation", "Synchronize workspace structure");
+                try {
+                    synchronizations.addAll(synchronizeWorkspaceStructure(SubMonitor.convert(monitor)));
+                } finally {
+                    span.end();
+                }
+            }
+        }, workspace.getRoot(), IWorkspace.AVOID_UPDATE, progress.newChild(1));
+
+        SynchronizationTracer tracer = CorePlugin.synchronizationTracer();
+        TraceSpan span = tracer.startSpan("operation", "Synchronize projects");
+        try {
+            synchronizeProjectsInParallel(synchronizations, progress.newChild(1));
+        } finally {
+            // assign the classpath containers of all synchronized projects at once
+            span = span.next("Assign Gradle classpath containers");
+            try {
+                this.classpathContainers.apply(progress.newChild(1));
+            } finally {
+                span.end();
+            }
+        }
+
+        span = tracer.startSpan("operation", "Notify new project handler");
+        try {
+            for (ProjectSynchronization synchronization : synchronizations) {
+                if (synchronization.imported) {
+                    this.newProjectHandler.afterImport(synchronization.workspaceProject, synchronization.gradleProject);
+                }
+            }
+        } finally {
+            span.end();
+        }
     }
 
-    private void synchronizeProjectsWithWorkspace(SubMonitor progress) throws CoreException {
+    private List<ProjectSynchronization> synchronizeWorkspaceStructure(SubMonitor progress) {
         // collect Gradle projects and Eclipse workspace projects to sync
         List<IProject> decoupledWorkspaceProjects = getOpenWorkspaceProjectsRemovedFromGradleBuild();
         progress.setWorkRemaining(decoupledWorkspaceProjects.size() + this.allProjects.size());
 
-
         // uncouple the open workspace projects that do not have a corresponding Gradle project anymore
         for (IProject project : decoupledWorkspaceProjects) {
             uncoupleWorkspaceProjectFromGradle(project, progress.newChild(1));
         }
 
-        // synchronize the Gradle projects with their corresponding workspace projects
-        for (final OmniEclipseProject gradleProject : this.allProjects) {
+        // create, import and rename the workspace projects corresponding to the Gradle projects
+        List<ProjectSynchronization> result = Lists.newArrayList();
+        for (OmniEclipseProject gradleProject : this.allProjects) {
+            ProjectSynchronization synchronization = prepareGradleProjectSynchronization(gradleProject, progress.newChild(1));
+            if (synchronization != null) {
+                result.add(synchronization);
+            }
+        }
+        return result;
+    }
+
+    private void synchronizeProjectsInParallel(List<ProjectSynchronization> synchronizations, SubMonitor progress) throws CoreException {
+        int defaultParallelism = Runtime.getRuntime().availableProcessors();
+        int parallelism = Platform.getPreferencesService().getInt(CorePlugin.PLUGIN_ID, SynchronizeGradleBuildsJob.PROJECT_SYNCHRONIZATION_PARALLELISM, defaultParallelism, null);
+        new ParallelTaskExecutor<ProjectSynchronization>(parallelism, "Gradle project synchronization %d").execute(synchronizations, new ParallelTaskExecutor.Task<ProjectSynchronization>() {
+
+            @Override
+            public void run(ProjectSynchronization synchronization, IProgressMonitor monitor) throws CoreException {
+                synchronizeWithProjectRule(synchronization, monitor);
+                monitor.subTask(String.format("Synchronized Gradle project %s with workspace project", synchronization.gradleProject.getName()));
+            }
+        }, progress);
+    }
+
+    private void synchronizeWithProjectRule(final ProjectSynchronization synchronization, IProgressMonitor monitor) throws CoreException {
+        if (monitor.isCanceled()) {
+            throw new OperationCanceledException();
+        }
+
+        TraceSpan span = CorePlugin.synchronizationTracer().startSpan("project", "Up-to-date check", synchronization.workspaceProject.getName());
+        try {
+            if (isUpToDate(synchronization)) {
+                this.skippedProjectCount.incrementAndGet();
+                return;
+            }
+        } finally {
+            span.end();
+        }
+
+        span = CorePlugin.synchronizationTracer().startSpan("project", "Synchronize project", synchronization.workspaceProject.getName());
+        try {
             ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+
                 @Override
                 public void run(IProgressMonitor monitor) throws CoreException {
-                    synchronizeGradleProjectWithWorkspaceProject(gradleProject, SubMonitor.convert(monitor));
+                    synchronizeOpenWorkspaceProject(synchronization.gradleProject, synchronization.workspaceProject, SubMonitor.convert(monitor));
                 }
-            }, progress.newChild(1));
+            }, synchronization.workspaceProject, IWorkspace.AVOID_UPDATE, monitor);
+        } finally {
+            span.end();
+        }
+    }
+
+    private boolean isUpToDate(ProjectSynchronization synchronization) {
+        if (this.fullSynchronization || synchronization.imported) {
+            return false;
         }
+        IProject project = synchronization.workspaceProject;
+        PersistentModel previousModel = CorePlugin.modelPersistence().loadModel(project);
+        return previousModel.isPresent() && GradleProjectNature.isPresentOn(project)
+                && previousModel.getModelFingerprint().equals(ProjectModelFingerprint.calculate(synchronization.gradleProject, project));
     }
 
     private List<IProject> getOpenWorkspaceProjectsRemovedFromGradleBuild() {
@@ -166,7 +293,7 @@ final class SynchronizeGradleBuildOperation implements IWorkspaceRunnable {
         }).toList();
     }
 
-    private void synchronizeGradleProjectWithWorkspaceProject(OmniEclipseProject project, SubMonitor progress) throws CoreException {
+    private ProjectSynchronization prepareGradleProjectSynchronization(OmniEclipseProject project, SubMonitor progress) {
         progress.setWorkRemaining(1);
 
         // save the project configuration
@@ -179,47 +306,78 @@ final class SynchronizeGradleBuildOperation implements IWorkspaceRunnable {
         Optional<IProject> workspaceProject = CorePlugin.workspaceOperations().findProjectByLocation(project.getProjectDirectory());
         SubMonitor childProgress = progress.newChild(1, SubMonitor.SUPPRESS_ALL_LABELS);
         if (workspaceProject.isPresent()) {
-            synchronizeWorkspaceProject(project, workspaceProject.get(), childProgress);
+            return prepareWorkspaceProject(project, workspaceProject.get(), childProgress);
+        } else if (project.getProjectDirectory().exists() && this.newProjectHandler.shouldImport(project)) {
+            return prepareNonWorkspaceProject(project, childProgress);
         } else {
-            if (project.getProjectDirectory().exists() && this.newProjectHandler.shouldImport(project)) {
-                synchronizeNonWorkspaceProject(project, childProgress);
-            }
+            return null;
         }
     }
 
-    private void synchronizeWorkspaceProject(OmniEclipseProject project, IProject workspaceProject, SubMonitor progress) throws CoreException {
+    private ProjectSynchronization prepareWorkspaceProject(OmniEclipseProject project, IProject workspaceProject, SubMonitor progress) {
+        // do not modify closed projects
         if (workspaceProject.isAccessible()) {
-            synchronizeOpenWorkspaceProject(project, workspaceProject, progress);
+            return new ProjectSynchronization(project, updateProjectName(project, workspaceProject, progress), false);
         } else {
-            synchronizeClosedWorkspaceProject(progress);
+            return null;
         }
     }
 
-    private void synchronizeOpenWorkspaceProject(OmniEclipseProject project, IProject workspaceProject, SubMonitor progress) throws CoreException {
-        progress.setWorkRemaining(10);
+    private IProject updateProjectName(OmniEclipseProject project, IProject workspaceProject, SubMonitor progress) {
+        progress.setWorkRemaining(2);
+        if (project.getName().equals(workspaceProject.getName())) {
+            return workspaceProject;
+        }
 
         //currently lots of our synchronization logic assumes that the whole resource tree is readable.
         CorePlugin.workspaceOperations().refreshProject(workspaceProject, progress.newChild(1));
+        return ProjectNameUpdater.updateProjectName(workspaceProject, project, this.allProjects, progress.newChild(1));
+    }
 
-        workspaceProject = ProjectNameUpdater.updateProjectName(workspaceProject, project, this.allProjects, progress.newChild(1));
-
-        CorePlugin.workspaceOperations().addNature(workspaceProject, GradleProjectNature.ID, progress.newChild(1));
+    private void synchronizeOpenWorkspaceProject(OmniEclipseProject project, IProject workspaceProject, SubMonitor progress) throws CoreException {
+        progress.setWorkRemaining(8);
 
-        PersistentModelBuilder persistentModel = new PersistentModelBuilder(CorePlugin.modelPersistence().loadModel(workspaceProject));
+        TraceSpan span = CorePlugin.synchronizationTracer().startSpan("updater", "Refresh project", workspaceProject.getName());
+        try {
+            // the updaters assume that the resources they read are in sync with the file system
+            PersistentModel previousModel = CorePlugin.modelPersistence().loadModel(workspaceProject);
+            if (this.fullRefresh) {
+                CorePlugin.workspaceOperations().refreshProject(workspaceProject, progress.newChild(1));
+            } else {
+                ProjectResourceRefresher.refresh(workspaceProject, project, previousModel, progress.newChild(1));
+            }
 
-        BuildScriptLocationUpdater.update(project, persistentModel, progress.newChild(1));
-        LinkedResourcesUpdater.update(workspaceProject, project.getLinkedResources(), persistentModel, progress.newChild(1));
-        GradleFolderUpdater.update(workspaceProject, project, persistentModel, progress.newChild(1));
-        ProjectNatureUpdater.update(workspaceProject, project.getProjectNatures(), persistentModel, progress.newChild(1));
-        BuildCommandUpdater.update(workspaceProject, project.getBuildCommands(), persistentModel, progress.newChild(1));
+            span = span.next("Add Gradle nature");
+            CorePlugin.workspaceOperations().addNature(workspaceProject, GradleProjectNature.ID, progress.newChild(1));
+
+            span = span.next("Load persistent model");
+            PersistentModelBuilder persistentModel = new PersistentModelBuilder(previousModel);
+
+            span = span.next("BuildScriptLocationUpdater");
+            BuildScriptLocationUpdater.update(project, persistentModel, progress.newChild(1));
+            span = span.next("LinkedResourcesUpdater");
+            LinkedResourcesUpdater.update(workspaceProject, project.getLinkedResources(), persistentModel, progress.newChild(1));
+            span = span.next("GradleFolderUpdater");
+            GradleFolderUpdater.update(workspaceProject, project, persistentModel, progress.newChild(1));
+            span = span.next("ProjectNatureUpdater");
+            ProjectNatureUpdater.update(workspaceProject, project.getProjectNatures(), persistentModel, progress.newChild(1));
+            span = span.next("BuildCommandUpdater");
+            BuildCommandUpdater.update(workspaceProject, project.getBuildCommands(), persistentModel, progress.newChild(1));
+
+            if (isJavaProject(project)) {
+                span = span.next("Synchronize Java project");
+                synchronizeJavaProject(project, workspaceProject, persistentModel, progress);
+            } else {
+                persistentModel.classpath(ImmutableList.<IClasspathEntry>of());
+            }
 
-        if (isJavaProject(project)) {
-            synchronizeJavaProject(project, workspaceProject, persistentModel, progress);
-        } else {
-            persistentModel.classpath(ImmutableList.<IClasspathEntry>of());
+            // calculated after the updates such that it contains the resulting workspace state
+            span = span.next("Save persistent model");
+            persistentModel.modelFingerprint(ProjectModelFingerprint.calculate(project, workspaceProject));
+            CorePlugin.modelPersistence().saveModel(persistentModel.build());
+        } finally {
+            span.end();
         }
-
-        CorePlugin.modelPersistence().saveModel(persistentModel.build());
     }
 
     private void synchronizeJavaProject(final OmniEclipseProject project, final IProject workspaceProject, final PersistentModelBuilder persistentModel, SubMonitor progress) throws CoreException {
@@ -229,32 +387,41 @@ final class SynchronizeGradleBuildOperation implements IWorkspaceRunnable {
                 SubMonitor progress = SubMonitor.convert(monitor);
                 synchronizeJavaProjectInTransaction(project, workspaceProject, persistentModel, progress);
             }
-        }, progress.newChild(1));
+        }, workspaceProject, progress.newChild(1));
     }
 
     private void synchronizeJavaProjectInTransaction(final OmniEclipseProject project, final IProject workspaceProject, PersistentModelBuilder persistentModel, SubMonitor progress) throws JavaModelException, CoreException {
-        progress.setWorkRemaining(8);
+        progress.setWorkRemaining(3);
         //old Gradle versions did not expose natures, so we need to add the Java nature explicitly
         CorePlugin.workspaceOperations().addNature(workspaceProject, JavaCore.NATURE_ID, progress.newChild(1));
         IJavaProject javaProject = JavaCore.create(workspaceProject);
-        OutputLocationUpdater.update(javaProject, project.getOutputLocation(), progress.newChild(1));
-        SourceFolderUpdater.update(javaProject, project.getSourceDirectories(), progress.newChild(1));
-        LibraryFilter.update(javaProject, project, progress.newChild(1));
-        ClasspathContainerUpdater.update(javaProject, project.getClasspathContainers(), project.getJavaSourceSettings().get(), progress.newChild(1));
-        JavaSourceSettingsUpdater.update(javaProject, project, progress.newChild(1));
-        GradleClasspathContainerUpdater.updateFromModel(javaProject, project, SynchronizeGradleBuildOperation.this.allProjects, persistentModel, progress.newChild(1));
-        WtpClasspathUpdater.update(javaProject, project, progress.newChild(1));
+
+        // the raw classpath and the output location are written at most once per project
+        TraceSpan span = CorePlugin.synchronizationTracer().startSpan("updater", "Compute raw classpath", workspaceProject.getName());
+        try {
+            ClasspathTransaction classpath = ClasspathTransaction.begin(javaProject);
+            OutputLocationUpdater.update(classpath, project.getOutputLocation());
+            SourceFolderUpdater.update(classpath, project.getSourceDirectories());
+            LibraryFilter.update(classpath, project);
+            ClasspathContainerUpdater.update(classpath, project.getClasspathContainers(), project.getJavaSourceSettings().get());
+            WtpClasspathUpdater.update(classpath, project);
+            span = span.next("Write raw classpath");
+            classpath.commit(progress.newChild(1));
+
+            span = span.next("JavaSourceSettingsUpdater");
+            JavaSourceSettingsUpdater.update(javaProject, project, progress.newChild(1));
+            span = span.next("GradleClasspathContainerUpdater");
+            GradleClasspathContainerUpdater.updateFromModel(javaProject, project, SynchronizeGradleBuildOperation.this.allProjects, persistentModel, this.classpathContainers);
+        } finally {
+            span.end();
+        }
     }
 
     private boolean isJavaProject(OmniEclipseProject project) {
         return project.getJavaSourceSettings().isPresent();
     }
 
-    private void synchronizeClosedWorkspaceProject(SubMonitor childProgress) {
-        // do not modify closed projects
-    }
-
-    private void synchronizeNonWorkspaceProject(OmniEclipseProject project, SubMonitor progress) throws CoreException {
+    private ProjectSynchronization prepareNonWorkspaceProject(OmniEclipseProject project, SubMonitor progress) {
         progress.setWorkRemaining(2);
         IProject workspaceProject;
 
@@ -266,31 +433,47 @@ final class SynchronizeGradleBuildOperation implements IWorkspaceRunnable {
             workspaceProject = addNewEclipseProjectToWorkspace(project, progress.newChild(1));
         }
 
-        this.newProjectHandler.afterImport(workspaceProject, project);
+        return new ProjectSynchronization(project, workspaceProject, true);
     }
 
-    private IProject addExistingEclipseProjectToWorkspace(OmniEclipseProject project, IProjectDescription projectDescription, SubMonitor progress) throws CoreException {
-        progress.setWorkRemaining(3);
+    private IProject addExistingEclipseProjectToWorkspace(OmniEclipseProject project, IProjectDescription projectDescription, SubMonitor progress) {
+        progress.setWorkRemaining(2);
         ProjectNameUpdater.ensureProjectNameIsFree(project, this.allProjects, progress.newChild(1));
-        IProject workspaceProject = CorePlugin.workspaceOperations().includeProject(projectDescription, ImmutableList.<String>of(), progress.newChild(1));
-        synchronizeOpenWorkspaceProject(project, workspaceProject, progress.newChild(1));
-        return workspaceProject;
+        return CorePlugin.workspaceOperations().includeProject(projectDescription, ImmutableList.<String>of(), progress.newChild(1));
     }
 
-    private IProject addNewEclipseProjectToWorkspace(OmniEclipseProject project, SubMonitor progress) throws CoreException {
-        progress.setWorkRemaining(3);
+    private IProject addNewEclipseProjectToWorkspace(OmniEclipseProject project, SubMonitor progress) {
+        progress.setWorkRemaining(2);
         ProjectNameUpdater.ensureProjectNameIsFree(project, this.allProjects, progress.newChild(1));
-        IProject workspaceProject = CorePlugin.workspaceOperations().createProject(project.getName(), project.getProjectDirectory(), ImmutableList.<String>of(), progress.newChild(1));
-        synchronizeOpenWorkspaceProject(project, workspaceProject, progress.newChild(1));
-        return workspaceProject;
+        return CorePlugin.workspaceOperations().createProject(project.getName(), project.getProjectDirectory(), ImmutableList.<String>of(), progress.newChild(1));
     }
 
     private void uncoupleWorkspaceProjectFromGradle(IProject workspaceProject, SubMonitor monitor) {
         monitor.setWorkRemaining(3);
         monitor.subTask(String.format("Uncouple workspace project %s from Gradle", workspaceProject.getName()));
-        CorePlugin.workspaceOperations().refreshProject(workspaceProject, monitor.newChild(1, SubMonitor.SUPPRESS_ALL_LABELS));
+        if (this.fullRefresh) {
+            CorePlugin.workspaceOperations().refreshProject(workspaceProject, monitor.newChild(1, SubMonitor.SUPPRESS_ALL_LABELS));
+        } else {
+            ProjectResourceRefresher.refreshDescriptorAndSettings(workspaceProject, monitor.newChild(1, SubMonitor.SUPPRESS_ALL_LABELS));
+        }
         CorePlugin.workspaceOperations().removeNature(workspaceProject, GradleProjectNature.ID, monitor.newChild(1, SubMonitor.SUPPRESS_ALL_LABELS));
         CorePlugin.modelPersistence().deleteModel(workspaceProject);
         CorePlugin.configurationManager().deleteProjectConfiguration(workspaceProject);
     }
+
+    /**
+     * A Gradle project and the open workspace project it is synchronized with.
+     */
+    private static final class ProjectSynchronization {
+
+        private final OmniEclipseProject gradleProject;
+        private final IProject workspaceProject;
+        private final boolean imported;
+
+        private ProjectSynchronization(OmniEclipseProject gradleProject, IProject workspaceProject, boolean imported) {
+            this.gradleProject = gradleProject;
+            this.workspaceProject = workspaceProject;
+            this.imported = imported;
+        }
+    }
 }
@@ -8,26 +8,46 @@
 
 package org.eclipse.buildship.core.workspace.internal;
 
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import com.google.common.base.Objects;
-import com.google.common.base.Preconditions;
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
 import com.gradleware.tooling.toolingmodel.repository.FetchStrategy;
 
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.GradlePluginsRuntimeException;
 import org.eclipse.buildship.core.configuration.BuildConfiguration;
 import org.eclipse.buildship.core.util.progress.AsyncHandler;
 import org.eclipse.buildship.core.util.progress.ToolingApiJob;
+import org.eclipse.buildship.core.util.trace.SynchronizationTracer;
+import org.eclipse.buildship.core.util.trace.TraceSpan;
+import org.eclipse.buildship.core.workspace.EclipseProjectsListener;
 import org.eclipse.buildship.core.workspace.GradleBuild;
 import org.eclipse.buildship.core.workspace.GradleBuilds;
 import org.eclipse.buildship.core.workspace.ModelProvider;
@@ -35,95 +55,278 @@ import org.eclipse.buildship.core.workspace.NewProjectHandler;
 
 /**
  * Synchronizes each of the given Gradle builds with the workspace.
+ * <p/>
+ * The synchronization is a two-stage pipeline: the models of the builds are loaded concurrently in
+ * the background, limited by the {@link #SYNCHRONIZATION_PARALLELISM} preference, while the job
+ * applies the already loaded models to the workspace one build after another. At most one model
+ * more than the number of loading threads is loaded ahead of the build being applied.
  */
 public final class SynchronizeGradleBuildsJob extends ToolingApiJob {
 
-    private final ImmutableSet<GradleBuild> builds;
-    private final NewProjectHandler newProjectHandler;
-    private final AsyncHandler initializer;
+    /**
+     * Preference key of the maximum number of Gradle builds whose models are loaded concurrently.
+     * The value can be set in the instance scope or via the plugin customization of the product.
+     */
+    public static final String SYNCHRONIZATION_PARALLELISM = "synchronization.parallelism";
+
+    /**
+     * Preference key of the maximum number of workspace projects which are synchronized
+     * concurrently. Defaults to the number of available processors, a value of one disables the
+     * parallel project synchronization.
+     */
+    public static final String PROJECT_SYNCHRONIZATION_PARALLELISM = "synchronization.projects.parallelism";
+
+    /**
+     * Preference key to refresh the complete synchronized projects instead of only the resources
+     * read by the synchronization.
+     */
+    public static final String FULL_REFRESH = "synchronization.refresh.full";
+
+    private static final int DEFAULT_MAX_PARALLELISM = 4;
+
+    private static final ISchedulingRule SYNCHRONIZATION_RULE = new ISchedulingRule() {
+
+        @Override
+        public boolean contains(ISchedulingRule rule) {
+            return rule == this;
+        }
 
-    private SynchronizeGradleBuildsJob(Set<GradleBuild> builds, NewProjectHandler newProjectHandler, AsyncHandler initializer) {
+        @Override
+        public boolean isConflicting(ISchedulingRule rule) {
+            return rule == this;
+        }
+    };
+
+    // guards the requests of all jobs and the pending job
+    private static final Object LOCK = new Object();
+    private static SynchronizeGradleBuildsJob pendingJob;
+
+    private SynchronizationRequest request;
+    private boolean started;
+
+    private SynchronizeGradleBuildsJob(Set<GradleBuild> builds, NewProjectHandler newProjectHandler, AsyncHandler initializer, boolean fullSynchronization) {
         super("Synchronize Gradle projects with workspace", true);
-        this.builds = ImmutableSet.copyOf(builds);
-        this.newProjectHandler = Preconditions.checkNotNull(newProjectHandler);
-        this.initializer = Preconditions.checkNotNull(initializer);
+        this.request = SynchronizationRequest.of(builds, newProjectHandler, initializer, fullSynchronization);
 
         // explicitly show a dialog with the progress while the project synchronization is in
         // process
         setUser(true);
 
-        // guarantee sequential order of synchronize jobs
-        setRule(ResourcesPlugin.getWorkspace().getRoot());
+        // guarantee sequential order of synchronize jobs; the workspace is only locked during
+        // the phases which modify resources
+        setRule(SYNCHRONIZATION_RULE);
     }
 
     Set<GradleBuild> getBuilds() {
-        return this.builds;
+        synchronized (LOCK) {
+            return this.request.getBuilds();
+        }
     }
 
     @Override
     protected void runToolingApiJob(IProgressMonitor monitor) throws Exception {
-        final SubMonitor progress = SubMonitor.convert(monitor, this.builds.size() + 1);
+        // from now on no more requests are merged into this job
+        SynchronizationRequest request;
+        synchronized (LOCK) {
+            this.started = true;
+            if (pendingJob == this) {
+                pendingJob = null;
+            }
+            request = this.request;
+        }
+
+        SynchronizationTracer tracer = CorePlugin.synchronizationTracer();
+        tracer.beginTrace(getToken());
+        TraceSpan span = tracer.startSpan("job", "Synchronize Gradle builds");
+        // build the workspace once after all builds are synchronized
+        DeferredWorkspaceBuild.beginSynchronization();
+        try {
+            synchronizeBuilds(request, monitor);
+        } finally {
+            DeferredWorkspaceBuild.endSynchronization();
+            span.end();
+            tracer.endTrace();
+        }
+    }
+
+    private void synchronizeBuilds(SynchronizationRequest request, IProgressMonitor monitor) throws Exception {
+        Set<GradleBuild> builds = request.getBuilds();
+        final SubMonitor progress = SubMonitor.convert(monitor, 2 * builds.size() + 1);
+
+        SubMonitor initializerProgress = progress.newChild(1);
+        initializerProgress.setWorkRemaining(request.getInitializers().size());
+        TraceSpan initializerSpan = CorePlugin.synchronizationTracer().startSpan("job", "Run initializers");
+        try {
+            for (AsyncHandler initializer : request.getInitializers()) {
+                initializer.run(initializerProgress.newChild(1), getToken());
+            }
+        } finally {
+            initializerSpan.end();
+        }
+
+        // the model loading mostly waits for the Gradle daemons, so the models of the next builds
+        // are loaded while the current one is applied to the workspace
+        int workerCount = Math.max(1, Math.min(getSynchronizationParallelism(), builds.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(workerCount, new ThreadFactoryBuilder().setNameFormat("Gradle model loading %d").setDaemon(true).build());
+        try {
+            IProgressMonitor workerMonitor = new CancellationForwardingMonitor(progress);
+            Iterator<GradleBuild> buildsToLoad = builds.iterator();
+            Deque<Future<Set<OmniEclipseProject>>> modelQueue = new ArrayDeque<Future<Set<OmniEclipseProject>>>();
+            for (GradleBuild build : builds) {
+                if (monitor.isCanceled()) {
+                    throw new OperationCanceledException();
+                }
+
+                // keep the queue filled up to its capacity, such that the number of models held in
+                // memory at the same time is bounded
+                while (buildsToLoad.hasNext() && modelQueue.size() < workerCount + 1) {
+                    modelQueue.add(executor.submit(newFetchTask(buildsToLoad.next(), workerMonitor)));
+                }
+
+                SubMonitor buildProgress = progress.newChild(2);
+                buildProgress.setWorkRemaining(2);
+                buildProgress.setTaskName(String.format("Loading Gradle project models of build at %s", build.getBuildConfig().getRootProjectDirectory()));
+                TraceSpan waitSpan = CorePlugin.synchronizationTracer().startSpan("build", "Wait for models", build.getBuildConfig().getRootProjectDirectory().getPath());
+                Set<OmniEclipseProject> model;
+                try {
+                    model = getModel(modelQueue.remove());
+                } finally {
+                    waitSpan.end();
+                }
+                buildProgress.worked(1);
+                synchronizeBuild(build, model, request.getNewProjectHandler(build), request.isFullSynchronization(build), buildProgress.newChild(1));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-        this.initializer.run(progress.newChild(1), getToken());
+    private Callable<Set<OmniEclipseProject>> newFetchTask(final GradleBuild build, final IProgressMonitor monitor) {
+        return new Callable<Set<OmniEclipseProject>>() {
 
-        for (GradleBuild build : this.builds) {
-            if (monitor.isCanceled()) {
-                throw new OperationCanceledException();
+            @Override
+            public Set<OmniEclipseProject> call() {
+                TraceSpan span = CorePlugin.synchronizationTracer().startSpan("build", "Load models", build.getBuildConfig().getRootProjectDirectory().getPath());
+                try {
+                    return fetchEclipseProjects(build, monitor);
+                } finally {
+                    span.end();
+                }
             }
-            synchronizeBuild(build, progress.newChild(1));
+        };
+    }
+
+    private static Set<OmniEclipseProject> getModel(Future<Set<OmniEclipseProject>> model) throws Exception {
+        try {
+            return model.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OperationCanceledException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            Throwables.propagateIfPossible(cause, Exception.class);
+            throw new GradlePluginsRuntimeException(cause);
         }
     }
 
-    private void synchronizeBuild(GradleBuild build, SubMonitor progress) throws CoreException {
-        BuildConfiguration buildConfig = build.getBuildConfig();
+    private static int getSynchronizationParallelism() {
+        int defaultParallelism = Math.min(DEFAULT_MAX_PARALLELISM, Runtime.getRuntime().availableProcessors());
+        int parallelism = Platform.getPreferencesService().getInt(CorePlugin.PLUGIN_ID, SYNCHRONIZATION_PARALLELISM, defaultParallelism, null);
+        return Math.max(1, parallelism);
+    }
+
+    private void synchronizeBuild(GradleBuild build, final Set<OmniEclipseProject> allProjects, NewProjectHandler newProjectHandler, boolean fullSynchronization, SubMonitor progress) throws CoreException {
+        final BuildConfiguration buildConfig = build.getBuildConfig();
         progress.setTaskName((String.format("Synchronizing Gradle build at %s with workspace", buildConfig.getRootProjectDirectory())));
-        progress.setWorkRemaining(4);
-        Set<OmniEclipseProject> allProjects = fetchEclipseProjects(build, progress.newChild(1));
-        new ValidateProjectLocationOperation(allProjects).run(progress.newChild(1));
-        new SynchronizeBuildConfigurationOperation(buildConfig).run(progress.newChild(1), getToken());
-        new RunOnImportTasksOperation(allProjects, buildConfig).run(progress.newChild(1), getToken());
-        new SynchronizeGradleBuildOperation(allProjects, buildConfig, SynchronizeGradleBuildsJob.this.newProjectHandler).run(progress.newChild(1));
+        progress.setWorkRemaining(2);
+        IWorkspace workspace = ResourcesPlugin.getWorkspace();
+        workspace.run(new IWorkspaceRunnable() {
+
+            @Override
+            public void run(IProgressMonitor monitor) throws CoreException {
+                SubMonitor progress = SubMonitor.convert(monitor, 3);
+                TraceSpan span = CorePlugin.synchronizationTracer().startSpan("build", "Validate project locations", buildConfig.getRootProjectDirectory().getPath());
+                try {
+                    new ValidateProjectLocationOperation(allProjects).run(progress.newChild(1));
+                    span = span.next("Synchronize build configuration");
+                    new SynchronizeBuildConfigurationOperation(buildConfig).run(progress.newChild(1), getToken());
+                    span = span.next("Run on-import tasks");
+                    new RunOnImportTasksOperation(allProjects, buildConfig).run(progress.newChild(1), getToken());
+                } finally {
+                    span.end();
+                }
+            }
+        }, workspace.getRoot(), IWorkspace.AVOID_UPDATE, progress.newChild(1));
+        SynchronizeGradleBuildOperation synchronizeOperation = new SynchronizeGradleBuildOperation(allProjects, buildConfig, newProjectHandler, fullSynchronization);
+        TraceSpan span = CorePlugin.synchronizationTracer().startSpan("build", "Synchronize projects", buildConfig.getRootProjectDirectory().getPath());
+        try {
+            synchronizeOperation.run(progress.newChild(1));
+        } finally {
+            span.end();
+        }
+        CorePlugin.logger().debug(String.format("Synchronized Gradle build at %s with workspace: %d projects, %d skipped because their model did not change",
+                buildConfig.getRootProjectDirectory(), allProjects.size(), synchronizeOperation.getSkippedProjectCount()));
     }
 
-    private Set<OmniEclipseProject> fetchEclipseProjects(GradleBuild build, SubMonitor progress) {
-        progress.setTaskName("Loading Gradle project models");
+    private Set<OmniEclipseProject> fetchEclipseProjects(GradleBuild build, IProgressMonitor monitor) {
         ModelProvider modelProvider = build.getModelProvider();
-        return modelProvider.fetchEclipseGradleProjects(FetchStrategy.FORCE_RELOAD, getToken(), progress);
+        return modelProvider.fetchEclipseGradleProjects(FetchStrategy.FORCE_RELOAD, getToken(), monitor, new EclipseProjectsListener() {
+
+            @Override
+            public void eclipseProjectsLoaded(File buildRootDir, List<File> projectDirs) {
+                // while the remaining included builds are configured, load the persisted models
+                // needed by the up-to-date checks of the synchronization
+                for (File projectDir : projectDirs) {
+                    Optional<IProject> workspaceProject = CorePlugin.workspaceOperations().findProjectByLocation(projectDir);
+                    if (workspaceProject.isPresent() && workspaceProject.get().isAccessible()) {
+                        CorePlugin.modelPersistence().loadModel(workspaceProject.get());
+                    }
+                }
+            }
+        });
     }
 
     /**
-     * A {@link SynchronizeGradleBuildsJob} is only scheduled if there is not already another one that
-     * fully covers it.
+     * Synchronization requests are queued such that at most one {@link SynchronizeGradleBuildsJob}
+     * waits while another one is running.
      * <p/>
-     * A job A fully covers a job B if all of these conditions are met:
+     * A job is not scheduled if one of these conditions is met:
      * <ul>
-     * <li>A synchronizes the same Gradle builds as B</li>
-     * <li>A and B have the same {@link NewProjectHandler} or B's {@link NewProjectHandler} is a
-     * no-op</li>
-     * <li>A and B have the same {@link AsyncHandler} or B's {@link AsyncHandler} is a no-op</li>
+     * <li>Another job fully covers it, as defined by {@link SynchronizationRequest#covers(SynchronizationRequest)}.</li>
+     * <li>Another job is scheduled but not yet started. In that case the request of this job is
+     * merged into the pending one, which then synchronizes the union of the builds and composes the
+     * {@link NewProjectHandler}s and {@link AsyncHandler}s of both jobs.</li>
      * </ul>
      */
     @Override
     public boolean shouldSchedule() {
-        for (Job job : Job.getJobManager().find(CorePlugin.GRADLE_JOB_FAMILY)) {
-            if (job instanceof SynchronizeGradleBuildsJob && isCoveredBy((SynchronizeGradleBuildsJob) job)) {
+        synchronized (LOCK) {
+            for (Job job : Job.getJobManager().find(CorePlugin.GRADLE_JOB_FAMILY)) {
+                if (job != this && job instanceof SynchronizeGradleBuildsJob && ((SynchronizeGradleBuildsJob) job).request.covers(this.request)) {
+                    return false;
+                }
+            }
+
+            if (pendingJob != null && pendingJob != this && !pendingJob.started && pendingJob.getState() != Job.NONE) {
+                pendingJob.request = pendingJob.request.merge(this.request);
                 return false;
             }
-        }
-        return true;
-    }
 
-    private boolean isCoveredBy(SynchronizeGradleBuildsJob other) {
-        return Objects.equal(this.builds, other.builds) && (this.newProjectHandler == NewProjectHandler.NO_OP || Objects.equal(this.newProjectHandler, other.newProjectHandler))
-                && (this.initializer == AsyncHandler.NO_OP || Objects.equal(this.initializer, other.initializer));
+            pendingJob = this;
+            return true;
+        }
     }
 
     public static SynchronizeGradleBuildsJob forSingleGradleBuild(GradleBuild build, NewProjectHandler newProjectHandler, AsyncHandler initializer) {
-        return new SynchronizeGradleBuildsJob(ImmutableSet.of(build), newProjectHandler, initializer);
+        return new SynchronizeGradleBuildsJob(ImmutableSet.of(build), newProjectHandler, initializer, false);
     }
 
     public static SynchronizeGradleBuildsJob forMultipleGradleBuilds(GradleBuilds builds, NewProjectHandler newProjectHandler, AsyncHandler initializer) {
-        return new SynchronizeGradleBuildsJob(builds.getGradleBuilds(), newProjectHandler, initializer);
+        return new SynchronizeGradleBuildsJob(builds.getGradleBuilds(), newProjectHandler, initializer, false);
+    }
+
+    public static SynchronizeGradleBuildsJob fullSynchronizationForMultipleGradleBuilds(GradleBuilds builds, NewProjectHandler newProjectHandler, AsyncHandler initializer) {
+        return new SynchronizeGradleBuildsJob(builds.getGradleBuilds(), newProjectHandler, initializer, true);
     }
 
 }
@@ -10,8 +10,10 @@ package org.eclipse.buildship.core.workspace.internal;
 
 import java.util.Set;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceChangeEvent;
@@ -22,22 +24,48 @@ import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.buildship.core.CorePlugin;
 import org.eclipse.buildship.core.configuration.GradleProjectNature;
 import org.eclipse.buildship.core.configuration.ProjectConfiguration;
 import org.eclipse.buildship.core.preferences.PersistentModel;
+import org.eclipse.buildship.core.workspace.NewProjectHandler;
 
 /**
  * Executes project synchronization if the corresponding preference is enabled and the user changes
- * the build script.
+ * the build configuration.
+ * <p/>
+ * Besides the build script of the project, changes of every {@code *.gradle} and
+ * {@code *.gradle.kts} file (e.g. the settings file and the scripts applied with
+ * {@code apply from:}) and of the {@code gradle.properties} file trigger the synchronization.
+ * <p/>
+ * The changes are not synchronized right away. Operations like a {@code git checkout} modify many
+ * build scripts in a short period of time, so the affected projects are collected until no more
+ * changes arrive for the quiet period configured with the {@link #AUTO_SYNC_QUIET_PERIOD}
+ * preference. Then a single synchronization is scheduled for all affected Gradle builds.
  *
  * @author Donat Csikos
  */
 public final class SynchronizingBuildScriptUpdateListener implements IResourceChangeListener {
 
+    /**
+     * Preference key for the number of milliseconds without build script changes after which the
+     * collected changes are synchronized.
+     */
+    public static final String AUTO_SYNC_QUIET_PERIOD = "auto.sync.quiet.period";
+
+    private static final int DEFAULT_QUIET_PERIOD = 500;
+
+    private final Object lock = new Object();
+    private final Set<IProject> pendingProjects = Sets.newLinkedHashSet();
+    private long lastChangeTime;
+    private final Job synchronizationJob = new DebouncedSynchronizationJob();
+
     private SynchronizingBuildScriptUpdateListener() {
     }
 
@@ -47,7 +75,11 @@ public final class SynchronizingBuildScriptUpdateListener implements IResourceCh
         IResourceDelta delta = event.getDelta();
         if (delta != null) {
             try {
-                visitDelta(delta);
+                Set<IProject> affectedProjects = Sets.newLinkedHashSet();
+                visitDelta(delta, affectedProjects);
+                if (!affectedProjects.isEmpty()) {
+                    scheduleSynchronization(affectedProjects);
+                }
             } catch (CoreException e) {
                 CorePlugin.logger().warn("Failed to detect project changes", e);
             }
@@ -59,13 +91,13 @@ public final class SynchronizingBuildScriptUpdateListener implements IResourceCh
         return configuration.getBuildConfiguration().isAutoSync();
     }
 
-    private void visitDelta(IResourceDelta delta) throws CoreException {
+    private void visitDelta(IResourceDelta delta, final Set<IProject> affectedProjects) throws CoreException {
         delta.accept(new IResourceDeltaVisitor() {
 
             @Override
             public boolean visit(IResourceDelta delta) throws CoreException {
                 try {
-                    return doVisitDelta(delta);
+                    return doVisitDelta(delta, affectedProjects);
                 } catch (Exception e) {
                     throw new CoreException(new Status(IStatus.WARNING, CorePlugin.PLUGIN_ID, "SynchronizingBuildScriptUpdateListener failed", e));
                 }
@@ -73,12 +105,12 @@ public final class SynchronizingBuildScriptUpdateListener implements IResourceCh
         });
     }
 
-    private boolean doVisitDelta(IResourceDelta delta) throws Exception {
+    private boolean doVisitDelta(IResourceDelta delta, Set<IProject> affectedProjects) throws Exception {
         IResource resource = delta.getResource();
         if (resource instanceof IProject) {
             IProject project = (IProject) resource;
-            if (GradleProjectNature.isPresentOn(project) && isEnabledInPreferences(project)) {
-                executeSyncIfBuildScriptChanged(project, delta);
+            if (GradleProjectNature.isPresentOn(project) && isEnabledInPreferences(project) && hasBuildScriptFileChanged(project, delta.getAffectedChildren())) {
+                affectedProjects.add(project);
             }
             return false;
         } else {
@@ -86,34 +118,49 @@ public final class SynchronizingBuildScriptUpdateListener implements IResourceCh
         }
     }
 
-    private void executeSyncIfBuildScriptChanged(IProject project, IResourceDelta delta) {
-        if (hasBuildScriptFileChanged(project, delta.getAffectedChildren())) {
-            CorePlugin.gradleWorkspaceManager().getGradleBuild(project).get().synchronize();
-        }
-    }
-
     private boolean hasBuildScriptFileChanged(IProject project, IResourceDelta[] deltas) {
         PersistentModel model = CorePlugin.modelPersistence().loadModel(project);
         if (!model.isPresent())  {
             return false;
         } else {
-            IPath buildScriptPath = model.getbuildScriptPath();
-            Set<IPath> affectedResourcePaths  = collectAffectedResourcePaths(deltas);
-            return affectedResourcePaths.contains(buildScriptPath);
+            return hasBuildScriptFileChanged(model.getbuildScriptPath(), deltas);
         }
     }
 
-    private Set<IPath> collectAffectedResourcePaths(IResourceDelta[] children) {
-        Set<IPath> result = Sets.newHashSet();
-        collectAffectedResourcePaths(result, children);
-        return result;
+    private boolean hasBuildScriptFileChanged(IPath buildScriptPath, IResourceDelta[] deltas) {
+        for (IResourceDelta delta : deltas) {
+            IResource resource = delta.getResource();
+            if (resource instanceof IFile) {
+                if (isContentChange(delta) && (resource.getProjectRelativePath().equals(buildScriptPath) || isBuildConfigurationFile(resource))) {
+                    return true;
+                }
+            } else if (!resource.isDerived() && hasBuildScriptFileChanged(buildScriptPath, delta.getAffectedChildren())) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private void  collectAffectedResourcePaths(Set<IPath> result, IResourceDelta[] deltas) {
-        for (IResourceDelta delta : deltas) {
-            result.add(delta.getResource().getProjectRelativePath());
-            collectAffectedResourcePaths(result, delta.getAffectedChildren());
+    private static boolean isContentChange(IResourceDelta delta) {
+        return delta.getKind() != IResourceDelta.CHANGED || (delta.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) != 0;
+    }
+
+    private static boolean isBuildConfigurationFile(IResource file) {
+        String name = file.getName();
+        return name.endsWith(".gradle") || name.endsWith(".gradle.kts") || name.equals("gradle.properties");
+    }
+
+    private void scheduleSynchronization(Set<IProject> affectedProjects) {
+        synchronized (this.lock) {
+            this.pendingProjects.addAll(affectedProjects);
+            this.lastChangeTime = System.currentTimeMillis();
         }
+        this.synchronizationJob.schedule(getQuietPeriod());
+    }
+
+    private static int getQuietPeriod() {
+        int quietPeriod = Platform.getPreferencesService().getInt(CorePlugin.PLUGIN_ID, AUTO_SYNC_QUIET_PERIOD, DEFAULT_QUIET_PERIOD, null);
+        return Math.max(0, quietPeriod);
     }
 
     public static SynchronizingBuildScriptUpdateListener createAndRegister() {
@@ -124,5 +171,41 @@ public final class SynchronizingBuildScriptUpdateListener implements IResourceCh
 
     public void close() {
         ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+        this.synchronizationJob.cancel();
+    }
+
+    /**
+     * Synchronizes the collected projects once the quiet period has elapsed since the last change.
+     */
+    private final class DebouncedSynchronizationJob extends Job {
+
+        public DebouncedSynchronizationJob() {
+            super("Synchronizing changed Gradle builds");
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            Set<IProject> projects;
+            synchronized (SynchronizingBuildScriptUpdateListener.this.lock) {
+                long remainingDelay = SynchronizingBuildScriptUpdateListener.this.lastChangeTime + getQuietPeriod() - System.currentTimeMillis();
+                if (remainingDelay > 0) {
+                    schedule(remainingDelay);
+                    return Status.OK_STATUS;
+                }
+                projects = ImmutableSet.copyOf(SynchronizingBuildScriptUpdateListener.this.pendingProjects);
+                SynchronizingBuildScriptUpdateListener.this.pendingProjects.clear();
+            }
+
+            if (!projects.isEmpty()) {
+                CorePlugin.gradleWorkspaceManager().getGradleBuilds(projects).synchronize(NewProjectHandler.NO_OP);
+            }
+            return Status.OK_STATUS;
+        }
+
+        @Override
+        public boolean belongsTo(Object family) {
+            return CorePlugin.GRADLE_JOB_FAMILY.equals(family);
+        }
     }
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+import java.util.Map;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Maps;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * Index of the workspace projects by their location on the file system.
+ * <p/>
+ * The index is built lazily upon the first lookup and afterwards kept up-to-date by the
+ * {@link ProjectChangeListener} and by the {@link DefaultWorkspaceOperations} methods which
+ * create, include or rename projects. Since resource change events are only delivered after the
+ * enclosing workspace operation has finished, every hit is validated against the workspace before
+ * it is returned, and a miss is confirmed by scanning the workspace projects.
+ *
+ * @author Donat Csikos
+ */
+public final class WorkspaceProjectIndex {
+
+    private final Object lock = new Object();
+
+    private final Map<File, String> projectNamesByLocation = Maps.newHashMap();
+    private final Map<String, File> locationsByProjectName = Maps.newHashMap();
+    private boolean initialized = false;
+
+    /**
+     * Returns the workspace project located in the target directory.
+     *
+     * @param location the location of the project
+     * @return the project or {@link Optional#absent()} if no project is located in the directory
+     */
+    public Optional<IProject> findByLocation(File location) {
+        String name;
+        synchronized (this.lock) {
+            ensureInitialized();
+            name = this.projectNamesByLocation.get(location);
+        }
+
+        if (name != null) {
+            IProject project = root().getProject(name);
+            if (project.exists() && location.equals(locationOf(project))) {
+                return Optional.of(project);
+            }
+            // the project was deleted or moved in a workspace operation which is still running
+            synchronized (this.lock) {
+                if (name.equals(this.projectNamesByLocation.get(location))) {
+                    remove(name);
+                }
+            }
+        }
+        return scanWorkspace(location);
+    }
+
+    private Optional<IProject> scanWorkspace(File location) {
+        // the index can't know about the projects created, moved or relocated in a workspace
+        // operation which is still running, hence fall back to the full scan before giving up
+        for (IProject project : root().getProjects()) {
+            if (location.equals(locationOf(project))) {
+                projectAdded(project);
+                return Optional.of(project);
+            }
+        }
+        return Optional.absent();
+    }
+
+    /**
+     * Adds the project to the index or updates its location.
+     *
+     * @param project the added, opened, moved or relocated project
+     */
+    public void projectAdded(IProject project) {
+        File location = locationOf(project);
+        synchronized (this.lock) {
+            if (this.initialized) {
+                remove(project.getName());
+                put(location, project.getName());
+            }
+        }
+    }
+
+    /**
+     * Removes the project from the index.
+     *
+     * @param project the deleted project or the project handle from before a move
+     */
+    public void projectRemoved(IProject project) {
+        synchronized (this.lock) {
+            remove(project.getName());
+        }
+    }
+
+    private void put(File location, String name) {
+        if (location != null) {
+            this.projectNamesByLocation.put(location, name);
+            this.locationsByProjectName.put(name, location);
+        }
+    }
+
+    private void remove(String name) {
+        File location = this.locationsByProjectName.remove(name);
+        if (location != null && name.equals(this.projectNamesByLocation.get(location))) {
+            this.projectNamesByLocation.remove(location);
+        }
+    }
+
+    private void ensureInitialized() {
+        if (!this.initialized) {
+            for (IProject project : root().getProjects()) {
+                put(locationOf(project), project.getName());
+            }
+            this.initialized = true;
+        }
+    }
+
+    private static File locationOf(IProject project) {
+        // since Eclipse 3.4 projects can be non-local and they could return null locations
+        // for Buildship this is not the case, Gradle projects are always available on the
+        // local file system
+        IPath location = project.getLocation();
+        return location != null ? location.toFile() : null;
+    }
+
+    private static IWorkspaceRoot root() {
+        return ResourcesPlugin.getWorkspace().getRoot();
+    }
+}
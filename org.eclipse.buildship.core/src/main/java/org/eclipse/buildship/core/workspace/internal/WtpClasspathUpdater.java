@@ -42,12 +42,18 @@ final class WtpClasspathUpdater {
     private static final String NON_DEPLOYMENT_ATTRIBUTE = "org.eclipse.jst.component.nondependency";
 
     public static void update(IJavaProject javaProject, OmniEclipseProject project, SubMonitor progress) throws JavaModelException {
+        ClasspathTransaction transaction = ClasspathTransaction.begin(javaProject);
+        update(transaction, project);
+        transaction.commit(progress);
+    }
+
+    public static void update(ClasspathTransaction transaction, OmniEclipseProject project) {
         List<OmniExternalDependency> dependencies = project.getExternalDependencies();
         String deploymentPath = getDeploymentPath(dependencies);
         if (deploymentPath != null) {
-            updateDeploymentPath(javaProject, deploymentPath, progress);
+            updateDeploymentPath(transaction, deploymentPath);
         } else if (hasNonDeploymentAttributes(dependencies)) {
-            markAsNonDeployed(javaProject, progress);
+            markAsNonDeployed(transaction);
         }
     }
 
@@ -81,27 +87,23 @@ final class WtpClasspathUpdater {
         return false;
     }
 
-    private static void updateDeploymentPath(IJavaProject javaProject, String deploymentPath, SubMonitor progress) throws JavaModelException {
-        replaceGradleClasspathContainerAttribute(javaProject, DEPLOYMENT_ATTRIBUTE, deploymentPath, NON_DEPLOYMENT_ATTRIBUTE, progress);
+    private static void updateDeploymentPath(ClasspathTransaction transaction, String deploymentPath) {
+        replaceGradleClasspathContainerAttribute(transaction, DEPLOYMENT_ATTRIBUTE, deploymentPath, NON_DEPLOYMENT_ATTRIBUTE);
     }
 
-    private static void markAsNonDeployed(IJavaProject javaProject, SubMonitor progress) throws JavaModelException {
-        replaceGradleClasspathContainerAttribute(javaProject, NON_DEPLOYMENT_ATTRIBUTE, "", DEPLOYMENT_ATTRIBUTE, progress);
+    private static void markAsNonDeployed(ClasspathTransaction transaction) {
+        replaceGradleClasspathContainerAttribute(transaction, NON_DEPLOYMENT_ATTRIBUTE, "", DEPLOYMENT_ATTRIBUTE);
     }
 
-    private static void replaceGradleClasspathContainerAttribute(IJavaProject project, String plusKey, String plusValue, String minusKey, SubMonitor progress) throws JavaModelException {
-        IClasspathEntry[] oldClasspath = project.getRawClasspath();
-        IClasspathEntry[] newClasspath = new IClasspathEntry[oldClasspath.length];
-        for (int i = 0; i < oldClasspath.length; i++) {
-            IClasspathEntry entry = oldClasspath[i];
+    private static void replaceGradleClasspathContainerAttribute(ClasspathTransaction transaction, String plusKey, String plusValue, String minusKey) {
+        ListIterator<IClasspathEntry> iterator = transaction.getEntries().listIterator();
+        while (iterator.hasNext()) {
+            IClasspathEntry entry = iterator.next();
             if (isGradleClasspathContainer(entry)) {
                 IClasspathAttribute[] attributes = replaceClasspathAttribute(entry.getExtraAttributes(), plusKey, plusValue, minusKey);
-                newClasspath[i] = JavaCore.newContainerEntry(entry.getPath(), entry.getAccessRules(), attributes, entry.isExported());
-            } else {
-                newClasspath[i] = entry;
+                iterator.set(JavaCore.newContainerEntry(entry.getPath(), entry.getAccessRules(), attributes, entry.isExported()));
             }
         }
-        project.setRawClasspath(newClasspath, progress);
     }
 
     private static boolean isGradleClasspathContainer(IClasspathEntry entry) {
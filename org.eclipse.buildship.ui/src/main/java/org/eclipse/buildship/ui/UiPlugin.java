@@ -36,6 +36,7 @@ import org.eclipse.buildship.ui.launch.ConsoleShowingLaunchListener;
 import org.eclipse.buildship.ui.launch.UiGradleLaunchConfigurationManager;
 import org.eclipse.buildship.ui.notification.DialogUserNotification;
 import org.eclipse.buildship.ui.view.execution.ExecutionShowingLaunchRequestListener;
+import org.eclipse.buildship.ui.workspace.ProjectsInUseReporter;
 import org.eclipse.buildship.ui.workspace.ShutdownListener;
 
 /**
@@ -68,6 +69,7 @@ public final class UiPlugin extends AbstractUIPlugin {
         plugin = this;
         registerServices(context);
         registerListeners();
+        reportProjectsInUse();
     }
 
     @Override
@@ -133,6 +135,13 @@ public final class UiPlugin extends AbstractUIPlugin {
         PlatformUI.getWorkbench().addWorkbenchListener(this.shutdownListener = new ShutdownListener());
     }
 
+    private void reportProjectsInUse() {
+        // the persistent models of these projects are loaded first; the UI plugin can be activated
+        // after the prefetch started, then only the models not yet loaded are reordered, and the
+        // models requested by the editors in the meantime are loaded on demand
+        PlatformUI.getWorkbench().getDisplay().asyncExec(new ProjectsInUseReporter());
+    }
+
     @SuppressWarnings({"cast", "RedundantCast"})
     private void unregisterListeners() {
         PlatformUI.getWorkbench().removeWorkbenchListener(this.shutdownListener);
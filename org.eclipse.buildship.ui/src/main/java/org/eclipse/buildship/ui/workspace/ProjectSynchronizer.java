@@ -53,6 +53,16 @@ public final class ProjectSynchronizer {
         gradleBuilds.synchronize(NewProjectHandler.IMPORT_AND_MERGE);
     }
 
+    public static void executeFullSynchronization(final ExecutionEvent event) {
+        Set<IProject> selectedProjects = collectSelectedProjects(event);
+        if (selectedProjects.isEmpty()) {
+            return;
+        }
+
+        GradleBuilds gradleBuilds = CorePlugin.gradleWorkspaceManager().getGradleBuilds(selectedProjects);
+        gradleBuilds.synchronizeFully(NewProjectHandler.IMPORT_AND_MERGE);
+    }
+
     private static Set<IProject> collectSelectedProjects(ExecutionEvent event) {
         ISelection currentSelection = HandlerUtil.getCurrentSelection(event);
         if (currentSelection instanceof IStructuredSelection) {
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.ui.workspace;
+
+import java.util.Set;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.ui.IEditorPart;
+import org.eclipse.ui.IEditorReference;
+import org.eclipse.ui.IWorkbenchPage;
+import org.eclipse.ui.IWorkbenchWindow;
+import org.eclipse.ui.IWorkingSet;
+import org.eclipse.ui.PlatformUI;
+
+import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.workspace.ProjectsInUseEvent;
+
+/**
+ * Broadcasts a {@link ProjectsInUseEvent} with the projects of the open editors, followed by the
+ * projects of the working sets selected in the active workbench page.
+ * <p/>
+ * Only the editors which are already instantiated are considered: asking a not yet restored editor
+ * reference for its input would restore the input during the startup, which is what the event is
+ * supposed to speed up.
+ * <p/>
+ * Must be executed on the UI thread.
+ *
+ * @author Donat Csikos
+ */
+public final class ProjectsInUseReporter implements Runnable {
+
+    @Override
+    public void run() {
+        IWorkbenchWindow window = PlatformUI.getWorkbench().getActiveWorkbenchWindow();
+        IWorkbenchPage page = window != null ? window.getActivePage() : null;
+        if (page == null) {
+            return;
+        }
+
+        Set<IProject> projects = Sets.newLinkedHashSet();
+        for (IEditorReference reference : page.getEditorReferences()) {
+            IEditorPart editor = reference.getEditor(false);
+            if (editor != null) {
+                addProject(editor.getEditorInput(), projects);
+            }
+        }
+        for (IWorkingSet workingSet : page.getWorkingSets()) {
+            for (IAdaptable element : workingSet.getElements()) {
+                addProject(element, projects);
+            }
+        }
+
+        if (!projects.isEmpty()) {
+            CorePlugin.listenerRegistry().dispatch(new ProjectsInUseEvent(ImmutableList.copyOf(projects)));
+        }
+    }
+
+    @SuppressWarnings({"cast", "RedundantCast"}) // Eclipse Mars M6 introduced type parameters on the IAdaptable interface
+    private static void addProject(IAdaptable element, Set<IProject> projects) {
+        IResource resource = (IResource) element.getAdapter(IResource.class);
+        if (resource != null) {
+            projects.add(resource.getProject());
+        }
+    }
+}